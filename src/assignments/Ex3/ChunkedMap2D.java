@@ -0,0 +1,484 @@
+package assignments.Ex3;
+
+import java.util.Arrays;
+
+/**
+ * ChunkedMap2D - a Map2D for very large, mostly uniform worlds.
+ *
+ * The map is cut into CHUNK x CHUNK tiles. A tile whose cells all hold the same
+ * value is stored as that single value; it gets a cell array only when a
+ * write makes it non-uniform. Memory therefore follows the detail of the map
+ * and not its area: a 100000x100000 map of one color costs a few megabytes.
+ *
+ * The algorithms know about chunks:
+ * - fill recolors a uniform chunk of the old color in O(1) and only walks
+ *   the cells of materialized chunks;
+ * - shortestPath keeps its visited marks in per-chunk scratch arrays that are
+ *   allocated for the chunks the search actually touches;
+ * - allDistance returns a ChunkedMap2D, so only the reached chunks are materialized.
+ *
+ * Inside a chunk cells are column-major like MyMap2D. getMap() builds the full
+ * dense array and is only usable for maps that fit in memory.
+ * Not thread-safe.
+ */
+public class ChunkedMap2D implements Map2D {
+
+    /** Side length of a chunk (a power of two) */
+    public static final int CHUNK = 64;
+    private static final int SHIFT = 6;
+    private static final int MASK = CHUNK - 1;
+    private static final int[] DX = {1, -1, 0, 0};
+    private static final int[] DY = {0, 0, 1, -1};
+
+    private int _w;
+    private int _h;
+    private boolean _cyclic;
+    // Chunk grid: chunk (cx,cy) has id cx*_ch+cy
+    private int _cw;
+    private int _ch;
+    // Cell arrays of the materialized chunks, null for uniform chunks
+    private int[][] _chunks;
+    // The value of every uniform chunk
+    private int[] _uniform;
+    private int _materialized;
+    // Per-chunk search marks of shortestPath, allocated on demand
+    private byte[][] _visit;
+
+    // ==================== CONSTRUCTORS ====================
+
+    public ChunkedMap2D(int w, int h, int v) {
+        init(w, h, v);
+    }
+
+    public ChunkedMap2D(int[][] arr) {
+        init(arr);
+    }
+
+    // ==================== INIT METHODS ====================
+
+    @Override
+    public void init(int w, int h, int v) {
+        if (w <= 0 || h <= 0) {
+            throw new RuntimeException("Width and height must be positive");
+        }
+        long chunks = (long) ((w + MASK) >> SHIFT) * ((h + MASK) >> SHIFT);
+        if (chunks > Integer.MAX_VALUE - 8) {
+            throw new RuntimeException("Map too large: " + w + "x" + h);
+        }
+        this._w = w;
+        this._h = h;
+        this._cw = (w + MASK) >> SHIFT;
+        this._ch = (h + MASK) >> SHIFT;
+        this._chunks = new int[(int) chunks][];
+        this._uniform = new int[(int) chunks];
+        if (v != 0) Arrays.fill(this._uniform, v);
+        this._materialized = 0;
+        this._visit = null;
+        this._cyclic = false;
+    }
+
+    @Override
+    public void init(int[][] arr) {
+        if (arr == null || arr.length == 0) {
+            throw new RuntimeException("Array is null or empty");
+        }
+        int height = arr[0] == null ? 0 : arr[0].length;
+        for (int i = 0; i < arr.length; i++) {
+            if (arr[i] == null || arr[i].length != height) {
+                throw new RuntimeException("Not a valid rectangular 2D array");
+            }
+        }
+        if (height == 0) {
+            throw new RuntimeException("Array is null or empty");
+        }
+        init(arr.length, height, arr[0][0]);
+        for (int cx = 0; cx < this._cw; cx++) {
+            for (int cy = 0; cy < this._ch; cy++) {
+                int id = cx * this._ch + cy;
+                int x0 = cx << SHIFT;
+                int y0 = cy << SHIFT;
+                int x1 = Math.min(this._w, x0 + CHUNK);
+                int y1 = Math.min(this._h, y0 + CHUNK);
+                int first = arr[x0][y0];
+                boolean uniform = true;
+                for (int x = x0; x < x1 && uniform; x++) {
+                    for (int y = y0; y < y1; y++) {
+                        if (arr[x][y] != first) {
+                            uniform = false;
+                            break;
+                        }
+                    }
+                }
+                this._uniform[id] = first;
+                if (!uniform) {
+                    int[] c = materialize(id);
+                    for (int x = x0; x < x1; x++) {
+                        System.arraycopy(arr[x], y0, c, (x & MASK) << SHIFT, y1 - y0);
+                    }
+                }
+            }
+        }
+    }
+
+    // ==================== GETTERS ====================
+
+    /**
+     * Dense copy of the whole map; needs width*height ints of memory.
+     */
+    @Override
+    public int[][] getMap() {
+        int[][] copy = new int[this._w][this._h];
+        for (int x = 0; x < this._w; x++) {
+            for (int y = 0; y < this._h; y++) {
+                copy[x][y] = get(x, y);
+            }
+        }
+        return copy;
+    }
+
+    @Override
+    public int getWidth() {
+        return this._w;
+    }
+
+    @Override
+    public int getHeight() {
+        return this._h;
+    }
+
+    @Override
+    public int getPixel(int x, int y) {
+        if (!isValidCoordinate(x, y)) {
+            throw new RuntimeException("Coordinate out of bounds: (" + x + "," + y + ")");
+        }
+        return get(x, y);
+    }
+
+    @Override
+    public int getPixel(Pixel2D p) {
+        if (p == null) throw new RuntimeException("Pixel is null");
+        return getPixel(p.getX(), p.getY());
+    }
+
+    /**
+     * @return the number of chunks that hold a cell array (the rest are uniform)
+     */
+    public int getMaterializedChunks() {
+        return this._materialized;
+    }
+
+    // ==================== SETTERS ====================
+
+    @Override
+    public void setPixel(int x, int y, int v) {
+        if (!isValidCoordinate(x, y)) {
+            throw new RuntimeException("Coordinate out of bounds: (" + x + "," + y + ")");
+        }
+        set(x, y, v);
+    }
+
+    @Override
+    public void setPixel(Pixel2D p, int v) {
+        if (p == null) throw new RuntimeException("Pixel is null");
+        setPixel(p.getX(), p.getY(), v);
+    }
+
+    /**
+     * Turn every materialized chunk whose cells are all equal back into a single value.
+     * @return the number of chunks released
+     */
+    public int compact() {
+        int released = 0;
+        for (int id = 0; id < this._chunks.length; id++) {
+            int[] c = this._chunks[id];
+            if (c == null) continue;
+            int x0 = (id / this._ch) << SHIFT;
+            int y0 = (id % this._ch) << SHIFT;
+            int cols = Math.min(CHUNK, this._w - x0);
+            int rows = Math.min(CHUNK, this._h - y0);
+            int first = c[0];
+            boolean uniform = true;
+            for (int lx = 0; lx < cols && uniform; lx++) {
+                for (int ly = 0; ly < rows; ly++) {
+                    if (c[(lx << SHIFT) | ly] != first) {
+                        uniform = false;
+                        break;
+                    }
+                }
+            }
+            if (uniform) {
+                this._chunks[id] = null;
+                this._uniform[id] = first;
+                this._materialized--;
+                released++;
+            }
+        }
+        return released;
+    }
+
+    // ==================== PROPERTIES ====================
+
+    @Override
+    public boolean isInside(Pixel2D p) {
+        if (p == null) return false;
+        return isValidCoordinate(p.getX(), p.getY());
+    }
+
+    @Override
+    public boolean isCyclic() {
+        return this._cyclic;
+    }
+
+    @Override
+    public void setCyclic(boolean cy) {
+        this._cyclic = cy;
+    }
+
+    // ==================== ALGORITHMS ====================
+
+    /**
+     * Flood fill. A uniform chunk of the old color is recolored as a whole and
+     * the fill continues across its borders; materialized chunks are filled
+     * cell by cell.
+     * @return the number of cells filled (capped at Integer.MAX_VALUE)
+     */
+    @Override
+    public int fill(Pixel2D p, int new_v) {
+        if (!isInside(p)) return 0;
+        int old_v = get(p.getX(), p.getY());
+        if (old_v == new_v) return 0;
+
+        // (x,y) pairs; a cell may be queued more than once, the color check on poll skips repeats
+        IntRingQueue queue = new IntRingQueue(256);
+        queue.add(p.getX());
+        queue.add(p.getY());
+        long count = 0;
+        while (!queue.isEmpty()) {
+            int x = queue.poll();
+            int y = queue.poll();
+            int id = chunkId(x, y);
+            int[] c = this._chunks[id];
+            if (c == null) {
+                if (this._uniform[id] != old_v) continue;
+                this._uniform[id] = new_v;
+                count += queueChunkBorder(queue, id, old_v);
+                continue;
+            }
+            int l = local(x, y);
+            if (c[l] != old_v) continue;
+            c[l] = new_v;
+            count++;
+            for (int dir = 0; dir < 4; dir++) {
+                int nx = stepX(x, dir);
+                int ny = stepY(y, dir);
+                if (nx >= 0 && ny >= 0 && get(nx, ny) == old_v) {
+                    queue.add(nx);
+                    queue.add(ny);
+                }
+            }
+        }
+        return (int) Math.min(count, Integer.MAX_VALUE);
+    }
+
+    /**
+     * BFS shortest path. The visited marks live in per-chunk scratch arrays
+     * that exist only for the chunks the search reaches.
+     */
+    @Override
+    public Pixel2D[] shortestPath(Pixel2D p1, Pixel2D p2, int obsColor) {
+        if (!isInside(p1) || !isInside(p2)) return null;
+        if (getPixel(p1) == obsColor || getPixel(p2) == obsColor) return null;
+        if (p1.equals(p2)) return new Pixel2D[]{p1};
+
+        if (this._visit == null) this._visit = new byte[this._chunks.length][];
+        IntRingQueue touched = new IntRingQueue(64);
+        IntRingQueue queue = new IntRingQueue(256);
+        int tx = p2.getX();
+        int ty = p2.getY();
+        mark(touched, p1.getX(), p1.getY(), 4);
+        queue.add(p1.getX());
+        queue.add(p1.getY());
+        boolean found = false;
+        try {
+            while (!queue.isEmpty() && !found) {
+                int x = queue.poll();
+                int y = queue.poll();
+                for (int dir = 0; dir < 4; dir++) {
+                    int nx = stepX(x, dir);
+                    int ny = stepY(y, dir);
+                    if (nx < 0 || ny < 0 || marked(nx, ny) || get(nx, ny) == obsColor) continue;
+                    // Remember the direction we arrived in
+                    mark(touched, nx, ny, dir);
+                    if (nx == tx && ny == ty) {
+                        found = true;
+                        break;
+                    }
+                    queue.add(nx);
+                    queue.add(ny);
+                }
+            }
+            if (!found) return null;
+
+            // Walk back from p2 against the stored directions
+            int len = 1;
+            for (int x = tx, y = ty, d = markOf(x, y); d != 4; d = markOf(x, y)) {
+                int back = d ^ 1;
+                x = stepX(x, back);
+                y = stepY(y, back);
+                len++;
+            }
+            Pixel2D[] path = new Pixel2D[len];
+            int x = tx;
+            int y = ty;
+            for (int i = len - 1; i > 0; i--) {
+                path[i] = new Index2D(x, y);
+                int back = markOf(x, y) ^ 1;
+                x = stepX(x, back);
+                y = stepY(y, back);
+            }
+            path[0] = p1;
+            return path;
+        } finally {
+            while (!touched.isEmpty()) this._visit[touched.poll()] = null;
+        }
+    }
+
+    /**
+     * BFS distances from start. The result is a ChunkedMap2D in which only the
+     * chunks the search reached are materialized; -1 marks unreachable cells.
+     */
+    @Override
+    public Map2D allDistance(Pixel2D start, int obsColor) {
+        ChunkedMap2D dist = new ChunkedMap2D(this._w, this._h, -1);
+        dist.setCyclic(this._cyclic);
+        if (!isInside(start)) return dist;
+
+        IntRingQueue queue = new IntRingQueue(256);
+        dist.set(start.getX(), start.getY(), 0);
+        queue.add(start.getX());
+        queue.add(start.getY());
+        while (!queue.isEmpty()) {
+            int x = queue.poll();
+            int y = queue.poll();
+            int next = dist.get(x, y) + 1;
+            for (int dir = 0; dir < 4; dir++) {
+                int nx = stepX(x, dir);
+                int ny = stepY(y, dir);
+                if (nx < 0 || ny < 0 || dist.get(nx, ny) != -1 || get(nx, ny) == obsColor) continue;
+                dist.set(nx, ny, next);
+                queue.add(nx);
+                queue.add(ny);
+            }
+        }
+        return dist;
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private int chunkId(int x, int y) {
+        return (x >> SHIFT) * this._ch + (y >> SHIFT);
+    }
+
+    private static int local(int x, int y) {
+        return ((x & MASK) << SHIFT) | (y & MASK);
+    }
+
+    private int get(int x, int y) {
+        int id = chunkId(x, y);
+        int[] c = this._chunks[id];
+        return c == null ? this._uniform[id] : c[local(x, y)];
+    }
+
+    private void set(int x, int y, int v) {
+        int id = chunkId(x, y);
+        int[] c = this._chunks[id];
+        if (c == null) {
+            if (this._uniform[id] == v) return;
+            c = materialize(id);
+        }
+        c[local(x, y)] = v;
+    }
+
+    /**
+     * Give the uniform chunk id its own cell array, filled with its value.
+     */
+    private int[] materialize(int id) {
+        int[] c = new int[CHUNK * CHUNK];
+        if (this._uniform[id] != 0) Arrays.fill(c, this._uniform[id]);
+        this._chunks[id] = c;
+        this._materialized++;
+        return c;
+    }
+
+    /**
+     * Queue the cells just outside the borders of chunk id that hold old_v.
+     * @return the number of map cells in the chunk
+     */
+    private long queueChunkBorder(IntRingQueue queue, int id, int old_v) {
+        int x0 = (id / this._ch) << SHIFT;
+        int y0 = (id % this._ch) << SHIFT;
+        int x1 = Math.min(this._w, x0 + CHUNK) - 1;
+        int y1 = Math.min(this._h, y0 + CHUNK) - 1;
+        for (int y = y0; y <= y1; y++) {
+            queueIf(queue, stepX(x0, 1), y, old_v);
+            queueIf(queue, stepX(x1, 0), y, old_v);
+        }
+        for (int x = x0; x <= x1; x++) {
+            queueIf(queue, x, stepY(y0, 3), old_v);
+            queueIf(queue, x, stepY(y1, 2), old_v);
+        }
+        return (long) (x1 - x0 + 1) * (y1 - y0 + 1);
+    }
+
+    private void queueIf(IntRingQueue queue, int x, int y, int v) {
+        if (x >= 0 && y >= 0 && get(x, y) == v) {
+            queue.add(x);
+            queue.add(y);
+        }
+    }
+
+    /**
+     * @return x moved one step in direction dir (0=right, 1=left, 2=up, 3=down),
+     * wrapped on a cyclic map, -1 if it leaves a non-cyclic map
+     */
+    private int stepX(int x, int dir) {
+        int nx = x + DX[dir];
+        if (nx >= 0 && nx < this._w) return nx;
+        if (!this._cyclic) return -1;
+        return nx < 0 ? this._w - 1 : 0;
+    }
+
+    private int stepY(int y, int dir) {
+        int ny = y + DY[dir];
+        if (ny >= 0 && ny < this._h) return ny;
+        if (!this._cyclic) return -1;
+        return ny < 0 ? this._h - 1 : 0;
+    }
+
+    /**
+     * Store search mark m (arrival direction 0-3, or 4 for the start) for (x,y).
+     */
+    private void mark(IntRingQueue touched, int x, int y, int m) {
+        int id = chunkId(x, y);
+        byte[] v = this._visit[id];
+        if (v == null) {
+            v = new byte[CHUNK * CHUNK];
+            this._visit[id] = v;
+            touched.add(id);
+        }
+        v[local(x, y)] = (byte) (m + 1);
+    }
+
+    private boolean marked(int x, int y) {
+        byte[] v = this._visit[chunkId(x, y)];
+        return v != null && v[local(x, y)] != 0;
+    }
+
+    private int markOf(int x, int y) {
+        return this._visit[chunkId(x, y)][local(x, y)] - 1;
+    }
+
+    private boolean isValidCoordinate(int x, int y) {
+        return x >= 0 && x < this._w && y >= 0 && y < this._h;
+    }
+}
@@ -0,0 +1,117 @@
+package assignments.Ex3;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit test class for ChunkedMap2D
+ * Small maps must behave exactly like MyMap2D; large uniform maps must stay small
+ */
+public class ChunkedMap2DTest {
+
+    private static final int WALL = 1;
+
+    // ========== Storage ==========
+
+    @Test
+    public void testUniformChunksStaySmall() {
+        ChunkedMap2D map = new ChunkedMap2D(150, 90, 7);
+        assertEquals(0, map.getMaterializedChunks(), "A uniform map has no cell arrays");
+        map.setPixel(10, 10, 7);
+        assertEquals(0, map.getMaterializedChunks(), "Writing the chunk value changes nothing");
+        map.setPixel(149, 89, 2);
+        assertEquals(1, map.getMaterializedChunks(), "A different value materializes one chunk");
+        assertEquals(2, map.getPixel(149, 89), "Written value");
+        assertEquals(7, map.getPixel(148, 89), "Rest of the chunk keeps its value");
+        map.setPixel(149, 89, 7);
+        assertEquals(1, map.compact(), "compact releases the chunk again");
+        assertEquals(0, map.getMaterializedChunks(), "Nothing left materialized");
+    }
+
+    @Test
+    public void testInitFromArray() {
+        int[][] arr = TestMaps.randomArray(130, 70, 0.2, 1);
+        for (int x = 0; x < 64; x++) {
+            for (int y = 0; y < 64; y++) {
+                arr[x][y] = 0;
+            }
+        }
+        // The small corner chunk (2x6 cells) must not be uniform by chance
+        arr[128][64] = 0;
+        arr[129][69] = WALL;
+        ChunkedMap2D map = new ChunkedMap2D(arr);
+        assertArrayEquals(arr, map.getMap(), "getMap returns the array");
+        assertEquals(5, map.getMaterializedChunks(), "The uniform chunk is not materialized");
+        assertThrows(RuntimeException.class, () -> new ChunkedMap2D(new int[][]{{1, 2}, {3}}), "Ragged array");
+        assertThrows(RuntimeException.class, () -> map.getPixel(130, 0), "Outside the map");
+    }
+
+    // ========== Algorithms ==========
+
+    @Test
+    public void testMatchesMyMap2D() {
+        for (long seed = 0; seed < 6; seed++) {
+            int[][] arr = TestMaps.randomArray(150, 90, 0.2, seed);
+            boolean cyclic = seed % 2 == 1;
+            ChunkedMap2D chunked = new ChunkedMap2D(arr);
+            MyMap2D dense = new MyMap2D(arr);
+            chunked.setCyclic(cyclic);
+            dense.setCyclic(cyclic);
+            Pixel2D a = new Index2D(3, 4);
+            Pixel2D b = new Index2D(140, 80);
+            chunked.setPixel(a, 0);
+            dense.setPixel(a, 0);
+            chunked.setPixel(b, 0);
+            dense.setPixel(b, 0);
+
+            assertArrayEquals(dense.allDistance(a, WALL).getMap(), chunked.allDistance(a, WALL).getMap(),
+                "seed " + seed + ": distances");
+            Pixel2D[] expected = dense.shortestPath(a, b, WALL);
+            Pixel2D[] path = chunked.shortestPath(a, b, WALL);
+            if (expected == null) {
+                assertNull(path, "seed " + seed + ": no path");
+            } else {
+                assertEquals(expected.length, path.length, "seed " + seed + ": path length");
+                assertEquals(a, path[0], "seed " + seed + ": starts at p1");
+                assertEquals(b, path[path.length - 1], "seed " + seed + ": ends at p2");
+                for (int i = 1; i < path.length; i++) {
+                    assertNotEquals(WALL, chunked.getPixel(path[i]), "seed " + seed + ": no walls on the path");
+                }
+            }
+            assertEquals(dense.fill(a, 3), chunked.fill(a, 3), "seed " + seed + ": fill count");
+            assertArrayEquals(dense.getMap(), chunked.getMap(), "seed " + seed + ": filled map");
+        }
+    }
+
+    @Test
+    public void testFillAcrossUniformChunks() {
+        ChunkedMap2D map = new ChunkedMap2D(200, 200, 0);
+        for (int y = 0; y < 200; y++) {
+            map.setPixel(100, y, WALL);
+        }
+        int before = map.getMaterializedChunks();
+        assertEquals(100 * 200, map.fill(new Index2D(0, 0), 5), "Left half is filled");
+        assertEquals(5, map.getPixel(99, 199), "Last cell left of the wall");
+        assertEquals(0, map.getPixel(101, 0), "Right of the wall is untouched");
+        assertEquals(before, map.getMaterializedChunks(), "Fill does not materialize uniform chunks");
+
+        map.fill(new Index2D(0, 0), 0);
+        map.setCyclic(true);
+        assertEquals(199 * 200, map.fill(new Index2D(0, 0), 5), "Cyclic fill wraps around the wall");
+    }
+
+    @Test
+    public void testLargeSparseMap() {
+        ChunkedMap2D map = new ChunkedMap2D(100_000, 100_000, 0);
+        map.setPixel(50_000, 50_000, WALL);
+        map.setPixel(99_999, 99_999, WALL);
+        assertEquals(2, map.getMaterializedChunks(), "Only the written chunks exist");
+
+        Pixel2D[] path = map.shortestPath(new Index2D(49_990, 50_000), new Index2D(50_010, 50_000), WALL);
+        assertEquals(23, path.length, "Path goes around the single wall");
+
+        ChunkedMap2D small = new ChunkedMap2D(20_000, 20_000, 0);
+        assertEquals(400_000_000, small.fill(new Index2D(7, 7), 2), "Fill of a huge uniform map");
+        assertEquals(0, small.getMaterializedChunks(), "Still no cell arrays");
+    }
+}
@@ -0,0 +1,151 @@
+package assignments.Ex3;
+
+/**
+ * ColorScan - bulk scans of int cell arrays for one color.
+ *
+ * The operations run on a SIMD kernel built on jdk.incubator.vector when the
+ * module is present (run with --add-modules jdk.incubator.vector), else on a
+ * plain scalar loop; both give identical results. The system property
+ * ex3.scan=scalar forces the scalar kernel.
+ *
+ * copy is System.arraycopy, which the JIT already turns into vector moves.
+ */
+public final class ColorScan {
+
+    private static final Kernel KERNEL = pickKernel();
+
+    private ColorScan() {
+    }
+
+    // ==================== OPERATIONS ====================
+
+    /**
+     * @return how many of a[from..to) equal color
+     */
+    public static int count(int[] a, int from, int to, int color) {
+        checkRange(a, from, to);
+        return KERNEL.count(a, from, to, color);
+    }
+
+    public static int count(int[] a, int color) {
+        return count(a, 0, a.length, color);
+    }
+
+    /**
+     * Write the indices i in [from, to) with a[i] == color, ascending, to out.
+     * @return the number of indices written
+     * @throws RuntimeException if out is too small for all of them
+     */
+    public static int findAll(int[] a, int from, int to, int color, int[] out) {
+        checkRange(a, from, to);
+        if (out == null) throw new RuntimeException("Output buffer is null");
+        return KERNEL.findAll(a, from, to, color, out);
+    }
+
+    /**
+     * @return the indices i with a[i] == color, ascending, in an exact-size array
+     */
+    public static int[] findAll(int[] a, int color) {
+        int[] out = new int[count(a, color)];
+        findAll(a, 0, a.length, color, out);
+        return out;
+    }
+
+    /**
+     * Set every a[i] == oldColor in [from, to) to newColor.
+     * @return the number of cells replaced
+     */
+    public static int replace(int[] a, int from, int to, int oldColor, int newColor) {
+        checkRange(a, from, to);
+        if (oldColor == newColor) return 0;
+        return KERNEL.replace(a, from, to, oldColor, newColor);
+    }
+
+    public static int replace(int[] a, int oldColor, int newColor) {
+        return replace(a, 0, a.length, oldColor, newColor);
+    }
+
+    /**
+     * Copy len cells from src[srcPos..] to dst[dstPos..].
+     */
+    public static void copy(int[] src, int srcPos, int[] dst, int dstPos, int len) {
+        System.arraycopy(src, srcPos, dst, dstPos, len);
+    }
+
+    /**
+     * @return true if the SIMD kernel is in use
+     */
+    public static boolean isVectorized() {
+        return !(KERNEL instanceof Scalar);
+    }
+
+    // ==================== KERNELS ====================
+
+    /**
+     * The loops behind the operations; arguments are already checked.
+     */
+    interface Kernel {
+        int count(int[] a, int from, int to, int color);
+
+        int findAll(int[] a, int from, int to, int color, int[] out);
+
+        int replace(int[] a, int from, int to, int oldColor, int newColor);
+    }
+
+    /**
+     * Plain loops, used when the vector module is not available
+     */
+    static final class Scalar implements Kernel {
+        @Override
+        public int count(int[] a, int from, int to, int color) {
+            int n = 0;
+            for (int i = from; i < to; i++) {
+                if (a[i] == color) n++;
+            }
+            return n;
+        }
+
+        @Override
+        public int findAll(int[] a, int from, int to, int color, int[] out) {
+            int n = 0;
+            for (int i = from; i < to; i++) {
+                if (a[i] == color) {
+                    if (n == out.length) throw new RuntimeException("Output buffer too small");
+                    out[n++] = i;
+                }
+            }
+            return n;
+        }
+
+        @Override
+        public int replace(int[] a, int from, int to, int oldColor, int newColor) {
+            int n = 0;
+            for (int i = from; i < to; i++) {
+                if (a[i] == oldColor) {
+                    a[i] = newColor;
+                    n++;
+                }
+            }
+            return n;
+        }
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private static Kernel pickKernel() {
+        if ("scalar".equals(System.getProperty("ex3.scan"))) return new Scalar();
+        try {
+            return new VectorColorScan();
+        } catch (LinkageError e) {
+            // jdk.incubator.vector is not in the module graph
+            return new Scalar();
+        }
+    }
+
+    private static void checkRange(int[] a, int from, int to) {
+        if (a == null) throw new RuntimeException("Array is null");
+        if (from < 0 || to > a.length || from > to) {
+            throw new RuntimeException("Bad range [" + from + ", " + to + ") for length " + a.length);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package assignments.Ex3;
+
+import org.junit.jupiter.api.Test;
+import java.util.Arrays;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit test class for ColorScan
+ * The vector and scalar kernels must agree on every range, including the
+ * tails that do not fill a whole vector
+ */
+public class ColorScanTest {
+
+    private static int[] randomCells(int n, long seed) {
+        Random rnd = new Random(seed);
+        int[] a = new int[n];
+        for (int i = 0; i < n; i++) {
+            a[i] = rnd.nextInt(4);
+        }
+        return a;
+    }
+
+    private static ColorScan.Kernel[] kernels() {
+        try {
+            return new ColorScan.Kernel[]{new ColorScan.Scalar(), new VectorColorScan()};
+        } catch (LinkageError e) {
+            // Running without jdk.incubator.vector: only the scalar kernel exists
+            return new ColorScan.Kernel[]{new ColorScan.Scalar()};
+        }
+    }
+
+    // ========== Kernels ==========
+
+    @Test
+    public void testKernelsAgree() {
+        ColorScan.Kernel scalar = new ColorScan.Scalar();
+        for (ColorScan.Kernel k : kernels()) {
+            for (int n : new int[]{0, 1, 7, 16, 33, 100, 1000}) {
+                int[] a = randomCells(n, n);
+                for (int from : new int[]{0, Math.min(3, n)}) {
+                    int to = Math.max(from, n - 2);
+                    String msg = k.getClass().getSimpleName() + " n=" + n + " from=" + from;
+                    assertEquals(scalar.count(a, from, to, 2), k.count(a, from, to, 2), msg + ": count");
+
+                    int[] expected = new int[n];
+                    int[] out = new int[n];
+                    int m = scalar.findAll(a, from, to, 2, expected);
+                    assertEquals(m, k.findAll(a, from, to, 2, out), msg + ": findAll count");
+                    assertArrayEquals(Arrays.copyOf(expected, m), Arrays.copyOf(out, m), msg + ": findAll indexes");
+
+                    int[] b = a.clone();
+                    int[] c = a.clone();
+                    assertEquals(scalar.replace(b, from, to, 1, 9), k.replace(c, from, to, 1, 9), msg + ": replace count");
+                    assertArrayEquals(b, c, msg + ": replaced cells");
+                }
+            }
+        }
+    }
+
+    // ========== Facade ==========
+
+    @Test
+    public void testFacade() {
+        int[] a = {3, 1, 3, 3, 0, 3};
+        assertEquals(4, ColorScan.count(a, 3), "count");
+        assertEquals(2, ColorScan.count(a, 1, 4, 3), "count in a range");
+        assertArrayEquals(new int[]{0, 2, 3, 5}, ColorScan.findAll(a, 3), "findAll");
+        assertEquals(0, ColorScan.replace(a, 3, 3), "Replacing a color with itself");
+        assertEquals(4, ColorScan.replace(a, 3, 7), "replace");
+        assertArrayEquals(new int[]{7, 1, 7, 7, 0, 7}, a, "Replaced cells");
+
+        int[] dst = new int[4];
+        ColorScan.copy(a, 1, dst, 1, 3);
+        assertArrayEquals(new int[]{0, 1, 7, 7}, dst, "copy");
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        int[] a = new int[10];
+        assertThrows(RuntimeException.class, () -> ColorScan.count(null, 0), "Null array");
+        assertThrows(RuntimeException.class, () -> ColorScan.count(a, 5, 11, 0), "Range past the end");
+        assertThrows(RuntimeException.class, () -> ColorScan.count(a, 6, 5, 0), "Reversed range");
+        assertThrows(RuntimeException.class, () -> ColorScan.findAll(a, 0, 10, 0, new int[3]), "Output buffer too small");
+    }
+}
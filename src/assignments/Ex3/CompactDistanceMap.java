@@ -0,0 +1,276 @@
+package assignments.Ex3;
+
+import java.util.Arrays;
+
+/**
+ * CompactDistanceMap - a Map2D for distance fields, stored in 1 or 2 bytes per cell.
+ *
+ * Each cell holds v+1 as an unsigned byte or char, so the range is
+ * [-1, 254] in the byte form and [-1, 65534] in the char form, which covers
+ * "unreachable" (-1) and the distances of all but huge maps.
+ * MyMap2D.allDistance picks the smallest form that fits the largest distance.
+ *
+ * The map stays fully writable: a setPixel that does not fit widens the
+ * storage (byte, then char, then int). fill, shortestPath and allDistance run
+ * on a temporary MyMap2D copy; distance maps are normally only read.
+ *
+ * Cells use the MyMap2D layout: (x,y) is stored at index x*getHeight()+y.
+ */
+final class CompactDistanceMap implements Map2D {
+
+    static final int BYTE_MAX = 0xFF - 1;
+    static final int CHAR_MAX = 0xFFFF - 1;
+
+    // Exactly one of the three arrays is in use
+    private byte[] _bytes;
+    private char[] _chars;
+    private int[] _ints;
+    private int _w;
+    private int _h;
+    private boolean _cyclic;
+
+    CompactDistanceMap(int w, int h, int v) {
+        init(w, h, v);
+    }
+
+    /**
+     * Copy dist (MyMap2D layout, values >= -1) into the narrowest storage that
+     * holds values up to max. A max beyond the char form adopts dist as is.
+     */
+    CompactDistanceMap(int w, int h, int[] dist, int max) {
+        this._w = w;
+        this._h = h;
+        int n = w * h;
+        if (max <= BYTE_MAX) {
+            this._bytes = new byte[n];
+            for (int i = 0; i < n; i++) this._bytes[i] = (byte) (dist[i] + 1);
+        } else if (max <= CHAR_MAX) {
+            this._chars = new char[n];
+            for (int i = 0; i < n; i++) this._chars[i] = (char) (dist[i] + 1);
+        } else {
+            this._ints = dist;
+        }
+    }
+
+    // ==================== INIT METHODS ====================
+
+    @Override
+    public void init(int w, int h, int v) {
+        if (w <= 0 || h <= 0) {
+            throw new RuntimeException("Width and height must be positive");
+        }
+        if ((long) w * h > Integer.MAX_VALUE) {
+            throw new RuntimeException("Map too large: " + w + "x" + h);
+        }
+        this._w = w;
+        this._h = h;
+        this._cyclic = false;
+        this._bytes = null;
+        this._chars = null;
+        this._ints = null;
+        int n = w * h;
+        if (v >= -1 && v <= BYTE_MAX) {
+            this._bytes = new byte[n];
+            if (v != -1) Arrays.fill(this._bytes, (byte) (v + 1));
+        } else if (v >= -1 && v <= CHAR_MAX) {
+            this._chars = new char[n];
+            Arrays.fill(this._chars, (char) (v + 1));
+        } else {
+            this._ints = new int[n];
+            Arrays.fill(this._ints, v);
+        }
+    }
+
+    @Override
+    public void init(int[][] arr) {
+        load(new MyMap2D(arr));
+        this._cyclic = false;
+    }
+
+    // ==================== GETTERS ====================
+
+    @Override
+    public int[][] getMap() {
+        int[][] copy = new int[this._w][this._h];
+        for (int x = 0, i = 0; x < this._w; x++) {
+            for (int y = 0; y < this._h; y++, i++) {
+                copy[x][y] = get(i);
+            }
+        }
+        return copy;
+    }
+
+    @Override
+    public int getWidth() {
+        return this._w;
+    }
+
+    @Override
+    public int getHeight() {
+        return this._h;
+    }
+
+    @Override
+    public int getPixel(int x, int y) {
+        if (!isValidCoordinate(x, y)) {
+            throw new RuntimeException("Coordinate out of bounds: (" + x + "," + y + ")");
+        }
+        return get(x * this._h + y);
+    }
+
+    @Override
+    public int getPixel(Pixel2D p) {
+        if (p == null) throw new RuntimeException("Pixel is null");
+        return getPixel(p.getX(), p.getY());
+    }
+
+    /**
+     * @return the number of bytes used per cell (1, 2 or 4)
+     */
+    int bytesPerCell() {
+        if (this._bytes != null) return 1;
+        return this._chars != null ? 2 : 4;
+    }
+
+    // ==================== SETTERS ====================
+
+    @Override
+    public void setPixel(int x, int y, int v) {
+        if (!isValidCoordinate(x, y)) {
+            throw new RuntimeException("Coordinate out of bounds: (" + x + "," + y + ")");
+        }
+        set(x * this._h + y, v);
+    }
+
+    @Override
+    public void setPixel(Pixel2D p, int v) {
+        if (p == null) throw new RuntimeException("Pixel is null");
+        setPixel(p.getX(), p.getY(), v);
+    }
+
+    // ==================== PROPERTIES ====================
+
+    @Override
+    public boolean isInside(Pixel2D p) {
+        if (p == null) return false;
+        return isValidCoordinate(p.getX(), p.getY());
+    }
+
+    @Override
+    public boolean isCyclic() {
+        return this._cyclic;
+    }
+
+    @Override
+    public void setCyclic(boolean cy) {
+        this._cyclic = cy;
+    }
+
+    // ==================== ALGORITHMS ====================
+
+    @Override
+    public int fill(Pixel2D p, int new_v) {
+        MyMap2D m = toMyMap2D();
+        int count = m.fill(p, new_v);
+        if (count > 0) load(m);
+        return count;
+    }
+
+    @Override
+    public Pixel2D[] shortestPath(Pixel2D p1, Pixel2D p2, int obsColor) {
+        return toMyMap2D().shortestPath(p1, p2, obsColor);
+    }
+
+    @Override
+    public Map2D allDistance(Pixel2D start, int obsColor) {
+        return toMyMap2D().allDistance(start, obsColor);
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private int get(int i) {
+        if (this._bytes != null) return (this._bytes[i] & 0xFF) - 1;
+        if (this._chars != null) return this._chars[i] - 1;
+        return this._ints[i];
+    }
+
+    private void set(int i, int v) {
+        if (this._bytes != null) {
+            if (v >= -1 && v <= BYTE_MAX) {
+                this._bytes[i] = (byte) (v + 1);
+                return;
+            }
+            widen();
+        }
+        if (this._chars != null) {
+            if (v >= -1 && v <= CHAR_MAX) {
+                this._chars[i] = (char) (v + 1);
+                return;
+            }
+            widen();
+        }
+        this._ints[i] = v;
+    }
+
+    /**
+     * Move to the next wider storage (byte to char, char to int).
+     */
+    private void widen() {
+        int n = this._w * this._h;
+        if (this._bytes != null) {
+            this._chars = new char[n];
+            for (int i = 0; i < n; i++) this._chars[i] = (char) (this._bytes[i] & 0xFF);
+            this._bytes = null;
+        } else {
+            this._ints = new int[n];
+            for (int i = 0; i < n; i++) this._ints[i] = this._chars[i] - 1;
+            this._chars = null;
+        }
+    }
+
+    /**
+     * @return a MyMap2D copy of this map, decoded straight into its cell array
+     */
+    private MyMap2D toMyMap2D() {
+        int n = this._w * this._h;
+        int[] data;
+        if (this._bytes != null) {
+            data = new int[n];
+            for (int i = 0; i < n; i++) data[i] = (this._bytes[i] & 0xFF) - 1;
+        } else if (this._chars != null) {
+            data = new int[n];
+            for (int i = 0; i < n; i++) data[i] = this._chars[i] - 1;
+        } else {
+            data = this._ints.clone();
+        }
+        MyMap2D m = new MyMap2D();
+        m.adopt(this._w, this._h, data);
+        m.setCyclic(this._cyclic);
+        return m;
+    }
+
+    /**
+     * Take over the size and cells of m, in the narrowest storage that fits.
+     */
+    private void load(MyMap2D m) {
+        int n = m.size();
+        int[] cells = new int[n];
+        boolean compact = true;
+        int max = -1;
+        for (int i = 0; i < n; i++) {
+            cells[i] = m.getPixelAt(i);
+            if (cells[i] < -1) compact = false;
+            max = Math.max(max, cells[i]);
+        }
+        CompactDistanceMap c = new CompactDistanceMap(m.getWidth(), m.getHeight(), cells, compact ? max : Integer.MAX_VALUE);
+        this._w = c._w;
+        this._h = c._h;
+        this._bytes = c._bytes;
+        this._chars = c._chars;
+        this._ints = c._ints;
+    }
+
+    private boolean isValidCoordinate(int x, int y) {
+        return x >= 0 && x < this._w && y >= 0 && y < this._h;
+    }
+}
@@ -0,0 +1,75 @@
+package assignments.Ex3;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit test class for CompactDistanceMap
+ * Tests the storage selection of allDistance and the widening on writes
+ */
+public class CompactDistanceMapTest {
+
+    private static final int WALL = 1;
+
+    // ========== Storage Selection Tests ==========
+
+    @Test
+    public void testSmallDistancesUseBytes() {
+        MyMap2D map = new MyMap2D(20, 20, 0);
+        map.setPixel(3, 3, WALL);
+        Map2D dist = map.allDistance(new Index2D(0, 0), WALL);
+        assertInstanceOf(CompactDistanceMap.class, dist, "Small distance maps should be compact");
+        assertEquals(1, ((CompactDistanceMap) dist).bytesPerCell(), "Distances up to 38 fit in a byte");
+        assertEquals(38, dist.getPixel(19, 19), "Far corner distance");
+        assertEquals(-1, dist.getPixel(3, 3), "Unreachable stays -1");
+    }
+
+    @Test
+    public void testLargeDistancesUseChars() {
+        MyMap2D map = new MyMap2D(300, 2, 0);
+        Map2D dist = map.allDistance(new Index2D(0, 0), WALL);
+        assertEquals(2, ((CompactDistanceMap) dist).bytesPerCell(), "Distance 300 needs two bytes");
+        assertEquals(300, dist.getPixel(299, 1), "Far corner distance");
+    }
+
+    @Test
+    public void testHugeDistancesUseInts() {
+        MyMap2D map = new MyMap2D(70000, 1, 0);
+        Map2D dist = map.allDistance(new Index2D(0, 0), WALL);
+        assertInstanceOf(MyMap2D.class, dist, "Distances past 65534 need an int map");
+        assertEquals(69999, dist.getPixel(69999, 0), "Far end distance");
+    }
+
+    @Test
+    public void testCyclicFlagKept() {
+        MyMap2D map = new MyMap2D(5, 5, 0);
+        map.setCyclic(true);
+        assertTrue(map.allDistance(new Index2D(0, 0), WALL).isCyclic(), "Result should keep the cyclic flag");
+    }
+
+    // ========== Writable Map Tests ==========
+
+    @Test
+    public void testWidening() {
+        CompactDistanceMap m = new CompactDistanceMap(3, 2, -1);
+        m.setPixel(1, 1, 7);
+        assertEquals(1, m.bytesPerCell(), "Small values stay in bytes");
+        m.setPixel(2, 0, 1000);
+        assertEquals(2, m.bytesPerCell(), "1000 widens to chars");
+        m.setPixel(0, 0, -5);
+        assertEquals(4, m.bytesPerCell(), "Values below -1 widen to ints");
+        assertArrayEquals(new int[][]{{-5, -1}, {-1, 7}, {1000, -1}}, m.getMap(), "Values survive widening");
+    }
+
+    @Test
+    public void testAlgorithms() {
+        CompactDistanceMap m = new CompactDistanceMap(4, 4, 0);
+        m.setPixel(1, 0, WALL);
+        m.setPixel(1, 1, WALL);
+        m.setPixel(1, 2, WALL);
+        assertEquals(13, m.fill(new Index2D(0, 0), 2), "Fill should reach around the wall");
+        assertEquals(2, m.getPixel(3, 3), "Fill result should be stored");
+        assertEquals(9, m.shortestPath(new Index2D(0, 0), new Index2D(2, 0), WALL).length, "Path goes around the wall");
+        assertEquals(8, m.allDistance(new Index2D(0, 0), WALL).getPixel(2, 0), "Distance around the wall");
+    }
+}
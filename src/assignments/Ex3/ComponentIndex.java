@@ -0,0 +1,144 @@
+package assignments.Ex3;
+
+import java.util.Arrays;
+
+/**
+ * ComponentIndex - connected components of the passable cells of a MyMap2D
+ * for one obstacle color, as a union-find over flat cell indexes.
+ *
+ * Built in one pass that unions every passable cell with its right and up
+ * neighbors (through the wrap on cyclic maps). The index follows its map:
+ * - a cell that becomes passable is unioned with its passable neighbors at once;
+ * - a cell that becomes an obstacle may split a component, which union-find
+ *   cannot undo, so the index is marked stale and rebuilt on the next refresh();
+ * - a map reset (init, setCyclic) also marks it stale.
+ *
+ * Not thread-safe: find() compresses paths.
+ */
+final class ComponentIndex implements MapChangeListener {
+
+    private final MyMap2D _map;
+    private final int _obsColor;
+    // Parent cell per cell; a root holds -(size of its component)
+    private int[] _parent = new int[0];
+    private boolean _stale = true;
+
+    ComponentIndex(MyMap2D map, int obsColor) {
+        this._map = map;
+        this._obsColor = obsColor;
+        map.addChangeListener(this);
+    }
+
+    int obsColor() {
+        return this._obsColor;
+    }
+
+    boolean isStale() {
+        return this._stale;
+    }
+
+    /**
+     * Rebuild the index if a change since the last build could have split a component.
+     */
+    void refresh() {
+        if (this._stale) rebuild();
+    }
+
+    /**
+     * @return true iff a and b are passable cells of the same component
+     */
+    boolean connected(int a, int b) {
+        return passable(a) && passable(b) && find(a) == find(b);
+    }
+
+    /**
+     * @return the number of cells in idx's component, 0 if idx is an obstacle
+     */
+    int size(int idx) {
+        return passable(idx) ? -this._parent[find(idx)] : 0;
+    }
+
+    /**
+     * Stop following the map.
+     */
+    void detach() {
+        this._map.removeChangeListener(this);
+        this._stale = true;
+    }
+
+    // ==================== CHANGE TRACKING ====================
+
+    @Override
+    public void pixelChanged(MyMap2D map, int idx, int oldV, int newV) {
+        if (this._stale) return;
+        boolean wasObstacle = oldV == this._obsColor;
+        boolean isObstacle = newV == this._obsColor;
+        if (wasObstacle && !isObstacle) {
+            // Obstacles are never unioned, so idx is still a singleton here
+            int h = this._map.getHeight();
+            int x = idx / h;
+            int y = idx - x * h;
+            for (int dir = 0; dir < 4; dir++) {
+                int n = this._map.neighbor(idx, x, y, dir);
+                if (n >= 0 && passable(n)) union(idx, n);
+            }
+        } else if (!wasObstacle && isObstacle) {
+            this._stale = true;
+        }
+    }
+
+    @Override
+    public void mapReset(MyMap2D map) {
+        this._stale = true;
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private void rebuild() {
+        int n = this._map.size();
+        if (this._parent.length != n) this._parent = new int[n];
+        Arrays.fill(this._parent, -1);
+        long[] pass = this._map.passableMask(this._obsColor);
+        int h = this._map.getHeight();
+        for (int idx = 0; idx < n; idx++) {
+            if (!MyMap2D.bit(pass, idx)) continue;
+            int x = idx / h;
+            int y = idx - x * h;
+            // Right and up cover every edge once (left and down are the neighbors' right and up)
+            int right = this._map.neighbor(idx, x, y, 0);
+            if (right >= 0 && MyMap2D.bit(pass, right)) union(idx, right);
+            int up = this._map.neighbor(idx, x, y, 2);
+            if (up >= 0 && MyMap2D.bit(pass, up)) union(idx, up);
+        }
+        this._stale = false;
+    }
+
+    private boolean passable(int idx) {
+        return this._map.getPixelAt(idx) != this._obsColor;
+    }
+
+    private int find(int i) {
+        int[] p = this._parent;
+        while (p[i] >= 0) {
+            int next = p[i];
+            // Path halving
+            if (p[next] >= 0) p[i] = p[next];
+            i = next;
+        }
+        return i;
+    }
+
+    private void union(int a, int b) {
+        int ra = find(a);
+        int rb = find(b);
+        if (ra == rb) return;
+        // Union by size: attach the smaller tree under the larger one
+        if (this._parent[ra] > this._parent[rb]) {
+            int t = ra;
+            ra = rb;
+            rb = t;
+        }
+        this._parent[ra] += this._parent[rb];
+        this._parent[rb] = ra;
+    }
+}
@@ -0,0 +1,430 @@
+package assignments.Ex3;
+
+import java.util.Arrays;
+
+/**
+ * ConcurrentMap2D - a Map2D with one writer thread and any number of reader threads.
+ *
+ * The cells are kept in chunks of whole columns (about CHUNK_CELLS cells each,
+ * column-major like MyMap2D). The writer (the game tick) mutates the map
+ * through the usual Map2D methods and calls publish() when its state is
+ * consistent, typically once per tick. publish() hands the current chunks to
+ * a new immutable Snapshot; the next write to one of those chunks copies it
+ * first, so a tick copies only the chunks it touches and a snapshot never
+ * changes. Readers (renderer, planner) call snapshot() for the last
+ * published state: one volatile read, no locks on either side.
+ *
+ * The Map2D methods of this class are for the writer thread only; other
+ * threads must read through snapshot().
+ */
+public class ConcurrentMap2D implements Map2D {
+
+    /** Approximate number of cells in a chunk */
+    public static final int CHUNK_CELLS = 4096;
+
+    private int _w;
+    private int _h;
+    private boolean _cyclic;
+    // Columns per chunk: chunk k holds the columns k*_band .. k*_band+_band-1
+    private int _band;
+    // The writer's chunks; a chunk that is not owned is shared with the last snapshot
+    private int[][] _chunks;
+    private boolean[] _owned;
+    // true when the writer's state differs from the last snapshot
+    private boolean _dirty;
+    private long _epoch;
+    private long _chunkCopies;
+    private volatile Snapshot _published;
+
+    // ==================== CONSTRUCTORS ====================
+
+    public ConcurrentMap2D(int w, int h, int v) {
+        init(w, h, v);
+    }
+
+    public ConcurrentMap2D(int[][] arr) {
+        init(arr);
+    }
+
+    // ==================== INIT METHODS ====================
+
+    /**
+     * Replace the whole map and publish it.
+     */
+    @Override
+    public void init(int w, int h, int v) {
+        allocate(w, h);
+        if (v != 0) {
+            for (int[] c : this._chunks) {
+                Arrays.fill(c, v);
+            }
+        }
+        publish();
+    }
+
+    /**
+     * Replace the whole map with a copy of arr and publish it.
+     */
+    @Override
+    public void init(int[][] arr) {
+        if (arr == null || arr.length == 0) {
+            throw new RuntimeException("Array is null or empty");
+        }
+        int height = arr[0] == null ? 0 : arr[0].length;
+        for (int i = 0; i < arr.length; i++) {
+            if (arr[i] == null || arr[i].length != height) {
+                throw new RuntimeException("Not a valid rectangular 2D array");
+            }
+        }
+        if (height == 0) {
+            throw new RuntimeException("Array is null or empty");
+        }
+        allocate(arr.length, height);
+        for (int x = 0; x < this._w; x++) {
+            int k = x / this._band;
+            System.arraycopy(arr[x], 0, this._chunks[k], (x - k * this._band) * this._h, this._h);
+        }
+        publish();
+    }
+
+    // ==================== SNAPSHOTS ====================
+
+    /**
+     * Make the writer's current state visible to snapshot(). Called by the writer.
+     * Costs one copy of the chunk table; does nothing if the map did not change
+     * since the last publish.
+     * @return the published snapshot
+     */
+    public Snapshot publish() {
+        if (!this._dirty) return this._published;
+        this._epoch++;
+        Snapshot s = new Snapshot(this._chunks.clone(), this._w, this._h, this._band, this._cyclic, this._epoch);
+        Arrays.fill(this._owned, false);
+        this._dirty = false;
+        this._published = s;
+        return s;
+    }
+
+    /**
+     * The last published state. Safe to call from any thread; never blocks.
+     */
+    public Snapshot snapshot() {
+        return this._published;
+    }
+
+    /**
+     * @return the number of chunks the writer copied because a snapshot shared them
+     */
+    public long getChunkCopies() {
+        return this._chunkCopies;
+    }
+
+    // ==================== GETTERS ====================
+
+    @Override
+    public int[][] getMap() {
+        return columns(this._chunks, this._w, this._h, this._band);
+    }
+
+    @Override
+    public int getWidth() {
+        return this._w;
+    }
+
+    @Override
+    public int getHeight() {
+        return this._h;
+    }
+
+    @Override
+    public int getPixel(int x, int y) {
+        if (!isValidCoordinate(x, y)) {
+            throw new RuntimeException("Coordinate out of bounds: (" + x + "," + y + ")");
+        }
+        return cell(this._chunks, this._h, this._band, x, y);
+    }
+
+    @Override
+    public int getPixel(Pixel2D p) {
+        if (p == null) throw new RuntimeException("Pixel is null");
+        return getPixel(p.getX(), p.getY());
+    }
+
+    // ==================== SETTERS ====================
+
+    @Override
+    public void setPixel(int x, int y, int v) {
+        if (!isValidCoordinate(x, y)) {
+            throw new RuntimeException("Coordinate out of bounds: (" + x + "," + y + ")");
+        }
+        if (getPixel(x, y) != v) set(x, y, v);
+    }
+
+    @Override
+    public void setPixel(Pixel2D p, int v) {
+        if (p == null) throw new RuntimeException("Pixel is null");
+        setPixel(p.getX(), p.getY(), v);
+    }
+
+    // ==================== PROPERTIES ====================
+
+    @Override
+    public boolean isInside(Pixel2D p) {
+        if (p == null) return false;
+        return isValidCoordinate(p.getX(), p.getY());
+    }
+
+    @Override
+    public boolean isCyclic() {
+        return this._cyclic;
+    }
+
+    @Override
+    public void setCyclic(boolean cy) {
+        if (this._cyclic == cy) return;
+        this._cyclic = cy;
+        this._dirty = true;
+    }
+
+    // ==================== ALGORITHMS ====================
+
+    /**
+     * Cell-by-cell flood fill; copies each shared chunk it recolors once.
+     */
+    @Override
+    public int fill(Pixel2D p, int new_v) {
+        if (!isInside(p)) return 0;
+        int old_v = getPixel(p);
+        if (old_v == new_v) return 0;
+
+        // Packed x*h+y; a cell is recolored when queued, so it is queued once
+        IntRingQueue queue = new IntRingQueue(64);
+        set(p.getX(), p.getY(), new_v);
+        queue.add(p.getX() * this._h + p.getY());
+        int count = 0;
+        while (!queue.isEmpty()) {
+            int c = queue.poll();
+            int x = c / this._h;
+            int y = c - x * this._h;
+            count++;
+            for (int dir = 0; dir < 4; dir++) {
+                int nx = x + (dir == 0 ? 1 : dir == 1 ? -1 : 0);
+                int ny = y + (dir == 2 ? 1 : dir == 3 ? -1 : 0);
+                if (this._cyclic) {
+                    nx = (nx + this._w) % this._w;
+                    ny = (ny + this._h) % this._h;
+                } else if (!isValidCoordinate(nx, ny)) {
+                    continue;
+                }
+                if (cell(this._chunks, this._h, this._band, nx, ny) == old_v) {
+                    set(nx, ny, new_v);
+                    queue.add(nx * this._h + ny);
+                }
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public Pixel2D[] shortestPath(Pixel2D p1, Pixel2D p2, int obsColor) {
+        return dense(this._chunks, this._w, this._h, this._band, this._cyclic).shortestPath(p1, p2, obsColor);
+    }
+
+    @Override
+    public Map2D allDistance(Pixel2D start, int obsColor) {
+        return dense(this._chunks, this._w, this._h, this._band, this._cyclic).allDistance(start, obsColor);
+    }
+
+    // ==================== SNAPSHOT CLASS ====================
+
+    /**
+     * An immutable, consistent view of the map at one publish().
+     * Any number of threads may read it at the same time. The mutating Map2D
+     * methods throw. shortestPath and allDistance run on a private dense copy;
+     * a planner that runs many searches on one snapshot can take toMyMap2D() once.
+     */
+    public static final class Snapshot implements Map2D {
+
+        private final int[][] _chunks;
+        private final int _w;
+        private final int _h;
+        private final int _band;
+        private final boolean _cyclic;
+        private final long _epoch;
+
+        private Snapshot(int[][] chunks, int w, int h, int band, boolean cyclic, long epoch) {
+            this._chunks = chunks;
+            this._w = w;
+            this._h = h;
+            this._band = band;
+            this._cyclic = cyclic;
+            this._epoch = epoch;
+        }
+
+        /**
+         * @return the number of the publish() that made this snapshot (1 for the first)
+         */
+        public long getEpoch() {
+            return this._epoch;
+        }
+
+        /**
+         * @return a MyMap2D copy of this snapshot, owned by the caller
+         */
+        public MyMap2D toMyMap2D() {
+            return dense(this._chunks, this._w, this._h, this._band, this._cyclic);
+        }
+
+        @Override
+        public int[][] getMap() {
+            return columns(this._chunks, this._w, this._h, this._band);
+        }
+
+        @Override
+        public int getWidth() {
+            return this._w;
+        }
+
+        @Override
+        public int getHeight() {
+            return this._h;
+        }
+
+        @Override
+        public int getPixel(int x, int y) {
+            if (x < 0 || x >= this._w || y < 0 || y >= this._h) {
+                throw new RuntimeException("Coordinate out of bounds: (" + x + "," + y + ")");
+            }
+            return cell(this._chunks, this._h, this._band, x, y);
+        }
+
+        @Override
+        public int getPixel(Pixel2D p) {
+            if (p == null) throw new RuntimeException("Pixel is null");
+            return getPixel(p.getX(), p.getY());
+        }
+
+        @Override
+        public boolean isInside(Pixel2D p) {
+            if (p == null) return false;
+            return p.getX() >= 0 && p.getX() < this._w && p.getY() >= 0 && p.getY() < this._h;
+        }
+
+        @Override
+        public boolean isCyclic() {
+            return this._cyclic;
+        }
+
+        @Override
+        public Pixel2D[] shortestPath(Pixel2D p1, Pixel2D p2, int obsColor) {
+            return toMyMap2D().shortestPath(p1, p2, obsColor);
+        }
+
+        @Override
+        public Map2D allDistance(Pixel2D start, int obsColor) {
+            return toMyMap2D().allDistance(start, obsColor);
+        }
+
+        @Override
+        public void init(int w, int h, int v) {
+            throw new RuntimeException("Snapshot is read-only");
+        }
+
+        @Override
+        public void init(int[][] arr) {
+            throw new RuntimeException("Snapshot is read-only");
+        }
+
+        @Override
+        public void setPixel(int x, int y, int v) {
+            throw new RuntimeException("Snapshot is read-only");
+        }
+
+        @Override
+        public void setPixel(Pixel2D p, int v) {
+            throw new RuntimeException("Snapshot is read-only");
+        }
+
+        @Override
+        public void setCyclic(boolean cy) {
+            throw new RuntimeException("Snapshot is read-only");
+        }
+
+        @Override
+        public int fill(Pixel2D p, int new_v) {
+            throw new RuntimeException("Snapshot is read-only");
+        }
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private void allocate(int w, int h) {
+        if (w <= 0 || h <= 0) {
+            throw new RuntimeException("Width and height must be positive");
+        }
+        if ((long) w * h > Integer.MAX_VALUE) {
+            throw new RuntimeException("Map too large: " + w + "x" + h);
+        }
+        this._w = w;
+        this._h = h;
+        this._band = Math.max(1, Math.min(w, CHUNK_CELLS / h));
+        int n = (w + this._band - 1) / this._band;
+        this._chunks = new int[n][];
+        for (int k = 0; k < n; k++) {
+            this._chunks[k] = new int[Math.min(this._band, w - k * this._band) * h];
+        }
+        // Fresh chunks belong to the writer until published
+        this._owned = new boolean[n];
+        Arrays.fill(this._owned, true);
+        this._cyclic = false;
+        this._dirty = true;
+    }
+
+    /**
+     * Write a cell, copying its chunk first if a snapshot shares it.
+     */
+    private void set(int x, int y, int v) {
+        int k = x / this._band;
+        if (!this._owned[k]) {
+            this._chunks[k] = this._chunks[k].clone();
+            this._owned[k] = true;
+            this._chunkCopies++;
+        }
+        this._chunks[k][(x - k * this._band) * this._h + y] = v;
+        this._dirty = true;
+    }
+
+    private boolean isValidCoordinate(int x, int y) {
+        return x >= 0 && x < this._w && y >= 0 && y < this._h;
+    }
+
+    private static int cell(int[][] chunks, int h, int band, int x, int y) {
+        int k = x / band;
+        return chunks[k][(x - k * band) * h + y];
+    }
+
+    private static int[][] columns(int[][] chunks, int w, int h, int band) {
+        int[][] copy = new int[w][h];
+        for (int x = 0; x < w; x++) {
+            int k = x / band;
+            System.arraycopy(chunks[k], (x - k * band) * h, copy[x], 0, h);
+        }
+        return copy;
+    }
+
+    /**
+     * @return a MyMap2D with the cells of chunks; the chunks are already in its column-major order
+     */
+    private static MyMap2D dense(int[][] chunks, int w, int h, int band, boolean cyclic) {
+        int[] data = new int[w * h];
+        int pos = 0;
+        for (int[] c : chunks) {
+            System.arraycopy(c, 0, data, pos, c.length);
+            pos += c.length;
+        }
+        MyMap2D map = new MyMap2D();
+        map.adopt(w, h, data);
+        map.setCyclic(cyclic);
+        return map;
+    }
+}
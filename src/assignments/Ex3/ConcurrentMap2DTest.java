@@ -0,0 +1,152 @@
+package assignments.Ex3;
+
+import org.junit.jupiter.api.Test;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit test class for ConcurrentMap2D
+ * Snapshots must stay unchanged after publish, the writer must copy only the
+ * chunks it touches, and readers on other threads must never see a half tick
+ */
+public class ConcurrentMap2DTest {
+
+    private static final int WALL = 1;
+
+    // ========== Snapshots ==========
+
+    @Test
+    public void testSnapshotIsolation() {
+        ConcurrentMap2D map = new ConcurrentMap2D(30, 20, 0);
+        ConcurrentMap2D.Snapshot first = map.snapshot();
+        assertEquals(1, first.getEpoch(), "The constructor publishes");
+
+        map.setPixel(3, 4, 7);
+        assertEquals(7, map.getPixel(3, 4), "The writer sees its own write");
+        assertEquals(0, map.snapshot().getPixel(3, 4), "Not visible before publish");
+
+        ConcurrentMap2D.Snapshot second = map.publish();
+        assertSame(second, map.snapshot(), "publish makes the snapshot current");
+        assertEquals(2, second.getEpoch(), "Epoch counts publishes");
+        assertEquals(7, second.getPixel(3, 4), "Visible after publish");
+
+        map.setPixel(3, 4, 9);
+        map.setCyclic(true);
+        assertEquals(0, first.getPixel(3, 4), "Old snapshots never change");
+        assertEquals(7, second.getPixel(3, 4), "Old snapshots never change");
+        assertFalse(second.isCyclic(), "Cyclic is part of the snapshot");
+        assertTrue(map.publish().isCyclic(), "Cyclic is published");
+    }
+
+    @Test
+    public void testPublishWithoutChanges() {
+        ConcurrentMap2D map = new ConcurrentMap2D(10, 10, 2);
+        ConcurrentMap2D.Snapshot s = map.snapshot();
+        map.setPixel(1, 1, 2);
+        map.fill(new Index2D(0, 0), 2);
+        assertSame(s, map.publish(), "Nothing changed, same snapshot");
+        assertEquals(1, map.snapshot().getEpoch(), "Epoch unchanged");
+    }
+
+    @Test
+    public void testCopyOnWriteTouchesOnlyWrittenChunks() {
+        // 40 columns per chunk: 5 chunks
+        ConcurrentMap2D map = new ConcurrentMap2D(200, 100, 0);
+        map.setPixel(5, 5, 1);
+        map.setPixel(39, 99, 1);
+        assertEquals(1, map.getChunkCopies(), "The constructor published; one chunk copied once");
+        map.setPixel(150, 0, 1);
+        assertEquals(2, map.getChunkCopies(), "A second chunk");
+
+        map.publish();
+        map.setPixel(5, 5, 2);
+        map.setPixel(150, 0, 2);
+        map.setPixel(6, 6, 2);
+        assertEquals(4, map.getChunkCopies(), "Each touched chunk is copied once per publish");
+
+        int[][] arr = map.publish().getMap();
+        assertEquals(2, arr[5][5], "Published content");
+        assertEquals(2, arr[150][0], "Published content");
+        assertEquals(0, arr[100][50], "Untouched chunks are shared, not lost");
+    }
+
+    @Test
+    public void testSnapshotIsReadOnly() {
+        ConcurrentMap2D.Snapshot s = new ConcurrentMap2D(5, 5, 0).snapshot();
+        assertThrows(RuntimeException.class, () -> s.setPixel(0, 0, 1), "setPixel");
+        assertThrows(RuntimeException.class, () -> s.fill(new Index2D(0, 0), 1), "fill");
+        assertThrows(RuntimeException.class, () -> s.setCyclic(true), "setCyclic");
+        assertThrows(RuntimeException.class, () -> s.init(3, 3, 0), "init");
+        assertThrows(RuntimeException.class, () -> s.getPixel(5, 0), "Out of bounds");
+        s.getMap()[0][0] = 9;
+        assertEquals(0, s.getPixel(0, 0), "getMap is a copy");
+    }
+
+    // ========== Algorithms ==========
+
+    @Test
+    public void testMatchesMyMap2D() {
+        Random rnd = new Random(5);
+        for (long seed = 0; seed < 6; seed++) {
+            int[][] arr = TestMaps.randomArray(90, 70, 0.25, 2, seed);
+            ConcurrentMap2D map = new ConcurrentMap2D(arr);
+            MyMap2D ref = new MyMap2D(arr);
+            map.setCyclic(seed % 2 == 1);
+            ref.setCyclic(seed % 2 == 1);
+            for (int q = 0; q < 10; q++) {
+                Pixel2D p = new Index2D(rnd.nextInt(90), rnd.nextInt(70));
+                int color = rnd.nextInt(3) + 2;
+                assertEquals(ref.fill(p, color), map.fill(p, color), "seed " + seed + ": fill count");
+                Pixel2D a = new Index2D(rnd.nextInt(90), rnd.nextInt(70));
+                Pixel2D b = new Index2D(rnd.nextInt(90), rnd.nextInt(70));
+                Pixel2D[] expected = ref.shortestPath(a, b, WALL);
+                Pixel2D[] path = map.publish().shortestPath(a, b, WALL);
+                assertEquals(expected == null, path == null, "seed " + seed + ": path found");
+                if (expected != null) assertEquals(expected.length, path.length, "seed " + seed + ": path length");
+            }
+            assertArrayEquals(ref.getMap(), map.getMap(), "seed " + seed + ": same cells");
+            assertArrayEquals(ref.getMap(), map.snapshot().getMap(), "seed " + seed + ": same snapshot");
+            Pixel2D s = new Index2D(0, 0);
+            assertArrayEquals(ref.allDistance(s, WALL).getMap(), map.allDistance(s, WALL).getMap(),
+                    "seed " + seed + ": same distances");
+        }
+    }
+
+    // ========== Threads ==========
+
+    @Test
+    public void testReadersNeverSeeHalfATick() throws InterruptedException {
+        // Every tick recolors the whole map across 3 chunks; a snapshot must be one color
+        ConcurrentMap2D map = new ConcurrentMap2D(100, 100, 0);
+        AtomicReference<String> failure = new AtomicReference<>();
+        Thread[] readers = new Thread[2];
+        for (int r = 0; r < readers.length; r++) {
+            readers[r] = new Thread(() -> {
+                long last = 0;
+                while (failure.get() == null) {
+                    ConcurrentMap2D.Snapshot s = map.snapshot();
+                    if (s.getEpoch() < last) failure.set("Epoch went back");
+                    last = s.getEpoch();
+                    int expected = (int) s.getEpoch() - 1;
+                    for (int x = 0; x < 100; x += 7) {
+                        for (int y = 0; y < 100; y += 3) {
+                            if (s.getPixel(x, y) != expected) failure.set("Torn snapshot at epoch " + last);
+                        }
+                    }
+                    if (last == 501) return;
+                }
+            });
+            readers[r].start();
+        }
+        for (int t = 1; t <= 500; t++) {
+            map.fill(new Index2D(0, 0), t);
+            map.publish();
+        }
+        for (Thread r : readers) {
+            r.join(10000);
+        }
+        assertNull(failure.get(), "Readers saw only whole ticks");
+        assertEquals(501, map.snapshot().getEpoch(), "All ticks published");
+    }
+}
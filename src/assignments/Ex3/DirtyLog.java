@@ -0,0 +1,90 @@
+package assignments.Ex3;
+
+import java.util.Arrays;
+
+/**
+ * DirtyLog - bounded log of the cell ranges written at each map version.
+ *
+ * Every record is a range [from,to) of flat cell indexes (one cell for
+ * setPixel, one column run for fill) stamped with the version that wrote it.
+ * The records live in a ring buffer; when it is full the oldest record is
+ * dropped and the floor rises to its version. The log is complete for all
+ * versions above the floor; older questions must assume everything changed.
+ */
+final class DirtyLog {
+
+    private final long[] _version;
+    private final int[] _from;
+    private final int[] _to;
+    private int _head;
+    private int _size;
+    private long _floor;
+
+    DirtyLog(int capacity) {
+        this._version = new long[capacity];
+        this._from = new int[capacity];
+        this._to = new int[capacity];
+    }
+
+    /**
+     * Forget all records: changes up to version are no longer known.
+     */
+    void reset(long version) {
+        this._head = 0;
+        this._size = 0;
+        this._floor = version;
+    }
+
+    /**
+     * @return the version above which the log is complete
+     */
+    long floor() {
+        return this._floor;
+    }
+
+    void record(long version, int from, int to) {
+        int cap = this._version.length;
+        if (this._size > 0) {
+            // Extend the newest record if this write continues it
+            int last = (this._head + this._size - 1) % cap;
+            if (this._version[last] == version && this._to[last] == from) {
+                this._to[last] = to;
+                return;
+            }
+        }
+        if (this._size == cap) {
+            this._floor = Math.max(this._floor, this._version[this._head]);
+            this._head = (this._head + 1) % cap;
+            this._size--;
+        }
+        int slot = (this._head + this._size) % cap;
+        this._version[slot] = version;
+        this._from[slot] = from;
+        this._to[slot] = to;
+        this._size++;
+    }
+
+    /**
+     * @return the sorted distinct cells written after version (which must be >= floor())
+     */
+    int[] cellsSince(long version) {
+        int cap = this._version.length;
+        int[] cells = new int[16];
+        int n = 0;
+        // Newest first, stop at the first record that is not newer than version
+        for (int k = this._size - 1; k >= 0; k--) {
+            int slot = (this._head + k) % cap;
+            if (this._version[slot] <= version) break;
+            for (int i = this._from[slot]; i < this._to[slot]; i++) {
+                if (n == cells.length) cells = Arrays.copyOf(cells, n << 1);
+                cells[n++] = i;
+            }
+        }
+        Arrays.sort(cells, 0, n);
+        int distinct = 0;
+        for (int i = 0; i < n; i++) {
+            if (distinct == 0 || cells[distinct - 1] != cells[i]) cells[distinct++] = cells[i];
+        }
+        return Arrays.copyOf(cells, distinct);
+    }
+}
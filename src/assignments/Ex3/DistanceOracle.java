@@ -0,0 +1,245 @@
+package assignments.Ex3;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * DistanceOracle - all-pairs shortest distances of a static map.
+ *
+ * Built from a snapshot of a MyMap2D: one BFS per passable cell, run in
+ * parallel, with the results packed into a P x P matrix (P = passable cells)
+ * of bytes or chars holding d+1 (0 = unreachable); bytes are used when the
+ * longest distance in the map is at most 254. Queries are table lookups:
+ * distance(a,b) reads one entry, nextStep(a,b) checks the up to 4 neighbors
+ * of a for the one a step closer to b.
+ *
+ * The oracle does not follow later changes of the map; use isValidFor to
+ * check whether it still matches and build a new one when the walls move.
+ * Meant for small levels: the matrix needs P*P bytes (2*P*P once distances
+ * exceed 254) and the build runs P searches of P cells. MAX_CELLS only keeps
+ * P*P an int; a caller should check the cell count against its own, much
+ * smaller, budget before building.
+ */
+public final class DistanceOracle {
+
+    /** Largest number of passable cells the matrix can index (about 4 GB of chars) */
+    public static final int MAX_CELLS = 46340;
+    // Sources per parallel task
+    private static final int BLOCK = 64;
+
+    private final int _w;
+    private final int _h;
+    private final boolean _cyclic;
+    private final int _obsColor;
+    private final long[] _pass;
+    // cell index -> passable id (-1 for obstacles) and back
+    private final int[] _id;
+    private final int[] _cell;
+    // 4 neighbor ids per passable id, -1 where there is none
+    private final int[] _adj;
+    private final int _count;
+    // Row-major P x P matrix of d+1, exactly one of the two is in use
+    private final byte[] _bytes;
+    private final char[] _chars;
+
+    DistanceOracle(MyMap2D map, int obsColor) {
+        this._w = map.getWidth();
+        this._h = map.getHeight();
+        this._cyclic = map.isCyclic();
+        this._obsColor = obsColor;
+        this._pass = map.passableMask(obsColor).clone();
+
+        int n = map.size();
+        int count = 0;
+        for (long word : this._pass) count += Long.bitCount(word);
+        if (count > MAX_CELLS) {
+            throw new RuntimeException("Too many passable cells for a distance oracle: " + count);
+        }
+        this._count = count;
+        this._id = new int[n];
+        this._cell = new int[count];
+        Arrays.fill(this._id, -1);
+        for (int i = 0, k = 0; i < n; i++) {
+            if (MyMap2D.bit(this._pass, i)) {
+                this._id[i] = k;
+                this._cell[k++] = i;
+            }
+        }
+        this._adj = new int[4 * count];
+        for (int k = 0; k < count; k++) {
+            int c = this._cell[k];
+            int x = c / this._h;
+            int y = c - x * this._h;
+            for (int dir = 0; dir < 4; dir++) {
+                int nb = map.neighbor(c, x, y, dir);
+                this._adj[4 * k + dir] = nb < 0 ? -1 : this._id[nb];
+            }
+        }
+
+        // Bytes unless some distance exceeds BYTE_MAX. The eccentricity of any
+        // cell is a lower bound of the longest distance, so a larger one skips
+        // straight to chars; otherwise the byte build stops at the first overflow.
+        int matrix = count * count;
+        int blocks = (count + BLOCK - 1) / BLOCK;
+        byte[] bytes = null;
+        if (eccentricityBound() <= CompactDistanceMap.BYTE_MAX) {
+            byte[] b = new byte[matrix];
+            if (IntStream.range(0, blocks).parallel().allMatch(k -> buildBlock(k, b, null))) bytes = b;
+        }
+        this._bytes = bytes;
+        if (bytes == null) {
+            char[] c = new char[matrix];
+            IntStream.range(0, blocks).parallel().forEach(k -> buildBlock(k, null, c));
+            this._chars = c;
+        } else {
+            this._chars = null;
+        }
+    }
+
+    // ==================== QUERIES ====================
+
+    /**
+     * @return the length of a shortest path from a to b (in steps),
+     * -1 if b is unreachable or either point is outside the map or an obstacle
+     */
+    public int distance(Pixel2D a, Pixel2D b) {
+        int ia = idOf(a);
+        int ib = idOf(b);
+        if (ia < 0 || ib < 0) return -1;
+        return entry(ia, ib) - 1;
+    }
+
+    /**
+     * @return the cell after a on a shortest path from a to b, or null if
+     * a equals b or no path exists. Ties follow MyMap2D's neighbor order.
+     */
+    public Pixel2D nextStep(Pixel2D a, Pixel2D b) {
+        int ia = idOf(a);
+        int ib = idOf(b);
+        if (ia < 0 || ib < 0) return null;
+        int d = entry(ia, ib);
+        if (d <= 1) return null; // unreachable or a == b
+        for (int dir = 0; dir < 4; dir++) {
+            int nb = this._adj[4 * ia + dir];
+            if (nb >= 0 && entry(nb, ib) == d - 1) {
+                int c = this._cell[nb];
+                return new Index2D(c / this._h, c % this._h);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the number of passable cells (the matrix is this size squared)
+     */
+    public int getCellCount() {
+        return this._count;
+    }
+
+    public int getObsColor() {
+        return this._obsColor;
+    }
+
+    /**
+     * @return true iff map still has the size, cyclic flag and obstacles this oracle was built for
+     */
+    public boolean isValidFor(MyMap2D map) {
+        return map != null && map.getWidth() == this._w && map.getHeight() == this._h
+            && map.isCyclic() == this._cyclic && Arrays.equals(map.passableMask(this._obsColor), this._pass);
+    }
+
+    /**
+     * @return true if the matrix holds bytes (all distances are at most 254)
+     */
+    boolean isByteMatrix() {
+        return this._bytes != null;
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    /**
+     * BFS from one cell of every connected component.
+     * @return the largest eccentricity found, a lower bound of the longest distance
+     */
+    private int eccentricityBound() {
+        int count = this._count;
+        int[] queue = new int[count];
+        int[] dist = new int[count];
+        int bound = 0;
+        for (int s = 0; s < count; s++) {
+            if (dist[s] != 0) continue;
+            dist[s] = 1;
+            queue[0] = s;
+            int head = 0;
+            int tail = 1;
+            while (head < tail) {
+                int u = queue[head++];
+                bound = Math.max(bound, dist[u] - 1);
+                for (int k = 4 * u; k < 4 * u + 4; k++) {
+                    int v = this._adj[k];
+                    if (v >= 0 && dist[v] == 0) {
+                        dist[v] = dist[u] + 1;
+                        queue[tail++] = v;
+                    }
+                }
+            }
+        }
+        return bound;
+    }
+
+    /**
+     * BFS from every source id in one block, writing each row of the matrix
+     * to bytes, or to chars when bytes is null.
+     * Rows are disjoint, so blocks can run in parallel.
+     * @return false if a distance does not fit in bytes (the block is then left unfinished)
+     */
+    private boolean buildBlock(int block, byte[] bytes, char[] chars) {
+        int count = this._count;
+        int[] queue = new int[count];
+        int[] dist = new int[count];
+        int end = Math.min(count, (block + 1) * BLOCK);
+        for (int s = block * BLOCK; s < end; s++) {
+            Arrays.fill(dist, 0);
+            dist[s] = 1;
+            queue[0] = s;
+            int head = 0;
+            int tail = 1;
+            while (head < tail) {
+                int u = queue[head++];
+                int next = dist[u] + 1;
+                for (int k = 4 * u; k < 4 * u + 4; k++) {
+                    int v = this._adj[k];
+                    if (v >= 0 && dist[v] == 0) {
+                        dist[v] = next;
+                        queue[tail++] = v;
+                    }
+                }
+            }
+            int row = s * count;
+            if (bytes != null) {
+                // The last cell dequeued is the farthest one
+                if (dist[queue[tail - 1]] - 1 > CompactDistanceMap.BYTE_MAX) return false;
+                for (int t = 0; t < count; t++) bytes[row + t] = (byte) dist[t];
+            } else {
+                for (int t = 0; t < count; t++) chars[row + t] = (char) dist[t];
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the stored d+1 for ids a and b, 0 if unreachable
+     */
+    private int entry(int a, int b) {
+        int i = a * this._count + b;
+        return this._bytes != null ? this._bytes[i] & 0xFF : this._chars[i];
+    }
+
+    private int idOf(Pixel2D p) {
+        if (p == null) return -1;
+        int x = p.getX();
+        int y = p.getY();
+        if (x < 0 || y < 0 || x >= this._w || y >= this._h) return -1;
+        return this._id[x * this._h + y];
+    }
+}
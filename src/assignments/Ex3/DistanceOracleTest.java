@@ -0,0 +1,98 @@
+package assignments.Ex3;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit test class for DistanceOracle
+ * Every lookup must match allDistance / shortestPath on the same map
+ */
+public class DistanceOracleTest {
+
+    private static final int WALL = 1;
+
+    private static void assertMatchesBfs(MyMap2D map) {
+        DistanceOracle oracle = map.distanceOracle(WALL);
+        for (int a = 0; a < map.size(); a++) {
+            Pixel2D pa = new Index2D(map.xOf(a), map.yOf(a));
+            Map2D dist = map.allDistance(pa, WALL);
+            for (int b = 0; b < map.size(); b++) {
+                Pixel2D pb = new Index2D(map.xOf(b), map.yOf(b));
+                int expected = map.getPixelAt(a) == WALL || map.getPixelAt(b) == WALL ? -1 : dist.getPixel(pb);
+                assertEquals(expected, oracle.distance(pa, pb), "Distance " + pa + " -> " + pb);
+
+                Pixel2D step = oracle.nextStep(pa, pb);
+                if (expected <= 0) {
+                    assertNull(step, "No step for " + pa + " -> " + pb);
+                } else {
+                    assertNotNull(step, "Step for " + pa + " -> " + pb);
+                    assertEquals(expected - 1, oracle.distance(step, pb), "Step must get one closer to " + pb);
+                    assertEquals(1, oracle.distance(pa, step), "Step must be a neighbor of " + pa);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRandomMaps() {
+        for (long seed = 0; seed < 3; seed++) {
+            MyMap2D map = TestMaps.random(13, 9, 0.25, seed);
+            assertMatchesBfs(map);
+            map.setCyclic(true);
+            assertMatchesBfs(map);
+        }
+    }
+
+    @Test
+    public void testCharMatrix() {
+        // A 300 cell corridor needs distances above 254
+        MyMap2D map = new MyMap2D(300, 1, 0);
+        DistanceOracle oracle = map.distanceOracle(WALL);
+        assertEquals(300, oracle.getCellCount(), "All cells are passable");
+        assertEquals(299, oracle.distance(new Index2D(0, 0), new Index2D(299, 0)), "End to end distance");
+        assertEquals(new Index2D(298, 0), oracle.nextStep(new Index2D(299, 0), new Index2D(0, 0)), "Step towards the start");
+    }
+
+    @Test
+    public void testEntrySizeFollowsLongestDistance() {
+        // 900 cells, but no distance above 58
+        MyMap2D open = new MyMap2D(30, 30, 0);
+        assertTrue(open.distanceOracle(WALL).isByteMatrix(), "Short distances fit in bytes");
+
+        // The first cell is a stub in the middle of a 400 cell corridor: its
+        // eccentricity (201) fits, the corridor's length (399) does not
+        MyMap2D stub = new MyMap2D(2, 400, WALL);
+        stub.setPixel(0, 200, 0);
+        for (int y = 0; y < 400; y++) stub.setPixel(1, y, 0);
+        DistanceOracle oracle = stub.distanceOracle(WALL);
+        assertFalse(oracle.isByteMatrix(), "Long distances need chars");
+        assertEquals(399, oracle.distance(new Index2D(1, 0), new Index2D(1, 399)), "Corridor length");
+        assertEquals(201, oracle.distance(new Index2D(0, 200), new Index2D(1, 0)), "Stub to the end");
+
+        assertFalse(new MyMap2D(300, 1, 0).distanceOracle(WALL).isByteMatrix(), "A long corridor needs chars");
+    }
+
+    @Test
+    public void testValidity() {
+        MyMap2D map = new MyMap2D(10, 10, 0);
+        map.setPixel(2, 2, WALL);
+        DistanceOracle oracle = map.distanceOracle(WALL);
+        assertTrue(oracle.isValidFor(map), "Fresh oracle matches its map");
+        map.setPixel(0, 0, 3);
+        assertTrue(oracle.isValidFor(map), "Non-wall colors do not matter");
+        map.setCyclic(true);
+        assertFalse(oracle.isValidFor(map), "Changing the cyclic flag invalidates the oracle");
+        map.setCyclic(false);
+        map.setPixel(5, 5, WALL);
+        assertFalse(oracle.isValidFor(map), "Adding a wall invalidates the oracle");
+    }
+
+    @Test
+    public void testOutsideAndWalls() {
+        MyMap2D map = new MyMap2D(new int[][]{{0, WALL}, {0, 0}});
+        DistanceOracle oracle = map.distanceOracle(WALL);
+        assertEquals(-1, oracle.distance(new Index2D(0, 1), new Index2D(0, 0)), "Walls have no distance");
+        assertEquals(-1, oracle.distance(new Index2D(5, 0), new Index2D(0, 0)), "Outside points have no distance");
+        assertNull(oracle.nextStep(new Index2D(0, 0), new Index2D(0, 0)), "No step when already there");
+    }
+}
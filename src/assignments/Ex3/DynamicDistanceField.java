@@ -0,0 +1,337 @@
+package assignments.Ex3;
+
+import java.util.Arrays;
+
+/**
+ * DynamicDistanceField - shortest distances from one source, kept up to date
+ * while the underlying MyMap2D changes.
+ *
+ * The field listens to its map. A change that does not flip a cell between
+ * obstacle and passable is ignored; the others are queued and repaired lazily
+ * on the next query, so a burst of edits is repaired in one batch:
+ * 1. Newly blocked cells drop their distance. Their dependents (cells that no
+ *    longer have a neighbor exactly one step closer to the source) are
+ *    invalidated in increasing distance order, as in LPA* / D* Lite.
+ * 2. The invalidated cells and the newly opened cells are re-seeded from their
+ *    valid neighbors and the distances are propagated outwards again.
+ * The work is proportional to the number of cells whose distance changes, not
+ * to the size of the map. A map reset (init, setCyclic) triggers a full rebuild.
+ *
+ * As in MyMap2D.allDistance, unreachable cells are -1 and the source is always 0.
+ * Not thread-safe: use it on the thread that mutates the map.
+ */
+public class DynamicDistanceField implements MapChangeListener {
+
+    private final MyMap2D _map;
+    private final Pixel2D _source;
+    private final int _obsColor;
+    private int _src;
+    private int[] _dist;
+    // The passability the current distances were computed for (bit set = passable)
+    private long[] _pass;
+    private final IntRingQueue _pending = new IntRingQueue(64);
+    private boolean _stale;
+    private boolean _attached;
+    private int _lastRepair;
+
+    DynamicDistanceField(MyMap2D map, Pixel2D source, int obsColor) {
+        this._map = map;
+        this._source = new Index2D(source);
+        this._obsColor = obsColor;
+        rebuild();
+        map.addChangeListener(this);
+        this._attached = true;
+    }
+
+    // ==================== QUERIES ====================
+
+    /**
+     * @return the distance from the source to (x,y), -1 if unreachable
+     * @throws RuntimeException if (x,y) is outside the map
+     */
+    public int getDistance(int x, int y) {
+        if (x < 0 || y < 0 || x >= this._map.getWidth() || y >= this._map.getHeight()) {
+            throw new RuntimeException("Coordinate out of bounds: (" + x + "," + y + ")");
+        }
+        update();
+        return this._dist[this._map.indexOf(x, y)];
+    }
+
+    public int getDistance(Pixel2D p) {
+        if (p == null) throw new RuntimeException("Pixel is null");
+        return getDistance(p.getX(), p.getY());
+    }
+
+    /**
+     * @return a snapshot of the current distances, in the same form as allDistance returns
+     */
+    public Map2D toMap() {
+        update();
+        return MyMap2D.distanceMap(this._map.getWidth(), this._map.getHeight(), this._map.isCyclic(),
+            this._dist.clone());
+    }
+
+    public Pixel2D getSource() {
+        return new Index2D(this._source);
+    }
+
+    public int getObsColor() {
+        return this._obsColor;
+    }
+
+    /**
+     * Stop following the map. The field keeps its last distances.
+     */
+    public void detach() {
+        if (this._attached) {
+            update();
+            this._map.removeChangeListener(this);
+            this._attached = false;
+        }
+    }
+
+    /**
+     * @return the number of cells whose distance was touched by the last repair
+     * (the whole map after a full rebuild)
+     */
+    int lastRepairCount() {
+        return this._lastRepair;
+    }
+
+    // ==================== CHANGE TRACKING ====================
+
+    @Override
+    public void pixelChanged(MyMap2D map, int idx, int oldV, int newV) {
+        if (this._stale || idx == this._src) return;
+        if ((oldV == this._obsColor) != (newV == this._obsColor)) {
+            this._pending.add(idx);
+            // Past this point a fresh BFS is cheaper than repairing
+            if (this._pending.size() > this._dist.length / 8) {
+                this._stale = true;
+            }
+        }
+    }
+
+    @Override
+    public void mapReset(MyMap2D map) {
+        this._stale = true;
+    }
+
+    private void update() {
+        if (this._stale) {
+            rebuild();
+        } else if (!this._pending.isEmpty()) {
+            repair();
+        }
+    }
+
+    private void rebuild() {
+        this._pending.clear();
+        this._stale = false;
+        if (!this._map.isInside(this._source)) {
+            throw new RuntimeException("Source is no longer inside the map: " + this._source);
+        }
+        int n = this._map.size();
+        if (this._dist == null || this._dist.length != n) {
+            this._dist = new int[n];
+        }
+        this._src = this._map.indexOf(this._source.getX(), this._source.getY());
+        this._map.distances(this._src, this._obsColor, this._dist);
+        this._pass = this._map.passableMask(this._obsColor).clone();
+        this._lastRepair = n;
+    }
+
+    // ==================== INCREMENTAL REPAIR ====================
+
+    private void repair() {
+        int[] dist = this._dist;
+        // Apply the final passability of every changed cell
+        IntList blocked = new IntList();
+        IntList seeds = new IntList();
+        while (!this._pending.isEmpty()) {
+            int idx = this._pending.poll();
+            boolean now = this._map.getPixelAt(idx) != this._obsColor;
+            if (now == MyMap2D.bit(this._pass, idx)) continue; // flipped back and forth
+            if (now) {
+                this._pass[idx >>> 6] |= 1L << idx;
+                seeds.add(idx);
+            } else {
+                this._pass[idx >>> 6] &= ~(1L << idx);
+                blocked.add(idx);
+            }
+        }
+        int touched = 0;
+
+        // Phase 1: invalidate the distances that depended on newly blocked cells
+        MergeQueue q = new MergeQueue();
+        for (int i = 0; i < blocked.size(); i++) {
+            int b = blocked.get(i);
+            int old = dist[b];
+            dist[b] = -1;
+            touched++;
+            if (old >= 0) addChildren(q, b, old + 1, false);
+        }
+        q.start();
+        while (!q.isEmpty()) {
+            int key = q.peekKey();
+            int u = q.poll();
+            if (dist[u] != key) continue; // already invalidated
+            if (hasSupport(u, key)) continue;
+            dist[u] = -1;
+            touched++;
+            seeds.add(u);
+            addChildren(q, u, key + 1, true);
+        }
+
+        // Phase 2: re-seed invalidated and opened cells, then propagate
+        q = new MergeQueue();
+        for (int i = 0; i < seeds.size(); i++) {
+            int u = seeds.get(i);
+            if (dist[u] >= 0 || !MyMap2D.bit(this._pass, u)) continue; // duplicate seed
+            int best = bestNeighbor(u);
+            if (best >= 0) {
+                dist[u] = best + 1;
+                q.addInitial(best + 1, u);
+            }
+        }
+        q.start();
+        int h = this._map.getHeight();
+        while (!q.isEmpty()) {
+            int key = q.peekKey();
+            int u = q.poll();
+            if (dist[u] != key) continue; // lowered since it was queued
+            touched++;
+            int x = u / h;
+            int y = u - x * h;
+            for (int dir = 0; dir < 4; dir++) {
+                int n = this._map.neighbor(u, x, y, dir);
+                if (n < 0 || n == this._src || !MyMap2D.bit(this._pass, n)) continue;
+                if (dist[n] == -1 || dist[n] > key + 1) {
+                    dist[n] = key + 1;
+                    q.add(key + 1, n);
+                }
+            }
+        }
+        this._lastRepair = touched;
+    }
+
+    /**
+     * @return true iff u has a neighbor exactly one step closer to the source
+     */
+    private boolean hasSupport(int u, int key) {
+        int h = this._map.getHeight();
+        int x = u / h;
+        int y = u - x * h;
+        for (int dir = 0; dir < 4; dir++) {
+            int n = this._map.neighbor(u, x, y, dir);
+            if (n >= 0 && this._dist[n] == key - 1) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the smallest valid distance among u's neighbors, -1 if none
+     */
+    private int bestNeighbor(int u) {
+        int h = this._map.getHeight();
+        int x = u / h;
+        int y = u - x * h;
+        int best = -1;
+        for (int dir = 0; dir < 4; dir++) {
+            int n = this._map.neighbor(u, x, y, dir);
+            if (n >= 0 && this._dist[n] >= 0 && (best < 0 || this._dist[n] < best)) {
+                best = this._dist[n];
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Queue the neighbors of u whose distance is exactly childDist
+     * (as initial entries, or in processing order once the queue has started).
+     */
+    private void addChildren(MergeQueue q, int u, int childDist, boolean started) {
+        int h = this._map.getHeight();
+        int x = u / h;
+        int y = u - x * h;
+        for (int dir = 0; dir < 4; dir++) {
+            int n = this._map.neighbor(u, x, y, dir);
+            if (n >= 0 && this._dist[n] == childDist) {
+                if (started) q.add(childDist, n);
+                else q.addInitial(childDist, n);
+            }
+        }
+    }
+
+    // ==================== HELPER CLASSES ====================
+
+    /**
+     * Growable list of primitive ints.
+     */
+    private static final class IntList {
+        private int[] _a = new int[16];
+        private int _n;
+
+        void add(int v) {
+            if (this._n == this._a.length) this._a = Arrays.copyOf(this._a, this._n << 1);
+            this._a[this._n++] = v;
+        }
+
+        int get(int i) {
+            return this._a[i];
+        }
+
+        int size() {
+            return this._n;
+        }
+    }
+
+    /**
+     * Visits cells in nondecreasing key order. The initial entries (arbitrary
+     * keys) are sorted once by start(). Entries added afterwards are always one
+     * step farther than the entry being processed, so they form a sorted FIFO,
+     * and merging the two heads yields the global order.
+     */
+    private static final class MergeQueue {
+        private long[] _sorted = new long[16];
+        private int _count;
+        private int _next;
+        // (key, cell) pairs
+        private final IntRingQueue _fifo = new IntRingQueue(64);
+
+        void addInitial(int key, int cell) {
+            if (this._count == this._sorted.length) this._sorted = Arrays.copyOf(this._sorted, this._count << 1);
+            this._sorted[this._count++] = ((long) key << 32) | cell;
+        }
+
+        void start() {
+            Arrays.sort(this._sorted, 0, this._count);
+        }
+
+        void add(int key, int cell) {
+            this._fifo.add(key);
+            this._fifo.add(cell);
+        }
+
+        boolean isEmpty() {
+            return this._next == this._count && this._fifo.isEmpty();
+        }
+
+        private boolean fromSorted() {
+            if (this._next == this._count) return false;
+            return this._fifo.isEmpty() || (int) (this._sorted[this._next] >> 32) <= this._fifo.peek();
+        }
+
+        int peekKey() {
+            return fromSorted() ? (int) (this._sorted[this._next] >> 32) : this._fifo.peek();
+        }
+
+        int poll() {
+            if (fromSorted()) {
+                return (int) this._sorted[this._next++];
+            }
+            this._fifo.poll();
+            return this._fifo.poll();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package assignments.Ex3;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit test class for DynamicDistanceField
+ * Every repaired field must equal a fresh allDistance of the changed map
+ */
+public class DynamicDistanceFieldTest {
+
+    private static final int WALL = 1;
+
+    private MyMap2D map;
+    private Pixel2D source;
+    private DynamicDistanceField field;
+
+    @BeforeEach
+    public void setUp() {
+        map = new MyMap2D(20, 20, 0);
+        source = new Index2D(0, 0);
+        field = map.allDistanceDynamic(source, WALL);
+    }
+
+    private void assertMatchesAllDistance(String msg) {
+        assertArrayEquals(map.allDistance(source, WALL).getMap(), field.toMap().getMap(), msg);
+    }
+
+    @Test
+    public void testInitialField() {
+        assertEquals(0, field.getDistance(0, 0), "Source distance should be 0");
+        assertEquals(38, field.getDistance(19, 19), "Open map distance is Manhattan distance");
+        assertMatchesAllDistance("Initial field should equal allDistance");
+    }
+
+    @Test
+    public void testWallAddedAndRemoved() {
+        for (int y = 0; y < 19; y++) {
+            map.setPixel(10, y, WALL);
+        }
+        assertEquals(57, field.getDistance(19, 0), "Path must go around the new wall");
+        assertMatchesAllDistance("Field after building a wall");
+
+        map.setPixel(10, 0, 0);
+        assertEquals(19, field.getDistance(19, 0), "Opening the wall restores the short path");
+        assertMatchesAllDistance("Field after opening the wall");
+    }
+
+    @Test
+    public void testSealedRegionBecomesUnreachable() {
+        map.setPixel(1, 0, WALL);
+        map.setPixel(0, 1, WALL);
+        assertEquals(-1, field.getDistance(5, 5), "Sealed source reaches nothing");
+        assertEquals(0, field.getDistance(0, 0), "Source stays at 0");
+        assertMatchesAllDistance("Field after sealing the source");
+    }
+
+    @Test
+    public void testRepairIsLocal() {
+        field.getDistance(0, 0);
+        map.setPixel(19, 19, WALL);
+        assertEquals(-1, field.getDistance(19, 19), "Blocked corner is unreachable");
+        assertTrue(field.lastRepairCount() < 10, "Blocking a dead-end corner should touch only a few cells");
+    }
+
+    @Test
+    public void testColorChangeIgnored() {
+        map.setPixel(5, 5, 3);
+        assertEquals(10, field.getDistance(5, 5), "Non-obstacle recolor does not change distances");
+    }
+
+    @Test
+    public void testFillAndCyclicReset() {
+        map.fill(new Index2D(7, 7), WALL);
+        assertEquals(-1, field.getDistance(1, 1), "Filling the whole map with walls blocks all but the source");
+        map.fill(new Index2D(7, 7), 0);
+        map.setCyclic(true);
+        assertEquals(2, field.getDistance(19, 19), "Cyclic change should rebuild with wrap-around");
+        assertMatchesAllDistance("Field after fill and setCyclic");
+    }
+
+    @Test
+    public void testDetach() {
+        field.detach();
+        map.setPixel(1, 0, WALL);
+        assertEquals(1, field.getDistance(1, 0), "A detached field keeps its old distances");
+    }
+}
@@ -10,12 +10,26 @@ public class Ex3Algo implements PacManAlgo {
     public static final int WALL = 1;
     public static final int FOOD = 3;
 
+    private static final int PATH_CACHE_SIZE = 256;
+    // Largest level (in passable cells) to build an oracle for: 16-32 MB and 4096 searches
+    private static final int ORACLE_MAX_CELLS = 4096;
+    // First search radius for food; doubled while no food is found
+    private static final int FOOD_RADIUS = 16;
+
+    // The board of the last tick; kept across ticks so caches can follow its changes
+    private MyMap2D _map;
+    // Fallback paths, reused while the walls do not change
+    private PathCache _paths;
+    // All-pairs distances of the current level, rebuilt when the walls change
+    private DistanceOracle _oracle;
+    // true once the level was found too big for an oracle; cleared when the map is reset
+    private boolean _oracleTooBig;
+
     @Override
     public int move(Game game) {
         // 1. Get the map data
         int[][] board = game.getGame(0);
-        MyMap2D map = new MyMap2D(board);
-        map.setCyclic(game.isCyclic());
+        MyMap2D map = syncMap(board, game.isCyclic());
 
         // 2. Get Pacman's Position (Based on your successful debug log)
         GhostCL[] ghosts = game.getGhosts(0);
@@ -29,8 +43,14 @@ public class Ex3Algo implements PacManAlgo {
         Pixel2D targets = findNearestFood(map, pacmanPos);
         if (targets == null) return anyLegalMove(map, pacmanPos);
 
-        // 4. Find the path using your BFS (shortestPath)
-        Pixel2D[] path = map.shortestPath(pacmanPos, targets, WALL);
+        // 4. Look up the next step in the distance oracle
+        Pixel2D next = oracleStep(map, pacmanPos, targets);
+        if (next != null) {
+            return getDirection(pacmanPos, next, map);
+        }
+
+        // 5. Fall back to BFS (shortestPath)
+        Pixel2D[] path = this._paths.shortestPath(pacmanPos, targets, WALL);
 
         if (path != null && path.length > 1) {
             return getDirection(pacmanPos, path[1], map);
@@ -59,23 +79,72 @@ public class Ex3Algo implements PacManAlgo {
         return PacmanGame.STAY;
     }
 
+    /**
+     * Bring the kept map up to date with this tick's board. Only the changed
+     * cells are written, so the path cache keeps the entries they do not affect.
+     */
+    private MyMap2D syncMap(int[][] board, boolean cyclic) {
+        if (this._map == null || this._map.getWidth() != board.length || this._map.getHeight() != board[0].length) {
+            this._map = new MyMap2D(board);
+            this._paths = new PathCache(this._map, PATH_CACHE_SIZE);
+            this._oracle = null;
+            this._oracleTooBig = false;
+        } else {
+            for (int x = 0; x < board.length; x++) {
+                for (int y = 0; y < board[x].length; y++) {
+                    this._map.setPixelAt(this._map.indexOf(x, y), board[x][y]);
+                }
+            }
+        }
+        this._map.setCyclic(cyclic);
+        return this._map;
+    }
+
+    /**
+     * @return the next cell on a shortest path from the oracle, or null if the
+     * oracle has no answer (no path, or the level is too big for an oracle)
+     */
+    private Pixel2D oracleStep(MyMap2D map, Pixel2D from, Pixel2D to) {
+        if (this._oracle == null || !this._oracle.isValidFor(map)) {
+            this._oracle = null;
+            if (this._oracleTooBig) return null;
+            if (map.size() - map.countColor(WALL) > ORACLE_MAX_CELLS) {
+                this._oracleTooBig = true;
+                return null;
+            }
+            this._oracle = map.distanceOracle(WALL);
+        }
+        return this._oracle.nextStep(from, to);
+    }
+
     private Pixel2D findNearestFood(MyMap2D map, Pixel2D start) {
+        // Nearest by path length: a BFS that stops at the first food cell. It
+        // starts with a small radius and doubles it while no food is found and
+        // the search still grows, so nearby food costs O(radius^2) per tick.
+        // Once the window would cover the map, the last round has no depth limit.
+        int side = Math.max(map.getWidth(), map.getHeight());
+        int reached = -1;
+        for (int radius = FOOD_RADIUS; reached < map.size(); radius *= 2) {
+            boolean last = 2L * radius + 1 >= side;
+            LocalDistances near = map.allDistanceBounded(start, WALL, last ? Integer.MAX_VALUE : radius, v -> v == FOOD);
+            if (near.getTarget() != null) return near.getTarget();
+            if (last || near.getReachedCount() == reached) break;
+            reached = near.getReachedCount();
+        }
+
+        // No food is reachable: fall back to the closest one in a straight line
         Pixel2D closest = null;
         double minDistance = Double.MAX_VALUE;
 
-        for (int x = 0; x < map.getWidth(); x++) {
-            for (int y = 0; y < map.getHeight(); y++) {
-                if (map.getPixel(x, y) == FOOD) {
-                    // Manual distance calculation (dx*dx + dy*dy)
-                    int dx = start.getX() - x;
-                    int dy = start.getY() - y;
-                    double dist = Math.sqrt(dx * dx + dy * dy);
-
-                    if (dist < minDistance) {
-                        minDistance = dist;
-                        closest = new Index2D(x, y);
-                    }
-                }
+        for (int idx : map.findAll(FOOD)) {
+            // Manual distance calculation (dx*dx + dy*dy)
+            int dx = start.getX() - map.xOf(idx);
+            int dy = start.getY() - map.yOf(idx);
+            double dist = Math.sqrt(dx * dx + dy * dy);
+
+            if (dist < minDistance) {
+                minDistance = dist;
+                closest = new Index2D(map.xOf(idx), map.yOf(idx));
             }
         }
         return closest;
@@ -0,0 +1,710 @@
+package assignments.Ex3;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * HierarchicalPathfinder - HPA* over a MyMap2D for one obstacle color.
+ *
+ * The map is split into square clusters. Along every border between two
+ * neighboring clusters (including the wrap borders of a cyclic map) each
+ * maximal open segment becomes one or two entrances: pairs of facing cells,
+ * one in each cluster. Inside a cluster the distances between its entrance
+ * cells are precomputed with a BFS limited to the cluster.
+ *
+ * A query links the endpoints to the entrances of their clusters, runs A* over
+ * this small abstract graph, and then refines each abstract step with a BFS
+ * inside one cluster. The resulting paths are near-optimal, not always
+ * shortest: they may only cross a border at an entrance. nextStep and
+ * distance skip most of the refinement and are the cheap calls for per-tick
+ * planning on very large maps.
+ *
+ * The finder listens to its map. A change of passability marks only that
+ * cluster; it is rebuilt, together with the entrances it shares with its
+ * neighbors, on the next query. init and setCyclic rebuild everything.
+ * Not thread-safe, like MyMap2D.
+ */
+public final class HierarchicalPathfinder implements MapChangeListener {
+
+    /** Cluster side used by the two-argument constructor */
+    public static final int DEFAULT_CLUSTER_SIZE = 32;
+    // Open border segments at least this long get an entrance at each end
+    private static final int WIDE_ENTRANCE = 6;
+
+    private final MyMap2D _map;
+    private final int _obsColor;
+    private final int _size;
+    private int _w;
+    private int _h;
+    private int _cw;
+    private int _ch;
+    // Entrance pairs (cell on this side, facing cell) of the border of cluster k with
+    // its right neighbor (_borders[2k]) and its upper neighbor (_borders[2k+1])
+    private int[][] _borders;
+    // Per cluster: sorted entrance cells, the facing cells of each, and the
+    // n*n distances between entrances inside the cluster (-1 = not connected)
+    private int[][] _nodes;
+    private int[][][] _links;
+    private int[][] _dist;
+    private boolean _stale = true;
+    private boolean[] _dirty;
+    private IntRingQueue _dirtyList = new IntRingQueue(16);
+    private long _clusterBuilds;
+    // Cost of the last abstract path
+    private int _lastCost;
+    private final Scratch _scratch;
+    private final NodeTable _table = new NodeTable();
+    private final NodeHeap _open = new NodeHeap();
+
+    /**
+     * @param map the map to search; the finder follows its changes
+     * @param obsColor the obstacle color
+     */
+    public HierarchicalPathfinder(MyMap2D map, int obsColor) {
+        this(map, obsColor, DEFAULT_CLUSTER_SIZE);
+    }
+
+    /**
+     * @param clusterSize side of a cluster in cells
+     */
+    public HierarchicalPathfinder(MyMap2D map, int obsColor, int clusterSize) {
+        if (map == null) throw new RuntimeException("Map is null");
+        if (clusterSize < 2) throw new RuntimeException("Cluster size must be at least 2");
+        this._map = map;
+        this._obsColor = obsColor;
+        this._size = clusterSize;
+        this._scratch = new Scratch(clusterSize);
+        map.addChangeListener(this);
+    }
+
+    // ==================== QUERIES ====================
+
+    /**
+     * Near-optimal path from p1 to p2 through the cluster entrances.
+     * @return the cells from p1 to p2 (both included), null if there is no path
+     */
+    public Pixel2D[] shortestPath(Pixel2D p1, Pixel2D p2) {
+        int[] abs = abstractPath(p1, p2);
+        if (abs == null) return null;
+        ArrayList<Pixel2D> path = new ArrayList<>();
+        path.add(new Index2D(p1));
+        for (int i = 0; i + 1 < abs.length; i++) {
+            int[] seg = refine(abs[i], abs[i + 1]);
+            for (int j = 1; j < seg.length; j++) {
+                path.add(new Index2D(this._map.xOf(seg[j]), this._map.yOf(seg[j])));
+            }
+        }
+        return path.toArray(new Pixel2D[0]);
+    }
+
+    /**
+     * @return the first cell after p1 on the path to p2, null if there is
+     * no path or p1 equals p2. Only the first abstract step is refined.
+     */
+    public Pixel2D nextStep(Pixel2D p1, Pixel2D p2) {
+        int[] abs = abstractPath(p1, p2);
+        if (abs == null || abs.length < 2) return null;
+        int[] seg = refine(abs[0], abs[1]);
+        return new Index2D(this._map.xOf(seg[1]), this._map.yOf(seg[1]));
+    }
+
+    /**
+     * @return the length in steps of the path shortestPath would return,
+     * -1 if there is none
+     */
+    public int distance(Pixel2D p1, Pixel2D p2) {
+        int[] abs = abstractPath(p1, p2);
+        return abs == null ? -1 : this._lastCost;
+    }
+
+    public int getObsColor() {
+        return this._obsColor;
+    }
+
+    public int getClusterSize() {
+        return this._size;
+    }
+
+    /**
+     * @return how many cluster builds ran so far (a full build counts every cluster)
+     */
+    public long getClusterBuilds() {
+        return this._clusterBuilds;
+    }
+
+    /**
+     * Stop following the map.
+     */
+    public void detach() {
+        this._map.removeChangeListener(this);
+    }
+
+    // ==================== MapChangeListener ====================
+
+    @Override
+    public void pixelChanged(MyMap2D map, int idx, int oldV, int newV) {
+        if (this._stale || (oldV == this._obsColor) == (newV == this._obsColor)) return;
+        int k = clusterOf(idx);
+        if (!this._dirty[k]) {
+            this._dirty[k] = true;
+            this._dirtyList.add(k);
+        }
+    }
+
+    @Override
+    public void mapReset(MyMap2D map) {
+        this._stale = true;
+    }
+
+    // ==================== ABSTRACT SEARCH ====================
+
+    /**
+     * A* over the entrance graph plus the two endpoints.
+     * @return the abstract path (cells from p1 to p2), null if there is no path
+     */
+    private int[] abstractPath(Pixel2D p1, Pixel2D p2) {
+        if (!validEndpoint(p1) || !validEndpoint(p2)) return null;
+        ensureReady();
+        int s = this._map.indexOf(p1.getX(), p1.getY());
+        int g = this._map.indexOf(p2.getX(), p2.getY());
+        if (s == g) {
+            this._lastCost = 0;
+            return new int[]{s};
+        }
+        int sc = clusterOf(s);
+        int gc = clusterOf(g);
+        // Endpoint links: distances inside their clusters to the entrances (and to each other)
+        int[] fromS = endpointDistances(s, sc, sc == gc ? g : -1);
+        int direct = sc == gc ? fromS[fromS.length - 1] : -1;
+        int[] toG = endpointDistances(g, gc, -1);
+
+        NodeTable table = this._table;
+        NodeHeap open = this._open;
+        table.clear();
+        open.clear();
+        table.put(s, 0, -1);
+        open.add(heuristic(s, g), heuristic(s, g), s);
+        while (!open.isEmpty()) {
+            int f = open.minF();
+            int u = open.poll();
+            int du = table.best(table.find(u));
+            if (f - heuristic(u, g) > du) continue;
+            if (u == g) {
+                this._lastCost = du;
+                return tracePath(table, s, g);
+            }
+            int k = clusterOf(u);
+            int[] nodes = this._nodes[k];
+            int i = Arrays.binarySearch(nodes, u);
+            if (u == s) {
+                for (int j = 0; j < nodes.length; j++) {
+                    if (fromS[j] >= 0) relax(u, nodes[j], du + fromS[j], g);
+                }
+                if (direct >= 0) relax(u, g, du + direct, g);
+            }
+            if (i < 0) continue;
+            int n = nodes.length;
+            int[] dist = this._dist[k];
+            for (int j = 0; j < n; j++) {
+                if (j != i && dist[i * n + j] >= 0) relax(u, nodes[j], du + dist[i * n + j], g);
+            }
+            for (int v : this._links[k][i]) {
+                relax(u, v, du + 1, g);
+            }
+            if (k == gc && toG[i] >= 0) relax(u, g, du + toG[i], g);
+        }
+        return null;
+    }
+
+    private void relax(int u, int v, int d, int g) {
+        int slot = this._table.find(v);
+        if (slot >= 0 && this._table.best(slot) <= d) return;
+        this._table.put(v, d, u);
+        int h = heuristic(v, g);
+        this._open.add(d + h, h, v);
+    }
+
+    private static int[] tracePath(NodeTable table, int s, int g) {
+        int len = 1;
+        for (int c = g; c != s; c = table.parent(table.find(c))) len++;
+        int[] path = new int[len];
+        for (int c = g, i = len - 1; i >= 0; i--) {
+            path[i] = c;
+            if (i > 0) c = table.parent(table.find(c));
+        }
+        return path;
+    }
+
+    /**
+     * Manhattan distance, through the wrap on a cyclic map
+     */
+    private int heuristic(int a, int b) {
+        int dx = Math.abs(a / this._h - b / this._h);
+        int dy = Math.abs(a % this._h - b % this._h);
+        if (this._map.isCyclic()) {
+            dx = Math.min(dx, this._w - dx);
+            dy = Math.min(dy, this._h - dy);
+        }
+        return dx + dy;
+    }
+
+    /**
+     * @return the distances inside cluster k from cell src to each entrance
+     * of k, followed by the distance to extra (if extra >= 0)
+     */
+    private int[] endpointDistances(int src, int k, int extra) {
+        int[] nodes = this._nodes[k];
+        int[] out = new int[nodes.length + (extra >= 0 ? 1 : 0)];
+        long[] pass = this._map.passableMask(this._obsColor);
+        int[] local = localBfs(this._scratch, pass, src, k, -1);
+        for (int j = 0; j < nodes.length; j++) {
+            out[j] = local[localIndex(nodes[j], k)];
+        }
+        if (extra >= 0) out[nodes.length] = local[localIndex(extra, k)];
+        return out;
+    }
+
+    /**
+     * @return the cells of a shortest path from a to b inside their common
+     * cluster, or just {a, b} for an entrance link between two clusters
+     */
+    private int[] refine(int a, int b) {
+        int k = clusterOf(a);
+        if (k != clusterOf(b)) return new int[]{a, b};
+        long[] pass = this._map.passableMask(this._obsColor);
+        int[] local = localBfs(this._scratch, pass, b, k, a);
+        // Walk from a down the distance field of b
+        int len = local[localIndex(a, k)] + 1;
+        int[] seg = new int[len];
+        seg[0] = a;
+        for (int i = 1; i < len; i++) {
+            int c = seg[i - 1];
+            int x = this._map.xOf(c);
+            int y = this._map.yOf(c);
+            for (int dir = 0; dir < 4; dir++) {
+                int n = this._map.neighbor(c, x, y, dir);
+                if (n >= 0 && clusterOf(n) == k && local[localIndex(n, k)] == len - 1 - i) {
+                    seg[i] = n;
+                    break;
+                }
+            }
+        }
+        return seg;
+    }
+
+    // ==================== BUILDING ====================
+
+    /**
+     * Bring the abstract graph up to date: everything after a reset, else only
+     * the clusters marked by changes and the entrances they share.
+     */
+    private void ensureReady() {
+        if (this._stale) {
+            fullBuild();
+            return;
+        }
+        if (this._dirtyList.isEmpty()) return;
+        long[] pass = this._map.passableMask(this._obsColor);
+        boolean[] rebuild = new boolean[this._nodes.length];
+        IntRingQueue todo = new IntRingQueue(16);
+        while (!this._dirtyList.isEmpty()) {
+            int k = this._dirtyList.poll();
+            this._dirty[k] = false;
+            for (int b : bordersOf(k)) {
+                this._borders[b] = computeBorder(b, pass);
+                for (int c : new int[]{b >> 1, facing(b)}) {
+                    if (!rebuild[c]) {
+                        rebuild[c] = true;
+                        todo.add(c);
+                    }
+                }
+            }
+            if (!rebuild[k]) {
+                rebuild[k] = true;
+                todo.add(k);
+            }
+        }
+        while (!todo.isEmpty()) {
+            buildCluster(todo.poll(), pass, this._scratch);
+        }
+    }
+
+    private void fullBuild() {
+        this._w = this._map.getWidth();
+        this._h = this._map.getHeight();
+        this._cw = (this._w + this._size - 1) / this._size;
+        this._ch = (this._h + this._size - 1) / this._size;
+        int clusters = this._cw * this._ch;
+        this._borders = new int[2 * clusters][];
+        this._nodes = new int[clusters][];
+        this._links = new int[clusters][][];
+        this._dist = new int[clusters][];
+        this._dirty = new boolean[clusters];
+        this._dirtyList.clear();
+        long[] pass = this._map.passableMask(this._obsColor);
+        // One task per cluster column; borders first, since clusters read them
+        IntStream.range(0, this._cw).parallel().forEach(cx -> {
+            for (int k = cx * this._ch; k < (cx + 1) * this._ch; k++) {
+                this._borders[2 * k] = computeBorder(2 * k, pass);
+                this._borders[2 * k + 1] = computeBorder(2 * k + 1, pass);
+            }
+        });
+        IntStream.range(0, this._cw).parallel().forEach(cx -> {
+            Scratch scratch = new Scratch(this._size);
+            for (int k = cx * this._ch; k < (cx + 1) * this._ch; k++) {
+                buildCluster(k, pass, scratch);
+            }
+        });
+        this._stale = false;
+    }
+
+    /**
+     * Collect the entrances of cluster k from its borders and compute the
+     * distances between them.
+     */
+    private void buildCluster(int k, long[] pass, Scratch scratch) {
+        // (cell, facing cell) pairs of all borders of k, on k's side
+        int[] pairs = new int[16];
+        int count = 0;
+        for (int b : bordersOf(k)) {
+            int[] border = this._borders[b];
+            for (int i = 0; i < border.length; i += 2) {
+                for (int side = 0; side < 2; side++) {
+                    int cell = border[i + side];
+                    if (clusterOf(cell) != k) continue;
+                    if (count + 2 > pairs.length) pairs = Arrays.copyOf(pairs, pairs.length * 2);
+                    pairs[count++] = cell;
+                    pairs[count++] = border[i + 1 - side];
+                }
+            }
+        }
+        // Group by cell
+        long[] packed = new long[count / 2];
+        for (int i = 0; i < packed.length; i++) {
+            packed[i] = ((long) pairs[2 * i] << 32) | pairs[2 * i + 1];
+        }
+        Arrays.sort(packed);
+        int n = 0;
+        for (int i = 0; i < packed.length; i++) {
+            if (i == 0 || (packed[i] >>> 32) != (packed[i - 1] >>> 32)) n++;
+        }
+        int[] nodes = new int[n];
+        int[][] links = new int[n][];
+        for (int i = 0, j = -1, first = 0; i < packed.length; i++) {
+            int cell = (int) (packed[i] >>> 32);
+            if (j < 0 || nodes[j] != cell) {
+                j++;
+                nodes[j] = cell;
+                first = i;
+                int end = i;
+                while (end < packed.length && (packed[end] >>> 32) == cell) end++;
+                links[j] = new int[end - i];
+            }
+            links[j][i - first] = (int) packed[i];
+        }
+        int[] dist = new int[n * n];
+        for (int i = 0; i < n; i++) {
+            int[] local = localBfs(scratch, pass, nodes[i], k, -1);
+            for (int j = 0; j < n; j++) {
+                dist[i * n + j] = local[localIndex(nodes[j], k)];
+            }
+        }
+        this._nodes[k] = nodes;
+        this._links[k] = links;
+        this._dist[k] = dist;
+        synchronized (this) {
+            this._clusterBuilds++;
+        }
+    }
+
+    /**
+     * @return the entrance pairs of border b: (cell of cluster b/2, facing cell) pairs
+     */
+    private int[] computeBorder(int b, long[] pass) {
+        int k = b >> 1;
+        boolean vertical = (b & 1) == 0;
+        int cx = k / this._ch;
+        int cy = k % this._ch;
+        int x0 = cx * this._size;
+        int y0 = cy * this._size;
+        int x1 = Math.min(this._w, x0 + this._size) - 1;
+        int y1 = Math.min(this._h, y0 + this._size) - 1;
+        boolean cyclic = this._map.isCyclic();
+        // The side of the border in cluster k: last column (vertical) or last row
+        int len = vertical ? y1 - y0 + 1 : x1 - x0 + 1;
+        int outer = vertical ? x1 + 1 : y1 + 1;
+        int limit = vertical ? this._w : this._h;
+        if (outer >= limit) {
+            if (!cyclic) return new int[0];
+            outer = 0;
+        }
+        if ((vertical ? x1 : y1) == outer) return new int[0];
+
+        int[] out = new int[8];
+        int n = 0;
+        int start = -1;
+        for (int i = 0; i <= len; i++) {
+            boolean open = false;
+            if (i < len) {
+                int a = vertical ? x1 * this._h + y0 + i : (x0 + i) * this._h + y1;
+                int c = vertical ? outer * this._h + y0 + i : (x0 + i) * this._h + outer;
+                open = MyMap2D.bit(pass, a) && MyMap2D.bit(pass, c);
+            }
+            if (open && start < 0) start = i;
+            if (!open && start >= 0) {
+                int end = i - 1;
+                int[] picks = end - start + 1 >= WIDE_ENTRANCE
+                    ? new int[]{start, end} : new int[]{(start + end) / 2};
+                for (int p : picks) {
+                    if (n + 2 > out.length) out = Arrays.copyOf(out, out.length * 2);
+                    out[n++] = vertical ? x1 * this._h + y0 + p : (x0 + p) * this._h + y1;
+                    out[n++] = vertical ? outer * this._h + y0 + p : (x0 + p) * this._h + outer;
+                }
+                start = -1;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    /**
+     * @return the ids of the (up to 4) borders of cluster k, without repeats
+     */
+    private int[] bordersOf(int k) {
+        int cx = k / this._ch;
+        int cy = k % this._ch;
+        int left = cx > 0 ? k - this._ch : (cx + this._cw - 1) % this._cw * this._ch + cy;
+        int down = cy > 0 ? k - 1 : cx * this._ch + this._ch - 1;
+        int[] ids = {2 * k, 2 * k + 1, 2 * left, 2 * down + 1};
+        int n = 0;
+        for (int i = 0; i < ids.length; i++) {
+            boolean seen = false;
+            for (int j = 0; j < n; j++) seen |= ids[j] == ids[i];
+            if (!seen) ids[n++] = ids[i];
+        }
+        return Arrays.copyOf(ids, n);
+    }
+
+    /**
+     * @return the cluster on the far side of border b
+     */
+    private int facing(int b) {
+        int k = b >> 1;
+        int cx = k / this._ch;
+        int cy = k % this._ch;
+        if ((b & 1) == 0) return (cx + 1) % this._cw * this._ch + cy;
+        return cx * this._ch + (cy + 1) % this._ch;
+    }
+
+    // ==================== LOCAL SEARCH ====================
+
+    /**
+     * BFS from src that never leaves cluster k. Stops early once stop (if >= 0)
+     * is reached.
+     * @return distances by localIndex, -1 where not reached (owned by scratch)
+     */
+    private int[] localBfs(Scratch scratch, long[] pass, int src, int k, int stop) {
+        // Works in cluster coordinates: local cell (lx,ly) has index lx*_size+ly
+        int x0 = k / this._ch * this._size;
+        int y0 = k % this._ch * this._size;
+        int cols = Math.min(this._size, this._w - x0);
+        int rows = Math.min(this._size, this._h - y0);
+        // A cluster only wraps onto itself if it spans the whole cyclic map
+        boolean wrapX = this._map.isCyclic() && cols == this._w;
+        boolean wrapY = this._map.isCyclic() && rows == this._h;
+        int[] dist = scratch._dist;
+        Arrays.fill(dist, -1);
+        IntRingQueue queue = scratch._queue;
+        queue.clear();
+        int stopLocal = stop >= 0 ? localIndex(stop, k) : -1;
+        int start = localIndex(src, k);
+        dist[start] = 0;
+        queue.add(start);
+        while (!queue.isEmpty()) {
+            int l = queue.poll();
+            if (l == stopLocal) break;
+            int d = dist[l] + 1;
+            int lx = l / this._size;
+            int ly = l - lx * this._size;
+            for (int dir = 0; dir < 4; dir++) {
+                int nx = lx;
+                int ny = ly;
+                switch (dir) {
+                    case 0: nx = lx + 1 < cols ? lx + 1 : wrapX ? 0 : -1; break;
+                    case 1: nx = lx > 0 ? lx - 1 : wrapX ? cols - 1 : -1; break;
+                    case 2: ny = ly + 1 < rows ? ly + 1 : wrapY ? 0 : -1; break;
+                    default: ny = ly > 0 ? ly - 1 : wrapY ? rows - 1 : -1; break;
+                }
+                if (nx < 0 || ny < 0) continue;
+                int n = nx * this._size + ny;
+                if (dist[n] >= 0 || !MyMap2D.bit(pass, (x0 + nx) * this._h + y0 + ny)) continue;
+                dist[n] = d;
+                queue.add(n);
+            }
+        }
+        return dist;
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private boolean validEndpoint(Pixel2D p) {
+        return this._map.isInside(p) && this._map.getPixel(p) != this._obsColor;
+    }
+
+    private int clusterOf(int idx) {
+        int x = idx / this._h;
+        int y = idx - x * this._h;
+        return (x / this._size) * this._ch + y / this._size;
+    }
+
+    /**
+     * @return the position of cell idx inside its cluster k
+     */
+    private int localIndex(int idx, int k) {
+        int x = idx / this._h;
+        int y = idx - x * this._h;
+        return (x - k / this._ch * this._size) * this._size + (y - k % this._ch * this._size);
+    }
+
+    /**
+     * Per-thread buffers of the cluster-limited BFS
+     */
+    private static final class Scratch {
+        private final int[] _dist;
+        private final IntRingQueue _queue;
+
+        Scratch(int size) {
+            this._dist = new int[size * size];
+            this._queue = new IntRingQueue(size * 4);
+        }
+    }
+
+    /**
+     * Open-addressing table of the abstract search: best cost and parent per cell
+     */
+    private static final class NodeTable {
+        private int[] _keys = new int[1024];
+        private int[] _best = new int[1024];
+        private int[] _parent = new int[1024];
+        private int _size;
+
+        NodeTable() {
+            Arrays.fill(this._keys, -1);
+        }
+
+        void clear() {
+            if (this._size > 0) Arrays.fill(this._keys, -1);
+            this._size = 0;
+        }
+
+        /**
+         * @return the slot of cell, -1 if it is not in the table
+         */
+        int find(int cell) {
+            int mask = this._keys.length - 1;
+            for (int i = mix(cell) & mask; ; i = (i + 1) & mask) {
+                if (this._keys[i] == cell) return i;
+                if (this._keys[i] < 0) return -1;
+            }
+        }
+
+        void put(int cell, int best, int parent) {
+            if (2 * (this._size + 1) > this._keys.length) grow();
+            int mask = this._keys.length - 1;
+            int i = mix(cell) & mask;
+            while (this._keys[i] >= 0 && this._keys[i] != cell) i = (i + 1) & mask;
+            if (this._keys[i] < 0) {
+                this._keys[i] = cell;
+                this._size++;
+            }
+            this._best[i] = best;
+            this._parent[i] = parent;
+        }
+
+        int best(int slot) {
+            return this._best[slot];
+        }
+
+        int parent(int slot) {
+            return this._parent[slot];
+        }
+
+        private void grow() {
+            int[] keys = this._keys;
+            int[] best = this._best;
+            int[] parent = this._parent;
+            this._keys = new int[keys.length * 2];
+            this._best = new int[keys.length * 2];
+            this._parent = new int[keys.length * 2];
+            Arrays.fill(this._keys, -1);
+            this._size = 0;
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] >= 0) put(keys[i], best[i], parent[i]);
+            }
+        }
+
+        private static int mix(int v) {
+            int h = v * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+
+    /**
+     * Binary min-heap of cells by f, ties going to the smaller heuristic
+     * (the deeper node), which keeps A* from fanning out on open maps
+     */
+    private static final class NodeHeap {
+        private long[] _keys = new long[256];
+        private int[] _cells = new int[256];
+        private int _size;
+
+        void clear() {
+            this._size = 0;
+        }
+
+        boolean isEmpty() {
+            return this._size == 0;
+        }
+
+        void add(int f, int h, int cell) {
+            if (this._size == this._keys.length) {
+                this._keys = Arrays.copyOf(this._keys, this._size * 2);
+                this._cells = Arrays.copyOf(this._cells, this._size * 2);
+            }
+            long key = ((long) f << 31) | h;
+            int i = this._size++;
+            while (i > 0) {
+                int up = (i - 1) >> 1;
+                if (this._keys[up] <= key) break;
+                this._keys[i] = this._keys[up];
+                this._cells[i] = this._cells[up];
+                i = up;
+            }
+            this._keys[i] = key;
+            this._cells[i] = cell;
+        }
+
+        int minF() {
+            return (int) (this._keys[0] >>> 31);
+        }
+
+        int poll() {
+            int top = this._cells[0];
+            long key = this._keys[--this._size];
+            int cell = this._cells[this._size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= this._size) break;
+                if (child + 1 < this._size && this._keys[child + 1] < this._keys[child]) child++;
+                if (this._keys[child] >= key) break;
+                this._keys[i] = this._keys[child];
+                this._cells[i] = this._cells[child];
+                i = child;
+            }
+            this._keys[i] = key;
+            this._cells[i] = cell;
+            return top;
+        }
+    }
+}
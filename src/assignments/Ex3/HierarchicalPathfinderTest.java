@@ -0,0 +1,138 @@
+package assignments.Ex3;
+
+import org.junit.jupiter.api.Test;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit test class for HierarchicalPathfinder
+ * HPA* paths must be valid, found exactly when a path exists, close to the
+ * shortest length, and follow changes of the map
+ */
+public class HierarchicalPathfinderTest {
+
+    private static final int WALL = 1;
+
+    private static int steps(MyMap2D map, Pixel2D a, Pixel2D b) {
+        int dx = Math.abs(a.getX() - b.getX());
+        int dy = Math.abs(a.getY() - b.getY());
+        if (map.isCyclic()) {
+            dx = Math.min(dx, map.getWidth() - dx);
+            dy = Math.min(dy, map.getHeight() - dy);
+        }
+        return dx + dy;
+    }
+
+    private static void assertValidPath(MyMap2D map, Pixel2D[] path, Pixel2D a, Pixel2D b, String msg) {
+        assertEquals(a, path[0], msg + ": starts at p1");
+        assertEquals(b, path[path.length - 1], msg + ": ends at p2");
+        for (int i = 1; i < path.length; i++) {
+            assertEquals(1, steps(map, path[i - 1], path[i]), msg + ": step " + i + " is to a neighbor");
+            assertNotEquals(WALL, map.getPixel(path[i]), msg + ": no walls on the path");
+        }
+    }
+
+    // ========== Queries ==========
+
+    @Test
+    public void testPathsMatchConnectivity() {
+        Random rnd = new Random(11);
+        for (long seed = 0; seed < 6; seed++) {
+            MyMap2D map = TestMaps.random(45, 38, 0.25, seed);
+            map.setCyclic(seed % 2 == 1);
+            HierarchicalPathfinder hpa = new HierarchicalPathfinder(map, WALL, 8);
+            for (int q = 0; q < 40; q++) {
+                Pixel2D a = new Index2D(rnd.nextInt(45), rnd.nextInt(38));
+                Pixel2D b = new Index2D(rnd.nextInt(45), rnd.nextInt(38));
+                String msg = "seed " + seed + " " + a + "->" + b;
+                Pixel2D[] exact = map.shortestPath(a, b, WALL);
+                Pixel2D[] path = hpa.shortestPath(a, b);
+                if (exact == null) {
+                    assertNull(path, msg + ": no path");
+                    assertEquals(-1, hpa.distance(a, b), msg + ": no distance");
+                    continue;
+                }
+                assertNotNull(path, msg + ": a path exists");
+                assertValidPath(map, path, a, b, msg);
+                assertTrue(path.length >= exact.length, msg + ": never shorter than the shortest path");
+                assertEquals(path.length - 1, hpa.distance(a, b), msg + ": distance is the path length");
+                if (path.length > 1) {
+                    assertEquals(path[1], hpa.nextStep(a, b), msg + ": nextStep is the first step");
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testOpenMapIsNearOptimal() {
+        MyMap2D map = new MyMap2D(200, 150, 0);
+        for (int y = 0; y < 140; y++) {
+            map.setPixel(100, y, WALL);
+        }
+        HierarchicalPathfinder hpa = new HierarchicalPathfinder(map, WALL, 16);
+        Pixel2D a = new Index2D(5, 5);
+        Pixel2D b = new Index2D(190, 10);
+        int exact = map.shortestPath(a, b, WALL).length - 1;
+        int d = hpa.distance(a, b);
+        assertTrue(d >= exact && d <= exact * 11 / 10, "Within 10% of the shortest path: " + d + " vs " + exact);
+    }
+
+    @Test
+    public void testSpecialCases() {
+        MyMap2D map = new MyMap2D(20, 20, 0);
+        map.setPixel(3, 3, WALL);
+        HierarchicalPathfinder hpa = new HierarchicalPathfinder(map, WALL, 4);
+        Pixel2D a = new Index2D(1, 1);
+        assertArrayEquals(new Pixel2D[]{a}, hpa.shortestPath(a, a), "Path to itself");
+        assertNull(hpa.nextStep(a, a), "No step to itself");
+        assertEquals(0, hpa.distance(a, a), "Distance to itself");
+        assertNull(hpa.shortestPath(a, new Index2D(3, 3)), "No path to a wall");
+        assertNull(hpa.shortestPath(a, new Index2D(20, 0)), "No path outside the map");
+        assertThrows(RuntimeException.class, () -> new HierarchicalPathfinder(map, WALL, 1), "Cluster too small");
+    }
+
+    // ========== Changes ==========
+
+    @Test
+    public void testChangeRebuildsOnlyNearbyClusters() {
+        MyMap2D map = TestMaps.random(64, 64, 0.25, 3);
+        HierarchicalPathfinder hpa = new HierarchicalPathfinder(map, WALL, 8);
+        Pixel2D a = new Index2D(0, 0);
+        Pixel2D b = new Index2D(63, 63);
+        map.setPixel(a, 0);
+        map.setPixel(b, 0);
+        hpa.distance(a, b);
+        long full = hpa.getClusterBuilds();
+        assertEquals(64, full, "A full build builds every cluster");
+
+        map.setPixel(20, 20, WALL);
+        map.setPixel(20, 20, 0);
+        map.setPixel(21, 20, WALL);
+        map.setPixel(5, 5, 7);
+        hpa.distance(a, b);
+        assertTrue(hpa.getClusterBuilds() - full <= 5, "One cluster and its neighbors are rebuilt");
+
+        long before = hpa.getClusterBuilds();
+        map.setCyclic(true);
+        hpa.distance(a, b);
+        assertEquals(before + 64, hpa.getClusterBuilds(), "Reset builds everything");
+    }
+
+    @Test
+    public void testFollowsRandomChanges() {
+        Random rnd = new Random(7);
+        MyMap2D map = TestMaps.random(40, 40, 0.25, 9);
+        map.setCyclic(true);
+        HierarchicalPathfinder hpa = new HierarchicalPathfinder(map, WALL, 8);
+        for (int round = 0; round < 30; round++) {
+            for (int i = 0; i < 5; i++) {
+                map.setPixel(rnd.nextInt(40), rnd.nextInt(40), rnd.nextInt(3) == 0 ? WALL : 0);
+            }
+            HierarchicalPathfinder fresh = new HierarchicalPathfinder(map, WALL, 8);
+            Pixel2D a = new Index2D(rnd.nextInt(40), rnd.nextInt(40));
+            Pixel2D b = new Index2D(rnd.nextInt(40), rnd.nextInt(40));
+            assertEquals(fresh.distance(a, b), hpa.distance(a, b), "round " + round + ": same as a fresh build");
+            fresh.detach();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package assignments.Ex3;
+
+/**
+ * IntBucketQueue - monotone priority queue of ints with small integer keys
+ * Keeps one LIFO bucket per key in a circular array of span buckets, so every
+ * added key must lie in [k, k+span) where k is the last popped key. This holds for A* on a
+ * grid with a consistent heuristic, where a step raises f by at most 2*(step cost).
+ * Popping never returns a key smaller than an earlier pop (monotone use only).
+ */
+final class IntBucketQueue {
+    private final int[][] _buckets;
+    private final int[] _sizes;
+    private int _base;
+    private int _count;
+    private boolean _anchored;
+
+    IntBucketQueue(int span) {
+        if (span <= 0) throw new RuntimeException("Span must be positive");
+        this._buckets = new int[span][];
+        this._sizes = new int[span];
+        for (int i = 0; i < span; i++) {
+            this._buckets[i] = new int[16];
+        }
+    }
+
+    int span() {
+        return this._buckets.length;
+    }
+
+    void clear() {
+        if (this._count > 0) {
+            java.util.Arrays.fill(this._sizes, 0);
+        }
+        this._count = 0;
+        this._anchored = false;
+    }
+
+    boolean isEmpty() {
+        return this._count == 0;
+    }
+
+    /**
+     * Insert v with the given key.
+     * @throws RuntimeException if key is below the last popped key or
+     * not within span of it
+     */
+    void add(int key, int v) {
+        if (!this._anchored) {
+            // The first key after clear() anchors the window
+            this._base = key;
+            this._anchored = true;
+        } else if (key < this._base || key - this._base >= this._buckets.length) {
+            throw new RuntimeException("Key " + key + " outside bucket window starting at " + this._base);
+        }
+        int b = key % this._buckets.length;
+        int[] bucket = this._buckets[b];
+        if (this._sizes[b] == bucket.length) {
+            bucket = java.util.Arrays.copyOf(bucket, bucket.length << 1);
+            this._buckets[b] = bucket;
+        }
+        bucket[this._sizes[b]++] = v;
+        this._count++;
+    }
+
+    /**
+     * @return the smallest key in the queue. The caller checks isEmpty() first.
+     */
+    int minKey() {
+        while (this._sizes[this._base % this._buckets.length] == 0) {
+            this._base++;
+        }
+        return this._base;
+    }
+
+    /**
+     * Remove and return a value with the smallest key (most recently added first).
+     * The caller checks isEmpty() first.
+     */
+    int poll() {
+        int b = minKey() % this._buckets.length;
+        this._count--;
+        return this._buckets[b][--this._sizes[b]];
+    }
+}
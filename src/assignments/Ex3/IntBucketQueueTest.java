@@ -0,0 +1,82 @@
+package assignments.Ex3;
+
+import org.junit.jupiter.api.Test;
+import java.util.PriorityQueue;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit test class for IntBucketQueue
+ * Pops must come out in key order, like a PriorityQueue, as long as keys
+ * stay within the window
+ */
+public class IntBucketQueueTest {
+
+    // ========== Order ==========
+
+    @Test
+    public void testPopsInKeyOrder() {
+        IntBucketQueue q = new IntBucketQueue(4);
+        q.add(5, 50);
+        q.add(7, 70);
+        q.add(5, 51);
+        q.add(6, 60);
+        assertEquals(5, q.minKey(), "Smallest key");
+        assertEquals(51, q.poll(), "Most recently added of the smallest key");
+        assertEquals(50, q.poll(), "Then the older one");
+        q.add(8, 80);
+        assertEquals(60, q.poll(), "Key 6");
+        assertEquals(70, q.poll(), "Key 7");
+        assertEquals(80, q.poll(), "Key 8 wraps around the buckets");
+        assertTrue(q.isEmpty(), "Empty after all pops");
+    }
+
+    @Test
+    public void testMatchesPriorityQueue() {
+        // A*-like use: every new key is within span of the last popped key
+        Random rnd = new Random(1);
+        IntBucketQueue q = new IntBucketQueue(3);
+        PriorityQueue<Integer> ref = new PriorityQueue<>();
+        for (int i = 0; i < 5; i++) {
+            q.add(10, 10);
+            ref.add(10);
+        }
+        int adds = 0;
+        while (!ref.isEmpty()) {
+            int key = q.minKey();
+            assertEquals((int) ref.peek(), key, "Same smallest key");
+            assertEquals(key, q.poll(), "Value is its key");
+            ref.poll();
+            for (int k = rnd.nextInt(3); k > 0 && adds < 20000; k--, adds++) {
+                int next = key + rnd.nextInt(3);
+                q.add(next, next);
+                ref.add(next);
+            }
+        }
+        assertTrue(q.isEmpty(), "Both queues drain together");
+    }
+
+    // ========== Window ==========
+
+    @Test
+    public void testWindowAndClear() {
+        IntBucketQueue q = new IntBucketQueue(3);
+        q.add(4, 1);
+        assertThrows(RuntimeException.class, () -> q.add(3, 2), "Key below the window");
+        assertThrows(RuntimeException.class, () -> q.add(7, 2), "Key past the window");
+        for (int i = 0; i < 40; i++) {
+            q.add(6, i);
+        }
+        assertEquals(1, q.poll(), "Key 4 first");
+        for (int i = 39; i >= 0; i--) {
+            assertEquals(i, q.poll(), "Buckets grow as needed");
+        }
+        q.add(7, 3);
+        q.clear();
+        assertTrue(q.isEmpty(), "clear empties the queue");
+        q.add(2, 9);
+        assertEquals(2, q.minKey(), "The first key after clear anchors a new window");
+        assertEquals(9, q.poll(), "Value of the new key");
+        assertThrows(RuntimeException.class, () -> new IntBucketQueue(0), "Span must be positive");
+    }
+}
@@ -0,0 +1,73 @@
+package assignments.Ex3;
+
+/**
+ * IntRingQueue - growable FIFO queue of primitive ints
+ * Backed by a power-of-two ring buffer so add/poll never allocate
+ * (except when the buffer has to grow). Used as the BFS frontier.
+ */
+final class IntRingQueue {
+    private int[] _buf;
+    private int _mask;
+    private int _head;
+    private int _size;
+
+    IntRingQueue(int initialCapacity) {
+        int cap = 16;
+        while (cap < initialCapacity && cap < (1 << 30)) {
+            cap <<= 1;
+        }
+        this._buf = new int[cap];
+        this._mask = cap - 1;
+    }
+
+    void clear() {
+        this._head = 0;
+        this._size = 0;
+    }
+
+    boolean isEmpty() {
+        return this._size == 0;
+    }
+
+    int size() {
+        return this._size;
+    }
+
+    void add(int v) {
+        if (this._size == this._buf.length) {
+            grow();
+        }
+        this._buf[(this._head + this._size) & this._mask] = v;
+        this._size++;
+    }
+
+    /**
+     * @return the oldest element without removing it. The caller checks isEmpty() first.
+     */
+    int peek() {
+        return this._buf[this._head];
+    }
+
+    /**
+     * Remove and return the oldest element. The caller checks isEmpty() first.
+     */
+    int poll() {
+        int v = this._buf[this._head];
+        this._head = (this._head + 1) & this._mask;
+        this._size--;
+        return v;
+    }
+
+    private void grow() {
+        if (this._buf.length >= (1 << 30)) {
+            throw new RuntimeException("Queue capacity exceeded");
+        }
+        int[] bigger = new int[this._buf.length << 1];
+        int first = Math.min(this._size, this._buf.length - this._head);
+        System.arraycopy(this._buf, this._head, bigger, 0, first);
+        System.arraycopy(this._buf, 0, bigger, first, this._size - first);
+        this._buf = bigger;
+        this._mask = bigger.length - 1;
+        this._head = 0;
+    }
+}
@@ -0,0 +1,236 @@
+package assignments.Ex3;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * LevelFile - compact binary level format (.lvl) and its loader.
+ *
+ * Layout, little-endian, 16 byte header followed by the cells:
+ * <pre>
+ *   0  4  magic "EX3L"
+ *   4  1  format version (1)
+ *   5  1  flags: bit 0 = cyclic
+ *   6  1  cell width in bytes: 1, 2 or 4 (signed)
+ *   7  1  reserved (0)
+ *   8  4  width
+ *  12  4  height
+ *  16     width*height cells, cell (x,y) at x*height+y like MyMap2D
+ * </pre>
+ * save picks the narrowest cell width that holds every value. load maps the
+ * file with FileChannel.map and decodes it straight into the int[] that the
+ * returned MyMap2D adopts, so a level costs one bulk copy and no per-row or
+ * reflective allocation.
+ *
+ * fromBit / convert read the old .bit files (a Java-serialized int[][]);
+ * main converts .bit files from the command line.
+ */
+public final class LevelFile {
+
+    /** File name extension of the binary format */
+    public static final String EXTENSION = ".lvl";
+    private static final int MAGIC = 'E' | 'X' << 8 | '3' << 16 | 'L' << 24;
+    private static final byte VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int FLAG_CYCLIC = 1;
+    // Longest array (columns, or cells per column) a .bit file may declare
+    private static final int MAX_BIT_SIDE = 1 << 16;
+    // int[][] and int[] only, nested at most two deep, each at most MAX_BIT_SIDE long
+    private static final ObjectInputFilter BIT_FILTER = ObjectInputFilter.Config.createFilter(
+        "maxdepth=2;maxarray=" + MAX_BIT_SIDE + ";[[I;[I;!*");
+
+    private LevelFile() {
+    }
+
+    // ==================== LOADING ====================
+
+    /**
+     * Load a .lvl file into a new MyMap2D (with the stored cyclic flag).
+     * @throws RuntimeException if the file cannot be read or is not a valid level
+     */
+    public static MyMap2D load(Path file) {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = ch.size();
+            if (length < HEADER_SIZE) {
+                throw new RuntimeException("Not a level file: " + file);
+            }
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            buf.order(ByteOrder.LITTLE_ENDIAN);
+            return decode(buf, file);
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot read level " + file, e);
+        }
+    }
+
+    /**
+     * Load every .lvl file of a directory, in file name order.
+     */
+    public static List<MyMap2D> loadAll(Path dir) {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*" + EXTENSION)) {
+            for (Path p : stream) {
+                files.add(p);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot list levels in " + dir, e);
+        }
+        files.sort(null);
+        List<MyMap2D> maps = new ArrayList<>(files.size());
+        for (Path p : files) {
+            maps.add(load(p));
+        }
+        return maps;
+    }
+
+    // ==================== SAVING ====================
+
+    /**
+     * Write map to file in the .lvl format, replacing an existing file.
+     */
+    public static void save(Map2D map, Path file) {
+        if (map == null) throw new RuntimeException("Map is null");
+        int w = map.getWidth();
+        int h = map.getHeight();
+        int[][] cells = map.getMap();
+        int min = 0;
+        int max = 0;
+        for (int x = 0; x < w; x++) {
+            for (int y = 0; y < h; y++) {
+                min = Math.min(min, cells[x][y]);
+                max = Math.max(max, cells[x][y]);
+            }
+        }
+        int cellWidth = min >= Byte.MIN_VALUE && max <= Byte.MAX_VALUE ? 1
+            : min >= Short.MIN_VALUE && max <= Short.MAX_VALUE ? 2 : 4;
+
+        ByteBuffer buf = ByteBuffer.allocate(Math.toIntExact(HEADER_SIZE + (long) w * h * cellWidth))
+            .order(ByteOrder.LITTLE_ENDIAN);
+        buf.putInt(MAGIC);
+        buf.put(VERSION);
+        buf.put((byte) (map.isCyclic() ? FLAG_CYCLIC : 0));
+        buf.put((byte) cellWidth);
+        buf.put((byte) 0);
+        buf.putInt(w);
+        buf.putInt(h);
+        for (int x = 0; x < w; x++) {
+            for (int y = 0; y < h; y++) {
+                int v = cells[x][y];
+                if (cellWidth == 1) buf.put((byte) v);
+                else if (cellWidth == 2) buf.putShort((short) v);
+                else buf.putInt(v);
+            }
+        }
+        buf.flip();
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buf.hasRemaining()) {
+                ch.write(buf);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot write level " + file, e);
+        }
+    }
+
+    // ==================== .BIT CONVERSION ====================
+
+    /**
+     * Read an old .bit file (a serialized int[][]). Deserialization is limited
+     * to int arrays of at most MAX_BIT_SIDE entries, nested two deep, so the
+     * file can neither instantiate any other class nor make the reader
+     * allocate a huge array from a short header.
+     */
+    public static MyMap2D fromBit(Path file) {
+        try (InputStream in = Files.newInputStream(file);
+             ObjectInputStream ois = new ObjectInputStream(in)) {
+            ois.setObjectInputFilter(BIT_FILTER);
+            Object o = ois.readObject();
+            if (!(o instanceof int[][])) {
+                throw new RuntimeException("Not an int[][] level: " + file);
+            }
+            return new MyMap2D((int[][]) o);
+        } catch (IOException | ClassNotFoundException e) {
+            throw new RuntimeException("Cannot read .bit level " + file, e);
+        }
+    }
+
+    /**
+     * Convert a .bit file to a .lvl file.
+     */
+    public static void convert(Path bitFile, Path lvlFile, boolean cyclic) {
+        MyMap2D map = fromBit(bitFile);
+        map.setCyclic(cyclic);
+        save(map, lvlFile);
+    }
+
+    /**
+     * Convert each .bit file given as argument to a .lvl file next to it.
+     * Usage: LevelFile [--cyclic] file.bit...
+     */
+    public static void main(String[] args) {
+        boolean cyclic = false;
+        for (String arg : args) {
+            if (arg.equals("--cyclic")) {
+                cyclic = true;
+                continue;
+            }
+            Path bit = Path.of(arg);
+            String name = bit.getFileName().toString();
+            String base = name.endsWith(".bit") ? name.substring(0, name.length() - 4) : name;
+            Path lvl = bit.resolveSibling(base + EXTENSION);
+            convert(bit, lvl, cyclic);
+            System.out.println(bit + " -> " + lvl);
+        }
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private static MyMap2D decode(ByteBuffer buf, Path file) {
+        if (buf.getInt(0) != MAGIC) {
+            throw new RuntimeException("Not a level file: " + file);
+        }
+        if (buf.get(4) != VERSION) {
+            throw new RuntimeException("Unsupported level version " + buf.get(4) + ": " + file);
+        }
+        boolean cyclic = (buf.get(5) & FLAG_CYCLIC) != 0;
+        int cellWidth = buf.get(6);
+        int w = buf.getInt(8);
+        int h = buf.getInt(12);
+        if (cellWidth != 1 && cellWidth != 2 && cellWidth != 4) {
+            throw new RuntimeException("Bad cell width " + cellWidth + ": " + file);
+        }
+        if (w <= 0 || h <= 0 || (long) w * h > Integer.MAX_VALUE
+                || buf.capacity() != HEADER_SIZE + (long) w * h * cellWidth) {
+            throw new RuntimeException("Bad level size " + w + "x" + h + ": " + file);
+        }
+
+        int[] data = new int[w * h];
+        ByteBuffer cells = buf.position(HEADER_SIZE).slice().order(ByteOrder.LITTLE_ENDIAN);
+        if (cellWidth == 4) {
+            cells.asIntBuffer().get(data);
+        } else if (cellWidth == 2) {
+            for (int i = 0; i < data.length; i++) {
+                data[i] = cells.getShort(i << 1);
+            }
+        } else {
+            for (int i = 0; i < data.length; i++) {
+                data[i] = cells.get(i);
+            }
+        }
+        MyMap2D map = new MyMap2D();
+        map.adopt(w, h, data);
+        map.setCyclic(cyclic);
+        return map;
+    }
+}
@@ -0,0 +1,143 @@
+package assignments.Ex3;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit test class for LevelFile
+ * Levels must survive a save/load round trip in every cell width
+ */
+public class LevelFileTest {
+
+    @TempDir
+    Path dir;
+
+    private static MyMap2D sample(int v) {
+        MyMap2D map = new MyMap2D(new int[][]{
+            {0, 1, 2},
+            {3, v, 1},
+            {-1, 0, 0},
+            {2, 2, 2}
+        });
+        map.setCyclic(true);
+        return map;
+    }
+
+    // ========== Round trip ==========
+
+    @Test
+    public void testRoundTripAllWidths() throws IOException {
+        int[] values = {7, 300, -40000};
+        int[] expectedSizes = {16 + 12, 16 + 24, 16 + 48};
+        for (int i = 0; i < values.length; i++) {
+            MyMap2D map = sample(values[i]);
+            Path file = dir.resolve("level" + i + LevelFile.EXTENSION);
+            LevelFile.save(map, file);
+            assertEquals(expectedSizes[i], Files.size(file), "Cell width for " + values[i]);
+            MyMap2D loaded = LevelFile.load(file);
+            assertArrayEquals(map.getMap(), loaded.getMap(), "Cells for " + values[i]);
+            assertTrue(loaded.isCyclic(), "Cyclic flag for " + values[i]);
+        }
+    }
+
+    @Test
+    public void testLoadedMapIsUsable() {
+        Path file = dir.resolve("a" + LevelFile.EXTENSION);
+        LevelFile.save(new MyMap2D(6, 4, 0), file);
+        MyMap2D loaded = LevelFile.load(file);
+        assertFalse(loaded.isCyclic(), "Not cyclic");
+        loaded.setPixel(5, 3, 1);
+        assertEquals(8, loaded.shortestPath(new Index2D(0, 0), new Index2D(5, 2), 1).length, "Search on a loaded map");
+    }
+
+    @Test
+    public void testLoadAll() {
+        LevelFile.save(sample(1), dir.resolve("b" + LevelFile.EXTENSION));
+        LevelFile.save(new MyMap2D(2, 2, 5), dir.resolve("a" + LevelFile.EXTENSION));
+        List<MyMap2D> maps = LevelFile.loadAll(dir);
+        assertEquals(2, maps.size(), "Both levels");
+        assertEquals(5, maps.get(0).getPixel(1, 1), "Levels in file name order");
+    }
+
+    // ========== Errors ==========
+
+    @Test
+    public void testInvalidFiles() throws IOException {
+        Path bad = dir.resolve("bad" + LevelFile.EXTENSION);
+        Files.write(bad, new byte[]{1, 2, 3});
+        assertThrows(RuntimeException.class, () -> LevelFile.load(bad), "Too short");
+        Files.write(bad, new byte[20]);
+        assertThrows(RuntimeException.class, () -> LevelFile.load(bad), "Bad magic");
+
+        Path good = dir.resolve("good" + LevelFile.EXTENSION);
+        LevelFile.save(sample(1), good);
+        byte[] bytes = Files.readAllBytes(good);
+        Files.write(bad, Arrays.copyOf(bytes, bytes.length - 1));
+        assertThrows(RuntimeException.class, () -> LevelFile.load(bad), "Truncated cells");
+        assertThrows(RuntimeException.class, () -> LevelFile.load(dir.resolve("missing.lvl")), "Missing file");
+    }
+
+    // ========== .bit conversion ==========
+
+    @Test
+    public void testConvertBit() throws IOException {
+        int[][] arr = {{1, 1, 0}, {0, 2, 1}};
+        Path bit = dir.resolve("old.bit");
+        try (ObjectOutputStream out = new ObjectOutputStream(Files.newOutputStream(bit))) {
+            out.writeObject(arr);
+        }
+        Path lvl = dir.resolve("old" + LevelFile.EXTENSION);
+        LevelFile.convert(bit, lvl, true);
+        MyMap2D loaded = LevelFile.load(lvl);
+        assertArrayEquals(arr, loaded.getMap(), "Converted cells");
+        assertTrue(loaded.isCyclic(), "Converted cyclic flag");
+
+        Path notArray = dir.resolve("str.bit");
+        try (ObjectOutputStream out = new ObjectOutputStream(Files.newOutputStream(notArray))) {
+            out.writeObject(new ArrayList<String>());
+        }
+        assertThrows(RuntimeException.class, () -> LevelFile.fromBit(notArray), "Only int[][] is accepted");
+    }
+
+    @Test
+    public void testOversizedBitArrays() throws IOException {
+        // A valid int[][]{{7}} whose column then claims about 2^31 cells
+        Path bit = dir.resolve("huge.bit");
+        try (ObjectOutputStream out = new ObjectOutputStream(Files.newOutputStream(bit))) {
+            out.writeObject(new int[][]{{7}});
+        }
+        byte[] bytes = Files.readAllBytes(bit);
+        // The stream ends with the column length and its one value
+        int len = bytes.length - 8;
+        bytes[len] = 0x7F;
+        bytes[len + 1] = (byte) 0xFF;
+        bytes[len + 2] = (byte) 0xFF;
+        bytes[len + 3] = (byte) 0xF0;
+        Files.write(bit, bytes);
+        assertThrows(RuntimeException.class, () -> LevelFile.fromBit(bit), "Oversized column");
+
+        Path deep = dir.resolve("deep.bit");
+        try (ObjectOutputStream out = new ObjectOutputStream(Files.newOutputStream(deep))) {
+            out.writeObject(new int[1 << 17][0]);
+        }
+        assertThrows(RuntimeException.class, () -> LevelFile.fromBit(deep), "Too many columns");
+    }
+
+    @Test
+    public void testProjectBitFile() {
+        Path bit = Path.of("test.bit");
+        if (!Files.exists(bit)) return;
+        MyMap2D map = LevelFile.fromBit(bit);
+        Path lvl = dir.resolve("test" + LevelFile.EXTENSION);
+        LevelFile.save(map, lvl);
+        assertArrayEquals(map.getMap(), LevelFile.load(lvl).getMap(), "test.bit survives the conversion");
+    }
+}
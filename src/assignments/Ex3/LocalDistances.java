@@ -0,0 +1,148 @@
+package assignments.Ex3;
+
+import java.util.Arrays;
+
+/**
+ * LocalDistances - the result of MyMap2D.allDistanceBounded: distances from a
+ * start cell up to a maximal depth, stored only for the window of cells that
+ * can be that close (at most (2*maxDepth+1)^2 cells, clipped to the map).
+ *
+ * Cells outside the window, beyond maxDepth, unreachable, or not reached
+ * because the search stopped at its target all have distance -1. On a stop
+ * the distances that were found are exact, and every cell closer than the
+ * target has one.
+ */
+public final class LocalDistances {
+
+    private final int _w;
+    private final int _h;
+    private final boolean _cyclic;
+    private final Pixel2D _start;
+    private final int _maxDepth;
+    // Window: columns x0 .. x0+ww-1 and rows y0 .. y0+wh-1 (modulo the map size when cyclic)
+    private final int _x0;
+    private final int _y0;
+    private final int _ww;
+    private final int _wh;
+    // Window cells, column-major like MyMap2D; -1 = no distance
+    private final int[] _dist;
+    private int _target = -1;
+    private int _reached;
+
+    LocalDistances(MyMap2D map, Pixel2D start, int maxDepth) {
+        this._w = map.getWidth();
+        this._h = map.getHeight();
+        this._cyclic = map.isCyclic();
+        this._start = new Index2D(start);
+        this._maxDepth = maxDepth;
+
+        long span = 2L * maxDepth + 1;
+        if (span >= this._w) {
+            this._x0 = 0;
+            this._ww = this._w;
+        } else if (this._cyclic) {
+            this._x0 = start.getX() - maxDepth;
+            this._ww = (int) span;
+        } else {
+            this._x0 = Math.max(0, start.getX() - maxDepth);
+            this._ww = Math.min(this._w - 1, start.getX() + maxDepth) - this._x0 + 1;
+        }
+        if (span >= this._h) {
+            this._y0 = 0;
+            this._wh = this._h;
+        } else if (this._cyclic) {
+            this._y0 = start.getY() - maxDepth;
+            this._wh = (int) span;
+        } else {
+            this._y0 = Math.max(0, start.getY() - maxDepth);
+            this._wh = Math.min(this._h - 1, start.getY() + maxDepth) - this._y0 + 1;
+        }
+        this._dist = new int[this._ww * this._wh];
+        Arrays.fill(this._dist, -1);
+    }
+
+    // ==================== QUERIES ====================
+
+    /**
+     * @return the distance from the start to (x,y), -1 if it has none (see above)
+     * @throws RuntimeException if (x,y) is outside the map
+     */
+    public int getDistance(int x, int y) {
+        if (x < 0 || y < 0 || x >= this._w || y >= this._h) {
+            throw new RuntimeException("Coordinate out of bounds: (" + x + "," + y + ")");
+        }
+        int slot = slot(x, y);
+        return slot < 0 ? -1 : this._dist[slot];
+    }
+
+    public int getDistance(Pixel2D p) {
+        if (p == null) throw new RuntimeException("Pixel is null");
+        return getDistance(p.getX(), p.getY());
+    }
+
+    /**
+     * @return the nearest cell that matched the target predicate, null if none was found
+     */
+    public Pixel2D getTarget() {
+        return this._target < 0 ? null : new Index2D(this._target / this._h, this._target % this._h);
+    }
+
+    /**
+     * @return the distance to getTarget(), -1 if no target was found
+     */
+    public int getTargetDistance() {
+        return this._target < 0 ? -1 : getDistance(this._target / this._h, this._target % this._h);
+    }
+
+    /**
+     * @return the number of cells that got a distance
+     */
+    public int getReachedCount() {
+        return this._reached;
+    }
+
+    public Pixel2D getStart() {
+        return new Index2D(this._start);
+    }
+
+    public int getMaxDepth() {
+        return this._maxDepth;
+    }
+
+    // ==================== SEARCH ACCESS ====================
+
+    /**
+     * @return the distance stored for (x,y), -1 if none; (x,y) must lie in the window
+     */
+    int get(int x, int y) {
+        return this._dist[slot(x, y)];
+    }
+
+    /**
+     * Store the distance of (x,y), which must lie in the window.
+     */
+    void set(int x, int y, int d) {
+        this._dist[slot(x, y)] = d;
+        this._reached++;
+    }
+
+    void setTarget(int idx) {
+        this._target = idx;
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    /**
+     * @return the window slot of (x,y), -1 if it lies outside the window
+     */
+    private int slot(int x, int y) {
+        int dx = x - this._x0;
+        int dy = y - this._y0;
+        if (this._cyclic) {
+            dx = Math.floorMod(dx, this._w);
+            dy = Math.floorMod(dy, this._h);
+        }
+        if (dx < 0 || dx >= this._ww || dy < 0 || dy >= this._wh) return -1;
+        return dx * this._wh + dy;
+    }
+}
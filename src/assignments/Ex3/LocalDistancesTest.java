@@ -0,0 +1,80 @@
+package assignments.Ex3;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit test class for LocalDistances / MyMap2D.allDistanceBounded
+ * Bounded distances must equal allDistance wherever allDistance is within the bound
+ */
+public class LocalDistancesTest {
+
+    private static final int WALL = 1;
+    private static final int FOOD = 3;
+
+    @Test
+    public void testMatchesAllDistance() {
+        for (long seed = 0; seed < 6; seed++) {
+            MyMap2D map = TestMaps.random(17, 12, 0.25, seed);
+            map.setCyclic(seed % 2 == 1);
+            Pixel2D start = new Index2D(3, 10);
+            Map2D full = map.allDistance(start, WALL);
+            for (int depth : new int[]{0, 1, 4, 9, 100}) {
+                LocalDistances local = map.allDistanceBounded(start, WALL, depth);
+                for (int x = 0; x < 17; x++) {
+                    for (int y = 0; y < 12; y++) {
+                        int d = full.getPixel(x, y);
+                        int expected = d <= depth ? d : -1;
+                        assertEquals(expected, local.getDistance(x, y),
+                            "seed " + seed + " depth " + depth + " at " + x + "," + y);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testTargetStopsEarly() {
+        MyMap2D map = new MyMap2D(30, 30, 0);
+        map.setPixel(20, 20, FOOD);
+        map.setPixel(5, 8, FOOD);
+        LocalDistances local = map.allDistanceBounded(new Index2D(5, 5), WALL, Integer.MAX_VALUE, v -> v == FOOD);
+        assertEquals(new Index2D(5, 8), local.getTarget(), "Nearest food is found");
+        assertEquals(3, local.getTargetDistance(), "Distance to the nearest food");
+        assertTrue(local.getReachedCount() < 30, "The search stops at the first food");
+        assertEquals(2, local.getDistance(6, 6), "Closer cells have exact distances");
+
+        LocalDistances none = map.allDistanceBounded(new Index2D(0, 0), WALL, 4, v -> v == FOOD);
+        assertNull(none.getTarget(), "No food within the bound");
+        assertEquals(-1, none.getTargetDistance(), "No target distance");
+    }
+
+    @Test
+    public void testWindowIsLocal() {
+        MyMap2D map = new MyMap2D(2000, 2000, 0);
+        LocalDistances local = map.allDistanceBounded(new Index2D(1000, 1000), WALL, 10);
+        assertEquals(221, local.getReachedCount(), "A diamond of radius 10 has 221 cells");
+        assertEquals(10, local.getDistance(1010, 1000), "Edge of the diamond");
+        assertEquals(-1, local.getDistance(1011, 1000), "Beyond maxDepth");
+        assertEquals(-1, local.getDistance(0, 0), "Far outside the window");
+    }
+
+    @Test
+    public void testCyclicWindowWraps() {
+        MyMap2D map = new MyMap2D(50, 50, 0);
+        map.setCyclic(true);
+        LocalDistances local = map.allDistanceBounded(new Index2D(0, 0), WALL, 3);
+        assertEquals(2, local.getDistance(49, 49), "Wrapped corner");
+        assertEquals(3, local.getDistance(47, 0), "Wrapped row");
+        assertEquals(-1, local.getDistance(46, 0), "Beyond maxDepth through the wrap");
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        MyMap2D map = new MyMap2D(5, 5, 0);
+        assertThrows(RuntimeException.class, () -> map.allDistanceBounded(new Index2D(9, 9), WALL, 3), "Start outside");
+        assertThrows(RuntimeException.class, () -> map.allDistanceBounded(new Index2D(1, 1), WALL, -1), "Negative depth");
+        assertThrows(RuntimeException.class,
+            () -> map.allDistanceBounded(new Index2D(1, 1), WALL, 2).getDistance(5, 0), "Query outside the map");
+    }
+}
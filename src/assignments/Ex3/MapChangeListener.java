@@ -0,0 +1,24 @@
+package assignments.Ex3;
+
+/**
+ * MapChangeListener - callback for structures derived from a MyMap2D
+ * Registered with MyMap2D.addChangeListener; called on the writing thread,
+ * right after the change is applied.
+ */
+public interface MapChangeListener {
+    /**
+     * A single cell changed value (only called when oldV != newV).
+     * @param map the map that changed
+     * @param idx the flat index of the cell (see MyMap2D.indexOf)
+     * @param oldV the previous value
+     * @param newV the new value
+     */
+    void pixelChanged(MyMap2D map, int idx, int oldV, int newV);
+
+    /**
+     * The whole map was re-initialized or its topology (cyclic flag) changed;
+     * anything derived from it must be rebuilt.
+     * @param map the map that changed
+     */
+    void mapReset(MyMap2D map);
+}
@@ -0,0 +1,92 @@
+package assignments.Ex3;
+
+/**
+ * MapChanges - what changed in a MyMap2D between two versions
+ * (see MyMap2D.changesSince).
+ *
+ * Either a list of changed cells with their bounding rectangle, or "full":
+ * the changes are not known in detail (the map was reset by init or
+ * setCyclic, or the dirty log no longer reaches back that far), so every
+ * cell must be treated as changed.
+ */
+public final class MapChanges {
+
+    private static final int[] NONE = new int[0];
+
+    private final long _fromVersion;
+    private final long _toVersion;
+    private final boolean _full;
+    private final int[] _cells;
+    private final Pixel2D _min;
+    private final Pixel2D _max;
+
+    MapChanges(long fromVersion, long toVersion, int w, int h, boolean full, int[] cells) {
+        this._fromVersion = fromVersion;
+        this._toVersion = toVersion;
+        this._full = full;
+        this._cells = full ? NONE : cells;
+        if (full) {
+            this._min = new Index2D(0, 0);
+            this._max = new Index2D(w - 1, h - 1);
+        } else if (cells.length == 0) {
+            this._min = null;
+            this._max = null;
+        } else {
+            int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+            int maxX = -1, maxY = -1;
+            for (int c : cells) {
+                int x = c / h;
+                int y = c - x * h;
+                minX = Math.min(minX, x);
+                minY = Math.min(minY, y);
+                maxX = Math.max(maxX, x);
+                maxY = Math.max(maxY, y);
+            }
+            this._min = new Index2D(minX, minY);
+            this._max = new Index2D(maxX, maxY);
+        }
+    }
+
+    public long getFromVersion() {
+        return this._fromVersion;
+    }
+
+    public long getToVersion() {
+        return this._toVersion;
+    }
+
+    /**
+     * @return true iff every cell must be treated as changed
+     */
+    public boolean isFull() {
+        return this._full;
+    }
+
+    /**
+     * @return true iff nothing changed
+     */
+    public boolean isEmpty() {
+        return !this._full && this._cells.length == 0;
+    }
+
+    /**
+     * @return the changed cells as sorted flat indexes (see MyMap2D.indexOf); empty if full
+     */
+    public int[] getCells() {
+        return this._cells.clone();
+    }
+
+    /**
+     * @return the lower corner of the dirty rectangle (the whole map if full), null if empty
+     */
+    public Pixel2D getMin() {
+        return this._min;
+    }
+
+    /**
+     * @return the upper corner of the dirty rectangle (inclusive), null if empty
+     */
+    public Pixel2D getMax() {
+        return this._max;
+    }
+}
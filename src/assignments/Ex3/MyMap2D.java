@@ -1,8 +1,8 @@
 package assignments.Ex3;
 
-import java.util.ArrayList;
-import java.util.LinkedList;
-import java.util.Queue;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntPredicate;
 
 /**
  * MyMap2D - Complete implementation of Map2D interface
@@ -13,16 +13,74 @@ import java.util.Queue;
  * - Flood fill (connected component fill)
  * - All distance computation from source
  * - Cyclic/non-cyclic boundary handling
+ *
+ * STORAGE:
+ * - All cells live in one contiguous int[] in column-major order,
+ *   the cell (x,y) is stored at index x*getHeight()+y.
+ * - The index based accessors (indexOf, xOf, yOf, getPixelAt, setPixelAt)
+ *   expose this layout so hot loops can skip the 2D addressing.
+ * - countColor, findAll and replaceAll scan the whole array at once (see ColorScan).
+ *
+ * shortestPath(p1,p2,obsColor) uses the map's PathStrategy (BFS by default);
+ * shortestPath(p1,p2,obsColor,strategy) selects one per call.
+ *
+ * Obstacle tests in the searches read a cached passability bitset per
+ * obstacle color (see passableMask), kept exact by every write to the map.
+ *
+ * The distance maps returned by the allDistance variants are compact
+ * (see CompactDistanceMap) unless a distance exceeds 65534.
+ *
+ * isConnected / componentSize keep a connected-component index (see
+ * ComponentIndex) that lets the searches reject unreachable targets at once.
+ *
+ * Every change (setPixel, setPixelAt, fill, replaceAll, init, setCyclic) is reported to the
+ * registered MapChangeListeners, e.g. a DynamicDistanceField, and bumps the
+ * map's version; changesSince(version) tells which cells changed since then.
+ *
+ * The algorithms reuse per-map scratch buffers, so a MyMap2D must not be
+ * searched from several threads at the same time.
  */
 public class MyMap2D implements Map2D {
 
-    private int[][] _map;
+    private int[] _data;
+    private int _w;
+    private int _h;
     private boolean _cyclic;
+    // Reusable BFS buffers, created on first use (see SearchScratch)
+    private SearchScratch _scratch;
+    private SearchScratch _backScratch;
+    private IntBucketQueue _openList;
+    private IntBucketQueue _jumpOpenList;
+    // JPS per-cell direction bits (valid only for cells marked in the current search)
+    private int[] _jumpDirs;
+    // Passability bitsets of the last few obstacle colors: bit i is set iff cell i != color
+    private static final int MASK_CACHE_SIZE = 4;
+    // Neighbor tables for the non-cyclic [0] and cyclic [1] topology, built on first use.
+    // Only worth it while the table (16 bytes per cell) stays in cache
+    private static final int NEIGHBOR_TABLE_MAX_CELLS = 1 << 16;
+    private final int[][] _neighborTables = new int[2][];
+    // Below this many cells allDistanceParallel uses the sequential BFS
+    private static final int MIN_PARALLEL_SIZE = 1 << 16;
+    private final int[] _maskColors = new int[MASK_CACHE_SIZE];
+    private final long[][] _masks = new long[MASK_CACHE_SIZE][];
+    private int _maskCount;
+    private int _maskNext;
+    private PathStrategy _strategy = PathStrategy.BFS;
+    private MapChangeListener[] _listeners = new MapChangeListener[0];
+    // Mutation stamp: bumped once by every changing setPixel, fill, replaceAll, init and setCyclic
+    private long _version;
+    // Cells written per version, for changesSince
+    private static final int DIRTY_LOG_CAPACITY = 1024;
+    private final DirtyLog _dirty = new DirtyLog(DIRTY_LOG_CAPACITY);
+    // Connected components for the last obstacle color asked for (see ComponentIndex)
+    private ComponentIndex _components;
 
     // ==================== CONSTRUCTORS ====================
 
     public MyMap2D() {
-        this._map = null;
+        this._data = null;
+        this._w = 0;
+        this._h = 0;
         this._cyclic = false;
     }
 
@@ -41,14 +99,20 @@ public class MyMap2D implements Map2D {
         if (w <= 0 || h <= 0) {
             throw new RuntimeException("Width and height must be positive");
         }
+        if ((long) w * h > Integer.MAX_VALUE) {
+            throw new RuntimeException("Map too large: " + w + "x" + h);
+        }
 
-        this._map = new int[w][h];
-        for (int i = 0; i < w; i++) {
-            for (int j = 0; j < h; j++) {
-                this._map[i][j] = v;
-            }
+        this._data = new int[w * h];
+        if (v != 0) {
+            Arrays.fill(this._data, v);
         }
+        dropNeighborTables(w, h);
+        this._w = w;
+        this._h = h;
         this._cyclic = false;
+        clearMasks();
+        reset();
     }
 
     @Override
@@ -64,42 +128,64 @@ public class MyMap2D implements Map2D {
                 throw new RuntimeException("Not a valid rectangular 2D array");
             }
         }
+        if (height == 0) {
+            throw new RuntimeException("Array is null or empty");
+        }
+        if ((long) arr.length * height > Integer.MAX_VALUE) {
+            throw new RuntimeException("Map too large: " + arr.length + "x" + height);
+        }
 
-        // Deep copy
-        this._map = new int[arr.length][height];
+        // Deep copy, one column at a time
+        this._data = new int[arr.length * height];
         for (int i = 0; i < arr.length; i++) {
-            for (int j = 0; j < height; j++) {
-                this._map[i][j] = arr[i][j];
-            }
+            ColorScan.copy(arr[i], 0, this._data, i * height, height);
+        }
+        dropNeighborTables(arr.length, height);
+        this._w = arr.length;
+        this._h = height;
+        this._cyclic = false;
+        clearMasks();
+        reset();
+    }
+
+    /**
+     * Like init, but takes over data (w*h cells in the column-major layout)
+     * without copying it. Used by LevelFile.
+     */
+    void adopt(int w, int h, int[] data) {
+        if (w <= 0 || h <= 0 || data == null || (long) w * h != data.length) {
+            throw new RuntimeException("Data does not match a " + w + "x" + h + " map");
         }
+        this._data = data;
+        dropNeighborTables(w, h);
+        this._w = w;
+        this._h = h;
         this._cyclic = false;
+        clearMasks();
+        reset();
     }
 
     // ==================== GETTERS ====================
 
     @Override
     public int[][] getMap() {
-        if (this._map == null) return null;
+        if (this._data == null) return null;
 
-        int[][] copy = new int[this._map.length][this._map[0].length];
-        for (int i = 0; i < this._map.length; i++) {
-            for (int j = 0; j < this._map[i].length; j++) {
-                copy[i][j] = this._map[i][j];
-            }
+        int[][] copy = new int[this._w][this._h];
+        for (int i = 0; i < this._w; i++) {
+            ColorScan.copy(this._data, i * this._h, copy[i], 0, this._h);
         }
         return copy;
     }
 
     @Override
     public int getWidth() {
-        if (this._map == null) return 0;
-        return this._map.length;
+        return this._w;
     }
 
     @Override
     public int getHeight() {
-        if (this._map == null || this._map.length == 0) return 0;
-        return this._map[0].length;
+        return this._h;
     }
 
     @Override
@@ -107,7 +193,7 @@ public class MyMap2D implements Map2D {
         if (!isValidCoordinate(x, y)) {
             throw new RuntimeException("Coordinate out of bounds: (" + x + "," + y + ")");
         }
-        return this._map[x][y];
+        return this._data[x * this._h + y];
     }
 
     @Override
@@ -123,7 +209,7 @@ public class MyMap2D implements Map2D {
         if (!isValidCoordinate(x, y)) {
             throw new RuntimeException("Coordinate out of bounds: (" + x + "," + y + ")");
         }
-        this._map[x][y] = v;
+        write(x * this._h + y, v);
     }
 
     @Override
@@ -132,6 +218,93 @@ public class MyMap2D implements Map2D {
         setPixel(p.getX(), p.getY(), v);
     }
 
+    // ==================== INDEX ACCESS ====================
+
+    /**
+     * @return the number of cells in this map (getWidth()*getHeight()).
+     */
+    public int size() {
+        return this._w * this._h;
+    }
+
+    /**
+     * Flat index of (x,y) - no bounds check.
+     * @return x*getHeight()+y
+     */
+    public int indexOf(int x, int y) {
+        return x * this._h + y;
+    }
+
+    /**
+     * @param idx a flat index in [0,size())
+     * @return the x coordinate of idx
+     */
+    public int xOf(int idx) {
+        return idx / this._h;
+    }
+
+    /**
+     * @param idx a flat index in [0,size())
+     * @return the y coordinate of idx
+     */
+    public int yOf(int idx) {
+        return idx % this._h;
+    }
+
+    /**
+     * Read a cell by its flat index (see indexOf).
+     * @throws ArrayIndexOutOfBoundsException if idx is not in [0,size())
+     */
+    public int getPixelAt(int idx) {
+        return this._data[idx];
+    }
+
+    /**
+     * Write a cell by its flat index (see indexOf).
+     * @throws ArrayIndexOutOfBoundsException if idx is not in [0,size())
+     */
+    public void setPixelAt(int idx, int v) {
+        write(idx, v);
+    }
+
+    // ==================== BULK OPERATIONS ====================
+
+    /**
+     * @return the number of cells with value v
+     */
+    public int countColor(int v) {
+        if (this._data == null) return 0;
+        return ColorScan.count(this._data, v);
+    }
+
+    /**
+     * @return the flat indexes (see indexOf) of all cells with value v, ascending
+     */
+    public int[] findAll(int v) {
+        if (this._data == null) return new int[0];
+        return ColorScan.findAll(this._data, v);
+    }
+
+    /**
+     * Change every cell with value old_v to new_v: one version, reported to
+     * the listeners like a fill.
+     * @return the number of cells changed
+     */
+    public int replaceAll(int old_v, int new_v) {
+        if (this._data == null || old_v == new_v) return 0;
+        int[] cells = findAll(old_v);
+        if (cells.length == 0) return 0;
+        this._version++;
+        // Consecutive indexes go through the write path as one run
+        for (int i = 0; i < cells.length; ) {
+            int j = i + 1;
+            while (j < cells.length && cells[j] == cells[j - 1] + 1) j++;
+            runChanged(cells[i], cells[j - 1] + 1, old_v, new_v);
+            i = j;
+        }
+        return cells.length;
+    }
+
     // ==================== PROPERTIES ====================
 
     @Override
@@ -147,14 +320,35 @@ public class MyMap2D implements Map2D {
 
     @Override
     public void setCyclic(boolean cy) {
+        if (this._cyclic == cy) return;
         this._cyclic = cy;
+        reset();
+    }
+
+    /**
+     * @return the strategy used by shortestPath(p1,p2,obsColor).
+     */
+    public PathStrategy getPathStrategy() {
+        return this._strategy;
+    }
+
+    /**
+     * Set the strategy used by shortestPath(p1,p2,obsColor).
+     * @throws RuntimeException if strategy is null
+     */
+    public void setPathStrategy(PathStrategy strategy) {
+        if (strategy == null) throw new RuntimeException("Path strategy is null");
+        this._strategy = strategy;
     }
 
     // ==================== ALGORITHMS ====================
 
     /**
      * Flood fill - fill connected component with new color
-     * Uses BFS to find all connected cells with same color
+     * Scanline fill: each seed grows into a whole run along y (the contiguous
+     * axis of the storage), the run is filled in one pass, and the columns on
+     * its left and right get one new seed per run of old color next to it.
+     * Runs and neighbor columns wrap around when the map is cyclic.
      */
     @Override
     public int fill(Pixel2D p, int new_v) {
@@ -162,29 +356,50 @@ public class MyMap2D implements Map2D {
             return 0;
         }
 
-        int old_v = getPixel(p);
+        int start = indexOf(p.getX(), p.getY());
+        int old_v = this._data[start];
         if (old_v == new_v) {
             return 0;
         }
+        this._version++;
 
+        IntRingQueue seeds = scratch().queue();
+        seeds.clear();
+        seeds.add(start);
         int count = 0;
-        Queue<Pixel2D> queue = new LinkedList<>();
-        queue.add(p);
-
-        while (!queue.isEmpty()) {
-            Pixel2D current = queue.poll();
-            int x = current.getX();
-            int y = current.getY();
 
-            if (getPixel(x, y) != old_v) {
-                continue;
+        while (!seeds.isEmpty()) {
+            int seed = seeds.poll();
+            if (this._data[seed] != old_v) continue; // already filled by another run
+
+            int x = seed / this._h;
+            int base = x * this._h;
+            int y = seed - base;
+
+            // Grow the run down and up from the seed (len <= h stops a full cyclic column)
+            int y0 = y;
+            int len = 1;
+            while (len < this._h) {
+                int ny = y0 > 0 ? y0 - 1 : (this._cyclic ? this._h - 1 : -1);
+                if (ny < 0 || this._data[base + ny] != old_v) break;
+                y0 = ny;
+                len++;
+            }
+            int y1 = y;
+            while (len < this._h) {
+                int ny = y1 + 1 < this._h ? y1 + 1 : (this._cyclic ? 0 : -1);
+                if (ny < 0 || this._data[base + ny] != old_v) break;
+                y1 = ny;
+                len++;
             }
 
-            setPixel(x, y, new_v);
-            count++;
+            fillRun(base, y0, len, old_v, new_v);
+            count += len;
 
-            // Add neighbors with same old color
-            addFillNeighbors(queue, x, y, old_v);
+            int left = x > 0 ? x - 1 : (this._cyclic ? this._w - 1 : -1);
+            int right = x + 1 < this._w ? x + 1 : (this._cyclic ? 0 : -1);
+            if (left >= 0) seedRuns(seeds, left * this._h, y0, len, old_v);
+            if (right >= 0 && right != left) seedRuns(seeds, right * this._h, y0, len, old_v);
         }
 
         return count;
@@ -192,182 +407,1018 @@ public class MyMap2D implements Map2D {
 
     /**
      * Find shortest path avoiding obstacles
-     * Uses BFS to find path from p1 to p2, avoiding obsColor
+     * Uses the map's PathStrategy (BFS unless changed) to find path from p1 to p2, avoiding obsColor.
+     * The search itself runs on the reusable scratch buffers; only the
+     * returned path is allocated.
      */
     @Override
     public Pixel2D[] shortestPath(Pixel2D p1, Pixel2D p2, int obsColor) {
+        return shortestPath(p1, p2, obsColor, this._strategy);
+    }
+
+    /**
+     * Find shortest path avoiding obstacles with the given search strategy.
+     * All strategies return a path of the same length (or null in the same cases).
+     * @throws RuntimeException if strategy is null
+     */
+    public Pixel2D[] shortestPath(Pixel2D p1, Pixel2D p2, int obsColor, PathStrategy strategy) {
+        if (strategy == null) throw new RuntimeException("Path strategy is null");
+        if (!isInside(p1) || !isInside(p2)) return null;
+        if (getPixel(p1) == obsColor || getPixel(p2) == obsColor) return null;
+        if (p1.equals(p2)) return new Pixel2D[]{p1};
+
+        int src = indexOf(p1.getX(), p1.getY());
+        int dst = indexOf(p2.getX(), p2.getY());
+        ComponentIndex comp = readyComponents(obsColor);
+        if (comp != null && !comp.connected(src, dst)) return null;
+
+        long[] pass = passableMask(obsColor);
+        if (strategy == PathStrategy.BIDIRECTIONAL) {
+            return bidirectionalPath(p1, src, dst, pass);
+        }
+        if (strategy == PathStrategy.JPS) {
+            return jumpPointPath(p1, src, dst, pass);
+        }
+
+        SearchScratch s = scratch();
+        boolean found = strategy == PathStrategy.A_STAR
+                ? aStar(s, src, dst, pass)
+                : bfs(s, src, dst, pass);
+        if (!found) return null;
+
+        // --- PATH RECONSTRUCTION ---
+        int len = 1;
+        for (int c = dst; c != src; c = s.parent(c)) len++;
+
+        Pixel2D[] path = new Pixel2D[len];
+        path[0] = p1;
+        for (int c = dst, i = len - 1; i > 0; c = s.parent(c), i--) {
+            path[i] = new Index2D(xOf(c), yOf(c));
+        }
+        return path;
+    }
 
-            if (!isInside(p1) || !isInside(p2)) return null;
-            if (getPixel(p1) == obsColor || getPixel(p2) == obsColor) return null;
-            if (p1.equals(p2)) return new Pixel2D[]{p1};
+    /**
+     * Shortest path from p1 to p2 as a lazy handle instead of a Pixel2D[].
+     * The search runs backwards from p2, so the parent links already lead
+     * from p1 to p2: the first step is one lookup and the path is only walked
+     * as far as the caller iterates. Uses A* unless the map's strategy is BFS
+     * (bidirectional and JPS leave no single parent chain).
+     * The handle reads this map's search buffers: it goes stale with the next
+     * search or change of the map.
+     * @return the path handle, or null if no path exists (as in shortestPath)
+     */
+    public PathHandle shortestPathHandle(Pixel2D p1, Pixel2D p2, int obsColor) {
+        if (!isInside(p1) || !isInside(p2)) return null;
+        if (getPixel(p1) == obsColor || getPixel(p2) == obsColor) return null;
+
+        int src = indexOf(p1.getX(), p1.getY());
+        int dst = indexOf(p2.getX(), p2.getY());
+        if (src == dst) return new PathHandle(this, null, src, dst);
+        ComponentIndex comp = readyComponents(obsColor);
+        if (comp != null && !comp.connected(src, dst)) return null;
+
+        long[] pass = passableMask(obsColor);
+        SearchScratch s = scratch();
+        boolean found = this._strategy == PathStrategy.BFS
+                ? bfs(s, dst, src, pass)
+                : aStar(s, dst, src, pass);
+        return found ? new PathHandle(this, s, src, dst) : null;
+    }
 
-            // BFS Setup
-            Queue<Pixel2D> queue = new LinkedList<>();
-            // Maps each pixel to the pixel that "discovered" it
-            Pixel2D[][] parents = new Pixel2D[getWidth()][getHeight()];
+    /**
+     * Compute shortest distances from start to all reachable cells
+     * Returns new map with distances (-1 for unreachable)
+     */
+    @Override
+    public Map2D allDistance(Pixel2D start, int obsColor) {
+        int[] dist = new int[size()];
+        if (isInside(start)) {
+            distances(indexOf(start.getX(), start.getY()), obsColor, dist);
+        } else {
+            Arrays.fill(dist, -1);
+        }
+        return distanceMap(this._w, this._h, this._cyclic, dist);
+    }
 
-            queue.add(p1);
-            parents[p1.getX()][p1.getY()] = p1; // Mark start as visited by itself
+    /**
+     * Same result as allDistance(start, obsColor), computed by a level-synchronous
+     * parallel BFS on the common ForkJoinPool (see ParallelBfs). Meant for very
+     * large maps; small maps (or a single-core machine) use the sequential search.
+     * The map must not be changed while this runs.
+     * @param start the source point
+     * @param obsColor the color representing obstacles
+     * @return a new map with distances (-1 for unreachable)
+     */
+    public Map2D allDistanceParallel(Pixel2D start, int obsColor) {
+        int[] dist = new int[size()];
+        if (!isInside(start)) {
+            Arrays.fill(dist, -1);
+        } else if (size() < MIN_PARALLEL_SIZE || ForkJoinPool.getCommonPoolParallelism() < 2) {
+            distances(indexOf(start.getX(), start.getY()), obsColor, dist);
+        } else {
+            new ParallelBfs(this, obsColor, dist, ForkJoinPool.commonPool()).run(indexOf(start.getX(), start.getY()));
+        }
+        return distanceMap(this._w, this._h, this._cyclic, dist);
+    }
 
-            boolean found = false;
-            while (!queue.isEmpty() && !found) {
-                Pixel2D curr = queue.poll();
+    /**
+     * Shortest distances from start to every cell, kept up to date as this map
+     * changes: later changes are repaired incrementally instead of by a new BFS.
+     * Call detach() on the result when it is no longer needed.
+     * @param start the source point
+     * @param obsColor the color representing obstacles
+     * @return a live distance field (unreachable cells are -1, as in allDistance)
+     */
+    public DynamicDistanceField allDistanceDynamic(Pixel2D start, int obsColor) {
+        if (!isInside(start)) throw new RuntimeException("Start is outside the map: " + start);
+        return new DynamicDistanceField(this, start, obsColor);
+    }
 
-                // Standard 4-direction movement
-                int[] dx = {1, -1, 0, 0};
-                int[] dy = {0, 0, 1, -1};
+    /**
+     * All-pairs shortest distances of the current map, answered by table lookup.
+     * The oracle is a snapshot: it does not see later changes (see DistanceOracle.isValidFor).
+     * @param obsColor the color representing obstacles
+     * @return a new distance oracle
+     * @throws RuntimeException if the map has more than DistanceOracle.MAX_CELLS passable cells
+     */
+    public DistanceOracle distanceOracle(int obsColor) {
+        return new DistanceOracle(this, obsColor);
+    }
 
-                for (int i = 0; i < 4; i++) {
-                    int nx = curr.getX() + dx[i];
-                    int ny = curr.getY() + dy[i];
+    /**
+     * O(1) reachability check through a connected-component index for obsColor.
+     * The index is built on the first call and then kept up to date; while it
+     * is fresh, shortestPath and allDistance use it to reject or cut short
+     * searches. One index is kept per map, for the last obsColor asked for.
+     * @return true iff a and b are passable and connected
+     */
+    public boolean isConnected(Pixel2D a, Pixel2D b, int obsColor) {
+        if (!isInside(a) || !isInside(b)) return false;
+        return components(obsColor).connected(indexOf(a.getX(), a.getY()), indexOf(b.getX(), b.getY()));
+    }
 
-                    // --- CYCLIC LOGIC ---
-                    if (this._cyclic) {
-                        nx = (nx + getWidth()) % getWidth();
-                        ny = (ny + getHeight()) % getHeight();
-                    }
+    /**
+     * @return the number of cells reachable from p (including p), 0 if p is outside or an obstacle
+     */
+    public int componentSize(Pixel2D p, int obsColor) {
+        if (!isInside(p)) return 0;
+        return components(obsColor).size(indexOf(p.getX(), p.getY()));
+    }
 
-                    if (isValidCoordinate(nx, ny) && parents[nx][ny] == null && getPixel(nx, ny) != obsColor) {
-                        parents[nx][ny] = curr;
-                        Pixel2D next = new Index2D(nx, ny);
-                        queue.add(next);
-                        if (next.equals(p2)) {
-                            found = true;
-                            break;
-                        }
-                    }
+    /**
+     * Distances from start up to maxDepth steps, in a window around start.
+     * Costs O(maxDepth^2) instead of O(W*H), whatever the size of the map.
+     * @see #allDistanceBounded(Pixel2D, int, int, IntPredicate)
+     */
+    public LocalDistances allDistanceBounded(Pixel2D start, int obsColor, int maxDepth) {
+        return allDistanceBounded(start, obsColor, maxDepth, null);
+    }
+
+    /**
+     * Distances from start up to maxDepth steps, stopping early at the first
+     * (nearest) cell whose color matches target, e.g. v -> v == FOOD.
+     * As in allDistance, start itself is expanded even if it is an obstacle.
+     * @param start the source point
+     * @param obsColor the color representing obstacles
+     * @param maxDepth the largest distance to explore (Integer.MAX_VALUE for no bound)
+     * @param target a predicate on cell colors to stop at, or null to explore up to maxDepth
+     * @return the distances found, see LocalDistances
+     */
+    public LocalDistances allDistanceBounded(Pixel2D start, int obsColor, int maxDepth, IntPredicate target) {
+        if (!isInside(start)) throw new RuntimeException("Start is outside the map: " + start);
+        if (maxDepth < 0) throw new RuntimeException("maxDepth must not be negative: " + maxDepth);
+        LocalDistances result = new LocalDistances(this, start, maxDepth);
+        int src = indexOf(start.getX(), start.getY());
+        result.set(start.getX(), start.getY(), 0);
+        if (target != null && target.test(this._data[src])) {
+            result.setTarget(src);
+            return result;
+        }
+
+        // Reads the cells directly: building a passability bitset would cost O(W*H)
+        IntRingQueue queue = scratch().queue();
+        queue.clear();
+        queue.add(src);
+        while (!queue.isEmpty()) {
+            int current = queue.poll();
+            int x = current / this._h;
+            int y = current - x * this._h;
+            int d = result.get(x, y);
+            if (d == maxDepth) break; // the rest of the queue is at maxDepth too
+
+            for (int dir = 0; dir < 4; dir++) {
+                int n = neighbor(current, x, y, dir);
+                if (n < 0 || this._data[n] == obsColor) continue;
+                int nx = n / this._h;
+                int ny = n - nx * this._h;
+                if (result.get(nx, ny) != -1) continue;
+                result.set(nx, ny, d + 1);
+                if (target != null && target.test(this._data[n])) {
+                    result.setTarget(n);
+                    return result;
                 }
+                queue.add(n);
             }
+        }
+        return result;
+    }
 
-            // --- PATH RECONSTRUCTION ---
-            if (!found) return null;
+    /**
+     * Multi-source distances: the distance of each cell to its nearest source.
+     * Equivalent to the minimum over allDistance(sources[i], obsColor), in one BFS.
+     * Sources outside the map are ignored.
+     * @param sources the source points
+     * @param obsColor the color representing obstacles
+     * @return a new map with the distance to the nearest source (-1 for unreachable)
+     */
+    public Map2D allDistance(Pixel2D[] sources, int obsColor) {
+        return allDistance(sources, obsColor, null);
+    }
 
-            LinkedList<Pixel2D> pathList = new LinkedList<>();
-            Pixel2D temp = p2;
-            while (!temp.equals(p1)) {
-                pathList.addFirst(temp);
-                temp = parents[temp.getX()][temp.getY()];
+    /**
+     * Multi-source distances that also report which source owns each cell.
+     * @param sources the source points
+     * @param obsColor the color representing obstacles
+     * @param owners if not null, a map of this map's size that receives for every
+     *               cell the index (in sources) of its nearest source, -1 if unreachable.
+     *               Ties go to the source with the lower index.
+     * @return a new map with the distance to the nearest source (-1 for unreachable)
+     */
+    public Map2D allDistance(Pixel2D[] sources, int obsColor, Map2D owners) {
+        if (sources == null) throw new RuntimeException("Sources are null");
+        int[] seeds = new int[sources.length];
+        int[] labels = new int[sources.length];
+        int count = 0;
+        for (int i = 0; i < sources.length; i++) {
+            if (isInside(sources[i])) {
+                seeds[count] = indexOf(sources[i].getX(), sources[i].getY());
+                labels[count++] = i;
             }
-            pathList.addFirst(p1);
-
-            return pathList.toArray(new Pixel2D[0]);
         }
+        return multiDistance(seeds, labels, count, obsColor, owners);
+    }
 
+    /**
+     * Multi-source distances from every cell of sourceColor, e.g. the distance
+     * of each cell to the nearest food.
+     * @param sourceColor the color of the source cells
+     * @param obsColor the color representing obstacles
+     * @return a new map with the distance to the nearest source (-1 for unreachable)
+     */
+    public Map2D allDistanceFromColor(int sourceColor, int obsColor) {
+        return allDistanceFromColor(sourceColor, obsColor, null);
+    }
 
     /**
-     * Compute shortest distances from start to all reachable cells
-     * Returns new map with distances (-1 for unreachable)
+     * Multi-source distances from every cell of sourceColor, also reporting
+     * the nearest source cell.
+     * @param sourceColor the color of the source cells
+     * @param obsColor the color representing obstacles
+     * @param owners if not null, a map of this map's size that receives for every
+     *               cell the flat index (see indexOf) of its nearest source cell,
+     *               -1 if unreachable. Ties go to the source with the lower index.
+     * @return a new map with the distance to the nearest source (-1 for unreachable)
      */
-    @Override
-    public Map2D allDistance(Pixel2D start, int obsColor) {
-        Map2D distMap = new MyMap2D(getWidth(), getHeight(), -1);
+    public Map2D allDistanceFromColor(int sourceColor, int obsColor, Map2D owners) {
+        int n = size();
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            if (this._data[i] == sourceColor) count++;
+        }
+        int[] seeds = new int[count];
+        count = 0;
+        for (int i = 0; i < n; i++) {
+            if (this._data[i] == sourceColor) seeds[count++] = i;
+        }
+        return multiDistance(seeds, seeds, count, obsColor, owners);
+    }
 
-        if (!isInside(start)) {
-            return distMap;
+    private Map2D multiDistance(int[] seeds, int[] labels, int count, int obsColor, Map2D owners) {
+        if (owners != null && (owners.getWidth() != this._w || owners.getHeight() != this._h)) {
+            throw new RuntimeException("Owner map must be " + this._w + "x" + this._h);
+        }
+        int[] dist = new int[size()];
+        int[] owner = owners == null ? null : new int[size()];
+        distances(seeds, labels, count, obsColor, dist, owner);
+        if (owners != null) {
+            for (int x = 0, i = 0; x < this._w; x++) {
+                for (int y = 0; y < this._h; y++, i++) {
+                    owners.setPixel(x, y, owner[i]);
+                }
+            }
         }
+        return distanceMap(this._w, this._h, this._cyclic, dist);
+    }
 
-        Queue<Pixel2D> queue = new LinkedList<>();
-        queue.add(start);
-        distMap.setPixel(start, 0);
+    /**
+     * Wrap a distance array (MyMap2D layout, -1 for unreachable) as a map:
+     * a CompactDistanceMap when the largest distance fits in 1 or 2 bytes per
+     * cell, else a MyMap2D that takes over dist.
+     */
+    static Map2D distanceMap(int w, int h, boolean cyclic, int[] dist) {
+        int max = -1;
+        for (int i = 0; i < dist.length; i++) {
+            if (dist[i] > max) max = dist[i];
+        }
+        Map2D result;
+        if (max <= CompactDistanceMap.CHAR_MAX) {
+            result = new CompactDistanceMap(w, h, dist, max);
+        } else {
+            MyMap2D m = new MyMap2D();
+            m.adopt(w, h, dist);
+            result = m;
+        }
+        result.setCyclic(cyclic);
+        return result;
+    }
 
-        int[] dx = {0, 0, -1, 1};
-        int[] dy = {1, -1, 0, 0};
+    /**
+     * BFS distances from src into dist (length size()), -1 for unreachable.
+     * Like allDistance, src itself is expanded even if it is an obstacle.
+     */
+    void distances(int src, int obsColor, int[] dist) {
+        // With a component index the search can stop once src's component is covered
+        ComponentIndex comp = readyComponents(obsColor);
+        int limit = comp != null && comp.size(src) > 0 ? comp.size(src) : Integer.MAX_VALUE;
+        distances(new int[]{src}, null, 1, obsColor, dist, null, limit);
+    }
 
-        while (!queue.isEmpty()) {
-            Pixel2D current = queue.poll();
-            int x = current.getX();
-            int y = current.getY();
-            int currentDist = distMap.getPixel(x, y);
-
-            for (int i = 0; i < 4; i++) {
-                int nx = x + dx[i];
-                int ny = y + dy[i];
-
-                // Handle cyclic
-                if (this._cyclic) {
-                    nx = ((nx % getWidth()) + getWidth()) % getWidth();
-                    ny = ((ny % getHeight()) + getHeight()) % getHeight();
-                }
+    /**
+     * BFS distances from the first count seeds into dist (length size()),
+     * -1 for unreachable. Seeds are expanded even if they are obstacles.
+     * If owner is not null it receives labels[k] of the seed each cell was
+     * reached from (-1 if unreachable). The BFS keeps every level ordered by
+     * seed, so ties go to the earliest seed.
+     */
+    void distances(int[] seeds, int[] labels, int count, int obsColor, int[] dist, int[] owner) {
+        distances(seeds, labels, count, obsColor, dist, owner, Integer.MAX_VALUE);
+    }
 
-                if (isValidCoordinate(nx, ny)) {
-                    if (getPixel(nx, ny) != obsColor && distMap.getPixel(nx, ny) == -1) {
-                        distMap.setPixel(nx, ny, currentDist + 1);
-                        queue.add(new Index2D(nx, ny));
-                    }
+    /**
+     * As above, stopping as soon as limit cells have a distance.
+     */
+    private void distances(int[] seeds, int[] labels, int count, int obsColor, int[] dist, int[] owner, int limit) {
+        Arrays.fill(dist, 0, size(), -1);
+        if (owner != null) Arrays.fill(owner, 0, size(), -1);
+        // The result array doubles as the visited set
+        long[] pass = passableMask(obsColor);
+        IntRingQueue queue = scratch().queue();
+        queue.clear();
+        for (int k = 0; k < count; k++) {
+            int src = seeds[k];
+            if (dist[src] == 0) continue; // duplicate seed
+            dist[src] = 0;
+            if (owner != null) owner[src] = labels[k];
+            queue.add(src);
+        }
+        int reached = queue.size();
+        int[] nt = neighborTable();
+
+        while (!queue.isEmpty() && reached < limit) {
+            int current = queue.poll();
+            int x = 0;
+            int y = 0;
+            if (nt == null) {
+                x = current / this._h;
+                y = current - x * this._h;
+            }
+            int nextDist = dist[current] + 1;
+
+            for (int dir = 0; dir < 4; dir++) {
+                int n = nt != null ? nt[(current << 2) + dir] : neighbor(current, x, y, dir);
+                if (n >= 0 && dist[n] == -1 && bit(pass, n)) {
+                    dist[n] = nextDist;
+                    if (owner != null) owner[n] = owner[current];
+                    queue.add(n);
+                    reached++;
                 }
             }
         }
+    }
+
+    // ==================== VERSIONING ====================
 
-        distMap.setCyclic(this._cyclic);
-        return distMap;
+    /**
+     * @return the current version; it grows by one with every call that changes the map
+     */
+    public long getVersion() {
+        return this._version;
+    }
+
+    /**
+     * What changed after the given version, e.g. to redraw or re-plan only the
+     * dirty cells. The result is "full" if the map was reset (init, setCyclic)
+     * since then, or if the bounded change log no longer reaches that far back.
+     * @param version an earlier result of getVersion()
+     * @return the changes between version and getVersion()
+     */
+    public MapChanges changesSince(long version) {
+        if (version > this._version) {
+            throw new RuntimeException("Unknown version " + version + ", current is " + this._version);
+        }
+        if (version < this._dirty.floor()) {
+            return new MapChanges(version, this._version, this._w, this._h, true, null);
+        }
+        return new MapChanges(version, this._version, this._w, this._h, false, this._dirty.cellsSince(version));
+    }
+
+    // ==================== CHANGE LISTENERS ====================
+
+    /**
+     * Register a listener for changes of this map (no-op if already registered).
+     */
+    public void addChangeListener(MapChangeListener l) {
+        if (l == null) throw new RuntimeException("Listener is null");
+        for (MapChangeListener existing : this._listeners) {
+            if (existing == l) return;
+        }
+        MapChangeListener[] next = Arrays.copyOf(this._listeners, this._listeners.length + 1);
+        next[next.length - 1] = l;
+        this._listeners = next;
+    }
+
+    public void removeChangeListener(MapChangeListener l) {
+        for (int i = 0; i < this._listeners.length; i++) {
+            if (this._listeners[i] == l) {
+                MapChangeListener[] next = new MapChangeListener[this._listeners.length - 1];
+                System.arraycopy(this._listeners, 0, next, 0, i);
+                System.arraycopy(this._listeners, i + 1, next, i, next.length - i);
+                this._listeners = next;
+                return;
+            }
+        }
+    }
+
+    private void fireReset() {
+        for (MapChangeListener l : this._listeners) {
+            l.mapReset(this);
+        }
+    }
+
+    // ==================== MUTATION TRACKING ====================
+
+    /**
+     * @return the component index for obsColor, built or refreshed as needed
+     */
+    private ComponentIndex components(int obsColor) {
+        if (this._components == null || this._components.obsColor() != obsColor) {
+            if (this._components != null) this._components.detach();
+            this._components = new ComponentIndex(this, obsColor);
+        }
+        this._components.refresh();
+        return this._components;
+    }
+
+    /**
+     * @return the component index for obsColor if one is built and fresh, else null
+     * (searches never pay for a rebuild)
+     */
+    private ComponentIndex readyComponents(int obsColor) {
+        ComponentIndex comp = this._components;
+        return comp != null && comp.obsColor() == obsColor && !comp.isStale() ? comp : null;
+    }
+
+    /**
+     * The whole map changed (init, setCyclic): new version, nothing to log.
+     */
+    private void reset() {
+        this._version++;
+        this._dirty.reset(this._version);
+        fireReset();
+    }
+
+    /**
+     * Single write path for one cell; keeps the derived caches exact.
+     */
+    private void write(int idx, int v) {
+        int old_v = this._data[idx];
+        if (old_v == v) return;
+        this._data[idx] = v;
+        this._version++;
+        this._dirty.record(this._version, idx, idx + 1);
+        for (int k = 0; k < this._maskCount; k++) {
+            int c = this._maskColors[k];
+            if (c == old_v) {
+                this._masks[k][idx >>> 6] |= 1L << idx;
+            } else if (c == v) {
+                this._masks[k][idx >>> 6] &= ~(1L << idx);
+            }
+        }
+        for (MapChangeListener l : this._listeners) {
+            l.pixelChanged(this, idx, old_v, v);
+        }
+    }
+
+    /**
+     * Bulk write of the cells [from,to), which all hold old_v, to new_v.
+     */
+    private void runChanged(int from, int to, int old_v, int new_v) {
+        Arrays.fill(this._data, from, to, new_v);
+        this._dirty.record(this._version, from, to);
+        for (int k = 0; k < this._maskCount; k++) {
+            int c = this._maskColors[k];
+            if (c == old_v) {
+                setBits(this._masks[k], from, to, true);
+            } else if (c == new_v) {
+                setBits(this._masks[k], from, to, false);
+            }
+        }
+        for (MapChangeListener l : this._listeners) {
+            for (int i = from; i < to; i++) {
+                l.pixelChanged(this, i, old_v, new_v);
+            }
+        }
+    }
+
+    /**
+     * Passability bitset for obsColor: bit i is set iff cell i is not obsColor.
+     * Built on first use and cached for the last MASK_CACHE_SIZE colors;
+     * every write through this map keeps the cached bitsets up to date.
+     * The returned array is shared - callers must not modify it.
+     */
+    long[] passableMask(int obsColor) {
+        for (int k = 0; k < this._maskCount; k++) {
+            if (this._maskColors[k] == obsColor) return this._masks[k];
+        }
+        int n = size();
+        long[] bits = new long[(n + 63) >>> 6];
+        for (int i = 0; i < n; i++) {
+            if (this._data[i] != obsColor) bits[i >>> 6] |= 1L << i;
+        }
+        int slot;
+        if (this._maskCount < MASK_CACHE_SIZE) {
+            slot = this._maskCount++;
+        } else {
+            slot = this._maskNext;
+            this._maskNext = (this._maskNext + 1) % MASK_CACHE_SIZE;
+        }
+        this._maskColors[slot] = obsColor;
+        this._masks[slot] = bits;
+        return bits;
+    }
+
+    private void clearMasks() {
+        Arrays.fill(this._masks, null);
+        this._maskCount = 0;
+        this._maskNext = 0;
+    }
+
+    static boolean bit(long[] bits, int i) {
+        return (bits[i >>> 6] & (1L << i)) != 0;
+    }
+
+    /**
+     * Set (on=true) or clear the bits [from,to).
+     */
+    private static void setBits(long[] bits, int from, int to, boolean on) {
+        if (from >= to) return;
+        int w0 = from >>> 6;
+        int w1 = (to - 1) >>> 6;
+        long first = -1L << from;
+        long last = -1L >>> -to;
+        if (w0 == w1) {
+            long m = first & last;
+            bits[w0] = on ? bits[w0] | m : bits[w0] & ~m;
+            return;
+        }
+        bits[w0] = on ? bits[w0] | first : bits[w0] & ~first;
+        for (int w = w0 + 1; w < w1; w++) {
+            bits[w] = on ? -1L : 0L;
+        }
+        bits[w1] = on ? bits[w1] | last : bits[w1] & ~last;
     }
 
     // ==================== HELPER METHODS ====================
 
-    private boolean isValidCoordinate(int x, int y) {
-        return x >= 0 && x < getWidth() && y >= 0 && y < getHeight();
+    private SearchScratch scratch() {
+        if (this._scratch == null) {
+            this._scratch = new SearchScratch();
+        }
+        return this._scratch;
     }
 
-    private void addFillNeighbors(Queue<Pixel2D> queue, int x, int y, int old_v) {
-        int[] dx = {0, 0, -1, 1};
-        int[] dy = {1, -1, 0, 0};
+    /**
+     * Set len cells (all holding old_v) of the column starting at base to new_v,
+     * from y0 upwards (wrapping).
+     */
+    private void fillRun(int base, int y0, int len, int old_v, int new_v) {
+        int first = Math.min(len, this._h - y0);
+        runChanged(base + y0, base + y0 + first, old_v, new_v);
+        if (first < len) {
+            runChanged(base, base + len - first, old_v, new_v);
+        }
+    }
 
-        for (int i = 0; i < 4; i++) {
-            int nx = x + dx[i];
-            int ny = y + dy[i];
+    /**
+     * Push one seed for every run of old_v in the column at base, within the
+     * len cells from y0 upwards (wrapping).
+     */
+    private void seedRuns(IntRingQueue seeds, int base, int y0, int len, int old_v) {
+        boolean inRun = false;
+        int y = y0;
+        for (int k = 0; k < len; k++) {
+            boolean match = this._data[base + y] == old_v;
+            if (match && !inRun) seeds.add(base + y);
+            inRun = match;
+            if (++y == this._h) y = 0;
+        }
+    }
+
+    /**
+     * Core BFS from src until dst is discovered, avoiding obsColor.
+     * Parent links are left in s (s.parent walks from dst back to src).
+     * @return true iff dst was reached
+     */
+    private boolean bfs(SearchScratch s, int src, int dst, long[] pass) {
+        s.begin(size());
+        IntRingQueue queue = s.queue();
+        queue.add(src);
+        s.mark(src, src); // Mark start as visited by itself
+        int[] nt = neighborTable();
 
-            if (this._cyclic) {
-                nx = ((nx % getWidth()) + getWidth()) % getWidth();
-                ny = ((ny % getHeight()) + getHeight()) % getHeight();
+        while (!queue.isEmpty()) {
+            int curr = queue.poll();
+            int x = 0;
+            int y = 0;
+            if (nt == null) {
+                x = curr / this._h;
+                y = curr - x * this._h;
             }
 
-            if (isValidCoordinate(nx, ny) && getPixel(nx, ny) == old_v) {
-                queue.add(new Index2D(nx, ny));
+            // Standard 4-direction movement (cyclic wrap handled by the table / neighbor)
+            for (int dir = 0; dir < 4; dir++) {
+                int next = nt != null ? nt[(curr << 2) + dir] : neighbor(curr, x, y, dir);
+                if (next >= 0 && !s.isMarked(next) && bit(pass, next)) {
+                    s.mark(next, curr);
+                    if (next == dst) {
+                        return true;
+                    }
+                    queue.add(next);
+                }
             }
         }
+        return false;
     }
 
-    private void addPathNeighbors(Queue<Pixel2D> queue, boolean[][] visited,
-                                  int x, int y, int obsColor, int[][] parent) {
-        int[] dx = {0, 0, -1, 1};
-        int[] dy = {1, -1, 0, 0};
+    /**
+     * A* from src to dst, avoiding obsColor. Parent links are left in s.
+     * The open list is a bucket queue keyed by f = g + h: with unit steps and
+     * a consistent heuristic f grows by 0, 1 or 2 per step, so 3 buckets suffice.
+     * Entries are never decreased in place; outdated ones are skipped on poll.
+     * @return true iff dst was reached
+     */
+    private boolean aStar(SearchScratch s, int src, int dst, long[] pass) {
+        if (this._openList == null) {
+            this._openList = new IntBucketQueue(3);
+        }
+        IntBucketQueue open = this._openList;
+        open.clear();
+        s.begin(size());
+
+        int tx = dst / this._h;
+        int ty = dst - tx * this._h;
+        s.mark(src, src, 0);
+        open.add(heuristic(src, tx, ty), src);
+        int[] nt = neighborTable();
+
+        while (!open.isEmpty()) {
+            int f = open.minKey();
+            int curr = open.poll();
+            int g = s.distance(curr);
+            if (g + heuristic(curr, tx, ty) != f) continue; // outdated entry
+
+            int x = 0;
+            int y = 0;
+            if (nt == null) {
+                x = curr / this._h;
+                y = curr - x * this._h;
+            }
+            for (int dir = 0; dir < 4; dir++) {
+                int next = nt != null ? nt[(curr << 2) + dir] : neighbor(curr, x, y, dir);
+                if (next < 0 || !bit(pass, next)) continue;
+                if (s.isMarked(next) && s.distance(next) <= g + 1) continue;
+                s.mark(next, curr, g + 1);
+                // With unit steps the goal's g is final when it is first generated
+                if (next == dst) return true;
+                open.add(g + 1 + heuristic(next, tx, ty), next);
+            }
+        }
+        return false;
+    }
 
-        for (int i = 0; i < 4; i++) {
-            int nx = x + dx[i];
-            int ny = y + dy[i];
+    /**
+     * Manhattan distance from idx to (tx,ty); on a cyclic map each axis
+     * takes the shorter way around.
+     */
+    private int heuristic(int idx, int tx, int ty) {
+        int x = idx / this._h;
+        int dx = Math.abs(x - tx);
+        int dy = Math.abs(idx - x * this._h - ty);
+        if (this._cyclic) {
+            dx = Math.min(dx, this._w - dx);
+            dy = Math.min(dy, this._h - dy);
+        }
+        return dx + dy;
+    }
 
-            if (this._cyclic) {
-                nx = ((nx % getWidth()) + getWidth()) % getWidth();
-                ny = ((ny % getHeight()) + getHeight()) % getHeight();
+    /**
+     * Jump Point Search on the 4-connected grid.
+     * Canonical paths take horizontal steps as early as possible: a path may
+     * turn from vertical to horizontal only when "forced", i.e. the cell
+     * diagonally behind is blocked. So a cell reached horizontally continues
+     * horizontally or turns up/down, a cell reached vertically continues
+     * vertically plus its forced horizontal neighbors. Jumps scan in a straight
+     * line (wrapping on cyclic maps) and stop at the goal, at a forced cell, or,
+     * for horizontal jumps, at a cell from which a vertical jump succeeds.
+     * A* then runs over jump points only; the result is expanded back to every
+     * intermediate pixel so it has the same shape as the BFS path.
+     *
+     * Per cell _jumpDirs keeps: bits 0-3 the directions it was reached in with
+     * its best g, bits 4-7 the directions already expanded, bits 8-9 the
+     * direction of the jump recorded in its parent link.
+     */
+    private Pixel2D[] jumpPointPath(Pixel2D p1, int src, int dst, long[] pass) {
+        int span = 2 * Math.max(this._w, this._h) + 1;
+        if (this._jumpOpenList == null || this._jumpOpenList.span() != span) {
+            this._jumpOpenList = new IntBucketQueue(span);
+        }
+        if (this._jumpDirs == null || this._jumpDirs.length < size()) {
+            this._jumpDirs = new int[size()];
+        }
+        IntBucketQueue open = this._jumpOpenList;
+        int[] dirs = this._jumpDirs;
+        SearchScratch s = scratch();
+        open.clear();
+        s.begin(size());
+
+        int tx = dst / this._h;
+        int ty = dst - tx * this._h;
+        // The start behaves as if reached both left and right: all 4 directions
+        s.mark(src, src, 0);
+        dirs[src] = 0b0011;
+        open.add(heuristic(src, tx, ty), src);
+
+        boolean found = false;
+        while (!open.isEmpty()) {
+            int f = open.minKey();
+            int curr = open.poll();
+            int g = s.distance(curr);
+            if (g + heuristic(curr, tx, ty) != f) continue; // outdated entry
+            int pending = dirs[curr] & ~(dirs[curr] >> 4) & 0xF;
+            if (pending == 0) continue;
+            dirs[curr] |= pending << 4;
+            if (curr == dst) {
+                found = true;
+                break;
             }
 
-            if (isValidCoordinate(nx, ny)) {
-                if (!visited[nx][ny] && getPixel(nx, ny) != obsColor) {
-                    visited[nx][ny] = true;
-                    parent[nx][ny] = x * getHeight() + y;
-                    queue.add(new Index2D(nx, ny));
+            int succ = 0;
+            for (int d = 0; d < 4; d++) {
+                if ((pending & (1 << d)) != 0) succ |= jumpSuccessors(curr, d, pass);
+            }
+            for (int d = 0; d < 4; d++) {
+                if ((succ & (1 << d)) == 0) continue;
+                int j = (d < 2) ? jumpHorizontal(curr, d, dst, pass) : jumpVertical(curr, d, dst, pass);
+                if (j < 0) continue;
+                int ng = g + jumpLength(curr, j, d);
+                if (!s.isMarked(j) || ng < s.distance(j)) {
+                    s.mark(j, curr, ng);
+                    dirs[j] = (1 << d) | (d << 8);
+                } else if (ng == s.distance(j) && (dirs[j] & (1 << d)) == 0) {
+                    dirs[j] |= 1 << d;
+                } else {
+                    continue;
                 }
+                open.add(ng + heuristic(j, tx, ty), j);
+            }
+        }
+        if (!found) return null;
+
+        // --- PATH RECONSTRUCTION: walk each jump back to its parent jump point ---
+        Pixel2D[] path = new Pixel2D[s.distance(dst) + 1];
+        int c = dst;
+        int i = path.length - 1;
+        while (c != src) {
+            int parent = s.parent(c);
+            int back = (dirs[c] >> 8 & 3) ^ 1; // opposite direction
+            while (c != parent) {
+                path[i--] = new Index2D(xOf(c), yOf(c));
+                int x = c / this._h;
+                c = neighbor(c, x, c - x * this._h, back);
+            }
+        }
+        path[0] = p1;
+        return path;
+    }
+
+    /**
+     * Directions (bit mask) to jump in from a cell reached moving in direction d.
+     */
+    private int jumpSuccessors(int curr, int d, long[] pass) {
+        if (d < 2) {
+            return (1 << d) | 0b1100; // continue horizontally, or turn up/down
+        }
+        int succ = 1 << d;
+        int x = curr / this._h;
+        int y = curr - x * this._h;
+        int prev = neighbor(curr, x, y, d ^ 1);
+        int px = prev / this._h;
+        for (int hd = 0; hd < 2; hd++) {
+            if (isForced(curr, x, y, prev, px, prev - px * this._h, hd, pass)) succ |= 1 << hd;
+        }
+        return succ;
+    }
+
+    /**
+     * A horizontal neighbor (direction hd) of c, reached vertically from prev,
+     * is forced iff it is open while the same neighbor of prev is not.
+     */
+    private boolean isForced(int c, int x, int y, int prev, int px, int py, int hd, long[] pass) {
+        int side = neighbor(c, x, y, hd);
+        if (side < 0 || !bit(pass, side)) return false;
+        int back = neighbor(prev, px, py, hd);
+        return back < 0 || !bit(pass, back);
+    }
+
+    /**
+     * Scan vertically (d = 2 up, 3 down) from 'from'.
+     * @return the first jump point (goal or cell with a forced neighbor), or -1
+     */
+    private int jumpVertical(int from, int d, int dst, long[] pass) {
+        int x = from / this._h;
+        int base = x * this._h;
+        int prev = from;
+        while (true) {
+            int c = neighbor(prev, x, prev - base, d);
+            if (c < 0 || c == from || !bit(pass, c)) return -1;
+            if (c == dst) return c;
+            for (int hd = 0; hd < 2; hd++) {
+                if (isForced(c, x, c - base, prev, x, prev - base, hd, pass)) return c;
             }
+            prev = c;
+        }
+    }
+
+    /**
+     * Scan horizontally (d = 0 right, 1 left) from 'from'.
+     * @return the first jump point (goal or cell with a successful vertical jump), or -1
+     */
+    private int jumpHorizontal(int from, int d, int dst, long[] pass) {
+        int y = from % this._h;
+        int c = from;
+        while (true) {
+            c = neighbor(c, c / this._h, y, d);
+            if (c < 0 || c == from || !bit(pass, c)) return -1;
+            if (c == dst) return c;
+            if (jumpVertical(c, 2, dst, pass) >= 0 || jumpVertical(c, 3, dst, pass) >= 0) return c;
+        }
+    }
+
+    /**
+     * Number of steps of a straight jump from a to b in direction d (wrapping if cyclic).
+     */
+    private int jumpLength(int a, int b, int d) {
+        if (d < 2) {
+            int dx = b / this._h - a / this._h;
+            return ((d == 0 ? dx : -dx) + this._w) % this._w;
         }
+        int dy = b % this._h - a % this._h;
+        return ((d == 2 ? dy : -dy) + this._h) % this._h;
     }
 
-    private Pixel2D[] reconstructPath(Pixel2D p1, Pixel2D p2, int[][] parent) {
-        ArrayList<Pixel2D> path = new ArrayList<>();
+    /**
+     * Bidirectional BFS: grows a frontier from src and one from dst, always
+     * expanding a whole level of the smaller one. Once a level produces a
+     * meeting edge (u reached from src, v reached from dst) the best such edge
+     * gives a shortest path. Wrap-around needs no special care since both
+     * searches use the same (cyclic aware) neighbor function.
+     */
+    private Pixel2D[] bidirectionalPath(Pixel2D p1, int src, int dst, long[] pass) {
+        SearchScratch fw = scratch();
+        if (this._backScratch == null) {
+            this._backScratch = new SearchScratch();
+        }
+        SearchScratch bw = this._backScratch;
+        fw.begin(size());
+        bw.begin(size());
+        fw.mark(src, src, 0);
+        bw.mark(dst, dst, 0);
+        fw.queue().add(src);
+        bw.queue().add(dst);
+
+        int bestLen = Integer.MAX_VALUE, bestU = -1, bestV = -1;
+        int[] nt = neighborTable();
+        while (!fw.queue().isEmpty() && !bw.queue().isEmpty()) {
+            boolean forward = fw.queue().size() <= bw.queue().size();
+            SearchScratch own = forward ? fw : bw;
+            SearchScratch other = forward ? bw : fw;
+            IntRingQueue queue = own.queue();
+
+            for (int level = queue.size(); level > 0; level--) {
+                int curr = queue.poll();
+                int x = 0;
+                int y = 0;
+                if (nt == null) {
+                    x = curr / this._h;
+                    y = curr - x * this._h;
+                }
+                int nextDist = own.distance(curr) + 1;
+
+                for (int dir = 0; dir < 4; dir++) {
+                    int next = nt != null ? nt[(curr << 2) + dir] : neighbor(curr, x, y, dir);
+                    if (next < 0 || own.isMarked(next) || !bit(pass, next)) continue;
+                    if (other.isMarked(next)) {
+                        int len = nextDist + other.distance(next);
+                        if (len < bestLen) {
+                            bestLen = len;
+                            bestU = forward ? curr : next;
+                            bestV = forward ? next : curr;
+                        }
+                    } else {
+                        own.mark(next, curr, nextDist);
+                        queue.add(next);
+                    }
+                }
+            }
+            if (bestU >= 0) break;
+        }
+        if (bestU < 0) return null;
 
-        int x = p2.getX();
-        int y = p2.getY();
+        // --- PATH RECONSTRUCTION: src..bestU from fw, bestV..dst from bw ---
+        Pixel2D[] path = new Pixel2D[bestLen + 1];
+        int i = fw.distance(bestU);
+        for (int c = bestU; i > 0; c = fw.parent(c), i--) {
+            path[i] = new Index2D(xOf(c), yOf(c));
+        }
+        path[0] = p1;
+        i = fw.distance(bestU) + 1;
+        for (int c = bestV; ; c = bw.parent(c), i++) {
+            path[i] = new Index2D(xOf(c), yOf(c));
+            if (c == dst) break;
+        }
+        return path;
+    }
 
-        while (!(x == p1.getX() && y == p1.getY())) {
-            path.add(0, new Index2D(x, y));
+    private boolean isValidCoordinate(int x, int y) {
+        return x >= 0 && x < this._w && y >= 0 && y < this._h;
+    }
 
-            int parentIdx = parent[x][y];
-            if (parentIdx == -1) break;
+    /**
+     * Neighbor table of the current topology: entry 4*idx+dir is
+     * neighbor(idx, x, y, dir), so the search loops need no division or
+     * wrap test per step. Built once per size and cyclic flag, shared by all
+     * searches; null for maps over NEIGHBOR_TABLE_MAX_CELLS cells, where
+     * reading the 16 bytes per cell from memory is slower than neighbor().
+     */
+    int[] neighborTable() {
+        int n = size();
+        if (n > NEIGHBOR_TABLE_MAX_CELLS) return null;
+        int topology = this._cyclic ? 1 : 0;
+        int[] table = this._neighborTables[topology];
+        if (table == null) {
+            table = new int[4 * n];
+            for (int x = 0, idx = 0; x < this._w; x++) {
+                for (int y = 0; y < this._h; y++, idx++) {
+                    for (int dir = 0; dir < 4; dir++) {
+                        table[(idx << 2) + dir] = neighbor(idx, x, y, dir);
+                    }
+                }
+            }
+            this._neighborTables[topology] = table;
+        }
+        return table;
+    }
 
-            x = parentIdx / getHeight();
-            y = parentIdx % getHeight();
+    /**
+     * Forget the neighbor tables unless the new size is the current one.
+     */
+    private void dropNeighborTables(int w, int h) {
+        if (w != this._w || h != this._h) {
+            this._neighborTables[0] = null;
+            this._neighborTables[1] = null;
         }
+    }
 
-        path.add(0, p1);
-        return path.toArray(new Pixel2D[0]);
+    /**
+     * Flat index of the neighbor of idx=(x,y) in direction dir
+     * (0=right, 1=left, 2=up, 3=down), honoring the cyclic flag.
+     * @return the neighbor index, or -1 if it is outside a non-cyclic map
+     */
+    int neighbor(int idx, int x, int y, int dir) {
+        switch (dir) {
+            case 0:
+                if (x + 1 < this._w) return idx + this._h;
+                return this._cyclic ? idx - (this._w - 1) * this._h : -1;
+            case 1:
+                if (x > 0) return idx - this._h;
+                return this._cyclic ? idx + (this._w - 1) * this._h : -1;
+            case 2:
+                if (y + 1 < this._h) return idx + 1;
+                return this._cyclic ? idx - (this._h - 1) : -1;
+            default:
+                if (y > 0) return idx - 1;
+                return this._cyclic ? idx + (this._h - 1) : -1;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,523 @@
+package assignments.Ex3;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit test class for MyMap2D
+ * Tests storage, index access and the map algorithms
+ */
+public class MyMap2DTest {
+
+    private static final int WALL = 1;
+
+    private int[][] maze;
+    private MyMap2D map;
+
+    @BeforeEach
+    public void setUp() {
+        maze = new int[][]{
+            {0, 0, 0, 0, 0},
+            {0, 1, 1, 1, 0},
+            {0, 0, 0, 1, 0},
+            {1, 1, 0, 1, 0},
+            {0, 0, 0, 0, 0}
+        };
+        map = new MyMap2D(maze);
+    }
+
+    // ========== Storage Tests ==========
+
+    @Test
+    public void testInitDeepCopy() {
+        maze[0][0] = 7;
+        assertEquals(0, map.getPixel(0, 0), "init(int[][]) should deep copy the array");
+
+        int[][] copy = map.getMap();
+        copy[1][1] = 9;
+        assertEquals(WALL, map.getPixel(1, 1), "getMap() should return a deep copy");
+    }
+
+    @Test
+    public void testGetMapRoundTrip() {
+        assertArrayEquals(maze, map.getMap(), "getMap() should return the same values");
+    }
+
+    @Test
+    public void testInitWithValue() {
+        MyMap2D m = new MyMap2D(3, 4, 6);
+        assertEquals(3, m.getWidth(), "Width should be 3");
+        assertEquals(4, m.getHeight(), "Height should be 4");
+        for (int x = 0; x < 3; x++) {
+            for (int y = 0; y < 4; y++) {
+                assertEquals(6, m.getPixel(x, y), "All cells should hold the init value");
+            }
+        }
+    }
+
+    @Test
+    public void testInitInvalid() {
+        assertThrows(RuntimeException.class, () -> new MyMap2D(0, 5, 0), "Zero width should throw");
+        assertThrows(RuntimeException.class, () -> new MyMap2D((int[][]) null), "Null array should throw");
+        assertThrows(RuntimeException.class, () -> new MyMap2D(new int[][]{{1, 2}, {3}}), "Ragged array should throw");
+    }
+
+    @Test
+    public void testOutOfBounds() {
+        assertThrows(RuntimeException.class, () -> map.getPixel(5, 0), "x == width should throw");
+        assertThrows(RuntimeException.class, () -> map.setPixel(0, -1, 3), "negative y should throw");
+    }
+
+    // ========== Index Access Tests ==========
+
+    @Test
+    public void testIndexRoundTrip() {
+        for (int x = 0; x < map.getWidth(); x++) {
+            for (int y = 0; y < map.getHeight(); y++) {
+                int idx = map.indexOf(x, y);
+                assertEquals(x, map.xOf(idx), "xOf(indexOf(x,y)) should be x");
+                assertEquals(y, map.yOf(idx), "yOf(indexOf(x,y)) should be y");
+                assertEquals(map.getPixel(x, y), map.getPixelAt(idx), "getPixelAt should match getPixel");
+            }
+        }
+        assertEquals(25, map.size(), "size() should be width*height");
+    }
+
+    @Test
+    public void testSetPixelAt() {
+        map.setPixelAt(map.indexOf(2, 3), 8);
+        assertEquals(8, map.getPixel(2, 3), "setPixelAt should be visible through getPixel");
+    }
+
+    // ========== Bulk Operation Tests ==========
+
+    @Test
+    public void testCountAndFindAll() {
+        assertEquals(7, map.countColor(WALL), "Walls in the maze");
+        assertEquals(18, map.countColor(0), "Open cells in the maze");
+        int[] walls = map.findAll(WALL);
+        assertEquals(7, walls.length, "One index per wall");
+        for (int i = 0; i < walls.length; i++) {
+            assertEquals(WALL, map.getPixelAt(walls[i]), "Every index is a wall");
+            if (i > 0) assertTrue(walls[i] > walls[i - 1], "Indexes are ascending");
+        }
+        assertEquals(0, map.findAll(9).length, "No cells of a missing color");
+    }
+
+    @Test
+    public void testReplaceAll() {
+        Pixel2D a = new Index2D(0, 0);
+        Pixel2D b = new Index2D(4, 0);
+        assertEquals(9, map.shortestPath(a, b, WALL).length, "Path around the walls");
+        long v = map.getVersion();
+        assertEquals(7, map.replaceAll(WALL, 3), "Every wall is replaced");
+        assertEquals(v + 1, map.getVersion(), "replaceAll bumps the version once");
+        assertEquals(7, map.changesSince(v).getCells().length, "Every replaced cell is logged");
+        assertEquals(0, map.countColor(WALL), "No walls left");
+        assertEquals(5, map.shortestPath(a, b, WALL).length, "Searches see the removed walls");
+        assertEquals(0, map.replaceAll(WALL, 3), "Nothing left to replace");
+        assertEquals(v + 1, map.getVersion(), "A replaceAll without changes keeps the version");
+    }
+
+    // ========== Algorithm Tests ==========
+
+    @Test
+    public void testShortestPath() {
+        Pixel2D[] path = map.shortestPath(new Index2D(0, 0), new Index2D(4, 4), WALL);
+        assertNotNull(path, "A path should exist");
+        assertEquals(9, path.length, "Shortest path should have 9 pixels");
+        assertEquals(new Index2D(0, 0), path[0], "Path should start at p1");
+        assertEquals(new Index2D(4, 4), path[path.length - 1], "Path should end at p2");
+    }
+
+    @Test
+    public void testShortestPathBlocked() {
+        assertNull(map.shortestPath(new Index2D(0, 0), new Index2D(1, 1), WALL), "Target on a wall has no path");
+    }
+
+    @Test
+    public void testShortestPathCyclic() {
+        map.setCyclic(true);
+        Pixel2D[] path = map.shortestPath(new Index2D(0, 0), new Index2D(4, 4), WALL);
+        assertNotNull(path, "A path should exist");
+        assertEquals(3, path.length, "Cyclic path should wrap around both edges");
+    }
+
+    @Test
+    public void testAllDistance() {
+        Map2D dist = map.allDistance(new Index2D(0, 0), WALL);
+        assertEquals(0, dist.getPixel(0, 0), "Start distance should be 0");
+        assertEquals(8, dist.getPixel(4, 4), "Distance to (4,4) should be 8");
+        assertEquals(-1, dist.getPixel(1, 1), "Walls should be -1");
+    }
+
+    @Test
+    public void testSearchAfterReshape() {
+        assertEquals(9, map.shortestPath(new Index2D(0, 0), new Index2D(4, 4), WALL).length, "Search on the 5x5 map");
+        map.init(2, 9, 0);
+        assertEquals(10, map.shortestPath(new Index2D(0, 0), new Index2D(1, 8), WALL).length, "Search after init to 2x9");
+        map.setCyclic(true);
+        assertEquals(3, map.shortestPath(new Index2D(0, 0), new Index2D(1, 8), WALL).length, "Cyclic search on the new shape");
+        map.setCyclic(false);
+        assertEquals(9, map.allDistance(new Index2D(0, 0), WALL).getPixel(1, 8), "Back to the non-cyclic topology");
+    }
+
+    @Test
+    public void testAllDistanceMultiSource() {
+        Pixel2D[] sources = {new Index2D(0, 0), new Index2D(4, 4)};
+        Map2D owners = new MyMap2D(5, 5, 0);
+        Map2D dist = map.allDistance(sources, WALL, owners);
+        Map2D a = map.allDistance(sources[0], WALL);
+        Map2D b = map.allDistance(sources[1], WALL);
+        for (int x = 0; x < 5; x++) {
+            for (int y = 0; y < 5; y++) {
+                int da = a.getPixel(x, y);
+                int db = b.getPixel(x, y);
+                int expected = (da < 0 || db < 0) ? Math.max(da, db) : Math.min(da, db);
+                assertEquals(expected, dist.getPixel(x, y), "Distance to the nearest source at " + x + "," + y);
+                int owner = expected < 0 ? -1 : (da >= 0 && da <= db ? 0 : 1);
+                assertEquals(owner, owners.getPixel(x, y), "Owner at " + x + "," + y);
+            }
+        }
+    }
+
+    @Test
+    public void testAllDistanceFromColor() {
+        MyMap2D m = new MyMap2D(6, 1, 0);
+        m.setPixel(0, 0, 3);
+        m.setPixel(5, 0, 3);
+        m.setPixel(2, 0, WALL);
+        Map2D owners = new MyMap2D(6, 1, 0);
+        Map2D dist = m.allDistanceFromColor(3, WALL, owners);
+        assertEquals(1, dist.getPixel(1, 0), "(1,0) is next to the left source");
+        assertEquals(-1, dist.getPixel(2, 0), "The wall is unreachable");
+        assertEquals(2, dist.getPixel(3, 0), "(3,0) is two steps from the right source");
+        assertEquals(m.indexOf(0, 0), owners.getPixel(1, 0), "Owner is the flat index of the source cell");
+        assertEquals(m.indexOf(5, 0), owners.getPixel(3, 0), "Owner is the flat index of the source cell");
+    }
+
+    @Test
+    public void testFill() {
+        int filled = map.fill(new Index2D(0, 0), 5);
+        assertEquals(18, filled, "All non-wall cells are connected");
+        assertEquals(5, map.getPixel(4, 4), "Far corner should be filled");
+        assertEquals(WALL, map.getPixel(1, 1), "Walls should not be filled");
+    }
+
+    @Test
+    public void testFillCyclicWrap() {
+        int[][] corners = {
+            {2, 1, 2},
+            {1, 1, 1},
+            {2, 1, 2}
+        };
+        assertEquals(1, new MyMap2D(corners).fill(new Index2D(0, 0), 5), "Non-cyclic corner is isolated");
+        MyMap2D m = new MyMap2D(corners);
+        m.setCyclic(true);
+        assertEquals(4, m.fill(new Index2D(0, 0), 7), "Cyclic fill should reach all four corners");
+        assertEquals(7, m.getPixel(2, 2), "Opposite corner should be filled through the wrap");
+    }
+
+    @Test
+    public void testFillSameColor() {
+        assertEquals(0, map.fill(new Index2D(0, 0), 0), "Filling with the same color changes nothing");
+    }
+
+    @Test
+    public void testSearchSeesMutations() {
+        Pixel2D a = new Index2D(0, 0);
+        Pixel2D b = new Index2D(4, 4);
+        assertEquals(9, map.shortestPath(a, b, WALL).length, "Initial path length");
+
+        // Cut both routes: the (0,y) column and the (x,0) row
+        map.setPixel(0, 2, WALL);
+        map.setPixelAt(map.indexOf(2, 0), WALL);
+        assertNull(map.shortestPath(a, b, WALL), "setPixel walls should be seen by the next search");
+        assertEquals(-1, map.allDistance(a, WALL).getPixel(4, 4), "allDistance should see the new walls");
+
+        map.setPixel(0, 2, 0);
+        assertEquals(9, map.shortestPath(a, b, WALL).length, "Removing a wall should reopen the path");
+
+        map.fill(new Index2D(1, 1), 0);
+        assertEquals(9, map.shortestPath(a, b, WALL, PathStrategy.A_STAR).length, "Filled walls become passable");
+    }
+
+    // ========== Versioning Tests ==========
+
+    @Test
+    public void testVersionBumps() {
+        long v = map.getVersion();
+        map.setPixel(0, 0, 0);
+        assertEquals(v, map.getVersion(), "Writing the same value is not a change");
+        map.setPixel(0, 0, 4);
+        assertEquals(v + 1, map.getVersion(), "setPixel bumps the version");
+        map.fill(new Index2D(0, 1), 6);
+        assertEquals(v + 2, map.getVersion(), "A fill bumps the version once");
+        map.setCyclic(true);
+        assertEquals(v + 3, map.getVersion(), "setCyclic bumps the version");
+    }
+
+    @Test
+    public void testChangesSince() {
+        long v = map.getVersion();
+        assertTrue(map.changesSince(v).isEmpty(), "Nothing changed yet");
+
+        map.setPixel(2, 3, 7);
+        map.setPixel(4, 0, 7);
+        map.setPixel(2, 3, 8);
+        MapChanges changes = map.changesSince(v);
+        assertFalse(changes.isFull(), "Two setPixel calls are logged");
+        assertArrayEquals(new int[]{map.indexOf(2, 3), map.indexOf(4, 0)}, changes.getCells(), "Distinct changed cells");
+        assertEquals(new Index2D(2, 0), changes.getMin(), "Dirty rectangle lower corner");
+        assertEquals(new Index2D(4, 3), changes.getMax(), "Dirty rectangle upper corner");
+
+        long afterSets = map.getVersion();
+        int filled = map.fill(new Index2D(0, 0), 5);
+        assertEquals(filled, map.changesSince(afterSets).getCells().length, "A fill logs every filled cell");
+        assertEquals(filled + 2, map.changesSince(v).getCells().length, "Older versions see both");
+    }
+
+    @Test
+    public void testChangesSinceFull() {
+        long v = map.getVersion();
+        map.setCyclic(true);
+        assertTrue(map.changesSince(v).isFull(), "setCyclic changes everything");
+
+        MyMap2D big = new MyMap2D(100, 100, 0);
+        long start = big.getVersion();
+        for (int i = 0; i < 3000; i++) {
+            big.setPixelAt(i * 3, 1);
+        }
+        assertTrue(big.changesSince(start).isFull(), "An overflowed log reports a full change");
+        long recent = big.getVersion() - 10;
+        assertEquals(10, big.changesSince(recent).getCells().length, "Recent changes are still known");
+        assertThrows(RuntimeException.class, () -> big.changesSince(big.getVersion() + 1), "Future versions are rejected");
+    }
+
+    // ========== Component Index Tests ==========
+
+    @Test
+    public void testIsConnected() {
+        MyMap2D walled = new MyMap2D(new int[][]{
+            {0, 1, 0},
+            {0, 1, 0},
+            {0, 1, 0}
+        });
+        assertFalse(walled.isConnected(new Index2D(0, 0), new Index2D(0, 2), WALL), "The wall splits the map");
+        assertTrue(walled.isConnected(new Index2D(0, 0), new Index2D(2, 0), WALL), "Same side of the wall");
+        assertEquals(3, walled.componentSize(new Index2D(1, 0), WALL), "Each side has 3 cells");
+        assertEquals(0, walled.componentSize(new Index2D(0, 1), WALL), "Walls have no component");
+        assertFalse(walled.isConnected(new Index2D(0, 0), new Index2D(0, 1), WALL), "Walls are never connected");
+
+        walled.setCyclic(true);
+        assertTrue(walled.isConnected(new Index2D(0, 0), new Index2D(0, 2), WALL), "The wrap joins both sides");
+    }
+
+    @Test
+    public void testComponentsFollowMutations() {
+        MyMap2D walled = new MyMap2D(new int[][]{
+            {0, 1, 0},
+            {0, 1, 0},
+            {0, 1, 0}
+        });
+        Pixel2D a = new Index2D(0, 0);
+        Pixel2D b = new Index2D(2, 2);
+        assertFalse(walled.isConnected(a, b, WALL), "Initially split");
+        walled.setPixel(1, 1, 0);
+        assertTrue(walled.isConnected(a, b, WALL), "Opening a wall cell joins the sides");
+        assertEquals(7, walled.componentSize(a, WALL), "Joined component size");
+        assertEquals(5, walled.shortestPath(a, b, WALL).length, "Search agrees with the index");
+
+        walled.setPixel(1, 1, WALL);
+        assertNull(walled.shortestPath(a, b, WALL), "Closing it again splits the map");
+        assertFalse(walled.isConnected(a, b, WALL), "The index is rebuilt after a split");
+        assertEquals(-1, walled.allDistance(a, WALL).getPixel(b), "allDistance agrees with the index");
+        assertEquals(2, walled.allDistance(a, WALL).getPixel(new Index2D(2, 0)), "Own side is still reached");
+    }
+
+    // ========== Path Strategy Tests ==========
+
+    @Test
+    public void testStrategiesAgreeOnLength() {
+        Pixel2D a = new Index2D(0, 0);
+        Pixel2D b = new Index2D(4, 4);
+        for (boolean cyclic : new boolean[]{false, true}) {
+            map.setCyclic(cyclic);
+            int expected = map.shortestPath(a, b, WALL, PathStrategy.BFS).length;
+            for (PathStrategy st : PathStrategy.values()) {
+                Pixel2D[] path = map.shortestPath(a, b, WALL, st);
+                assertNotNull(path, st + " should find a path");
+                assertEquals(expected, path.length, st + " should return a shortest path");
+                assertEquals(a, path[0], st + " path should start at p1");
+                assertEquals(b, path[path.length - 1], st + " path should end at p2");
+            }
+        }
+    }
+
+    @Test
+    public void testStrategiesUnreachable() {
+        MyMap2D walled = new MyMap2D(new int[][]{
+            {0, 1, 0},
+            {0, 1, 0},
+            {0, 1, 0}
+        });
+        for (PathStrategy st : PathStrategy.values()) {
+            assertNull(walled.shortestPath(new Index2D(0, 0), new Index2D(2, 2), WALL, st),
+                st + " should return null when the wall splits the map");
+        }
+    }
+
+    // ========== A* Tests ==========
+
+    @Test
+    public void testAStarMatchesBfsOnRandomMaps() {
+        Random rnd = new Random(23);
+        for (long seed = 0; seed < 40; seed++) {
+            MyMap2D m = TestMaps.random(3 + rnd.nextInt(25), 3 + rnd.nextInt(25), 0.3, seed);
+            m.setCyclic(seed % 2 == 0);
+            for (int q = 0; q < 15; q++) {
+                assertStrategyMatchesBfs(m, randomPixel(m, rnd), randomPixel(m, rnd), PathStrategy.A_STAR, "seed " + seed);
+            }
+        }
+    }
+
+    @Test
+    public void testAStarCyclicWrapIsShorter() {
+        // The goals are near the opposite edges: only a torus-aware heuristic stays admissible
+        MyMap2D m = new MyMap2D(40, 30, 0);
+        for (int y = 0; y < 29; y++) m.setPixel(20, y, WALL);
+        m.setCyclic(true);
+        Pixel2D[] path = m.shortestPath(new Index2D(2, 3), new Index2D(37, 27), WALL, PathStrategy.A_STAR);
+        assertEquals(12, path.length, "A* should take the way around both edges");
+        assertStrategyMatchesBfs(m, new Index2D(2, 3), new Index2D(37, 27), PathStrategy.A_STAR, "wrap");
+        assertStrategyMatchesBfs(m, new Index2D(18, 15), new Index2D(22, 15), PathStrategy.A_STAR, "around the wall");
+    }
+
+    @Test
+    public void testAStarNoPath() {
+        MyMap2D m = new MyMap2D(12, 8, 0);
+        for (int y = 0; y < 8; y++) m.setPixel(6, y, WALL);
+        assertNull(m.shortestPath(new Index2D(1, 1), new Index2D(10, 6), WALL, PathStrategy.A_STAR),
+            "A wall across the map leaves no path");
+        assertNull(m.shortestPath(new Index2D(1, 1), new Index2D(6, 3), WALL, PathStrategy.A_STAR),
+            "No path to a wall");
+        m.setCyclic(true);
+        assertStrategyMatchesBfs(m, new Index2D(1, 1), new Index2D(10, 6), PathStrategy.A_STAR, "around the edge");
+        for (int y = 0; y < 8; y++) m.setPixel(0, y, WALL);
+        assertNull(m.shortestPath(new Index2D(1, 1), new Index2D(10, 6), WALL, PathStrategy.A_STAR),
+            "Two walls split the torus");
+    }
+
+    // ========== JPS Tests ==========
+
+    @Test
+    public void testJpsMatchesBfsOnRandomMaps() {
+        Random rnd = new Random(17);
+        for (long seed = 0; seed < 40; seed++) {
+            MyMap2D m = TestMaps.random(3 + rnd.nextInt(25), 3 + rnd.nextInt(25), 0.3, seed);
+            m.setCyclic(seed % 2 == 1);
+            for (int q = 0; q < 15; q++) {
+                assertStrategyMatchesBfs(m, randomPixel(m, rnd), randomPixel(m, rnd), PathStrategy.JPS, "seed " + seed);
+            }
+        }
+    }
+
+    @Test
+    public void testJpsCyclicWrap() {
+        MyMap2D open = new MyMap2D(20, 15, 0);
+        open.setCyclic(true);
+        Pixel2D[] path = open.shortestPath(new Index2D(0, 0), new Index2D(19, 14), WALL, PathStrategy.JPS);
+        assertEquals(3, path.length, "JPS should wrap around both edges");
+
+        // A wall across the middle leaves only the way around the edge
+        MyMap2D split = new MyMap2D(30, 10, 0);
+        for (int y = 0; y < 10; y++) split.setPixel(15, y, WALL);
+        split.setCyclic(true);
+        assertStrategyMatchesBfs(split, new Index2D(10, 3), new Index2D(20, 7), PathStrategy.JPS, "split");
+        assertEquals(25, split.shortestPath(new Index2D(10, 3), new Index2D(20, 7), WALL, PathStrategy.JPS).length,
+            "The path goes around the edge");
+    }
+
+    @Test
+    public void testJpsThinMaps() {
+        Random rnd = new Random(3);
+        for (boolean cyclic : new boolean[]{false, true}) {
+            MyMap2D row = new MyMap2D(25, 1, 0);
+            MyMap2D column = new MyMap2D(1, 25, 0);
+            row.setPixel(12, 0, WALL);
+            column.setPixel(0, 12, WALL);
+            row.setCyclic(cyclic);
+            column.setCyclic(cyclic);
+            for (int q = 0; q < 30; q++) {
+                assertStrategyMatchesBfs(row, randomPixel(row, rnd), randomPixel(row, rnd), PathStrategy.JPS, "1-tall");
+                assertStrategyMatchesBfs(column, randomPixel(column, rnd), randomPixel(column, rnd), PathStrategy.JPS, "1-wide");
+            }
+        }
+    }
+
+    @Test
+    public void testJpsSpecialCases() {
+        Pixel2D a = new Index2D(2, 2);
+        Pixel2D[] self = map.shortestPath(a, a, WALL, PathStrategy.JPS);
+        assertArrayEquals(new Pixel2D[]{a}, self, "Path from a point to itself is the point");
+        assertNull(map.shortestPath(new Index2D(0, 0), new Index2D(1, 1), WALL, PathStrategy.JPS), "No path to a wall");
+
+        MyMap2D boxed = new MyMap2D(9, 9, 0);
+        for (int i = 3; i <= 5; i++) {
+            boxed.setPixel(3, i, WALL);
+            boxed.setPixel(5, i, WALL);
+            boxed.setPixel(i, 3, WALL);
+            boxed.setPixel(i, 5, WALL);
+        }
+        for (boolean cyclic : new boolean[]{false, true}) {
+            boxed.setCyclic(cyclic);
+            assertNull(boxed.shortestPath(new Index2D(0, 0), new Index2D(4, 4), WALL, PathStrategy.JPS),
+                "No path into a closed box");
+        }
+    }
+
+    @Test
+    public void testDefaultStrategy() {
+        assertEquals(PathStrategy.BFS, map.getPathStrategy(), "Default strategy should be BFS");
+        map.setPathStrategy(PathStrategy.BIDIRECTIONAL);
+        assertEquals(9, map.shortestPath(new Index2D(0, 0), new Index2D(4, 4), WALL).length,
+            "shortestPath should use the configured strategy");
+        assertThrows(RuntimeException.class, () -> map.setPathStrategy(null), "Null strategy should throw");
+    }
+
+    // ========== Helpers ==========
+
+    private static Pixel2D randomPixel(MyMap2D m, Random rnd) {
+        return new Index2D(rnd.nextInt(m.getWidth()), rnd.nextInt(m.getHeight()));
+    }
+
+    /**
+     * The strategy finds a path exactly when BFS does; the path has the BFS
+     * length, runs from a to b through passable neighbors (wrapping on a cyclic map).
+     */
+    private static void assertStrategyMatchesBfs(MyMap2D m, Pixel2D a, Pixel2D b, PathStrategy st, String msg) {
+        msg = msg + " " + st + " " + a + "->" + b;
+        Pixel2D[] expected = m.shortestPath(a, b, WALL, PathStrategy.BFS);
+        Pixel2D[] path = m.shortestPath(a, b, WALL, st);
+        if (expected == null) {
+            assertNull(path, msg + ": no path");
+            return;
+        }
+        assertNotNull(path, msg + ": a path exists");
+        assertEquals(expected.length, path.length, msg + ": shortest length");
+        assertEquals(a, path[0], msg + ": starts at p1");
+        assertEquals(b, path[path.length - 1], msg + ": ends at p2");
+        for (int i = 1; i < path.length; i++) {
+            int dx = Math.abs(path[i].getX() - path[i - 1].getX());
+            int dy = Math.abs(path[i].getY() - path[i - 1].getY());
+            if (m.isCyclic()) {
+                dx = Math.min(dx, m.getWidth() - dx);
+                dy = Math.min(dy, m.getHeight() - dy);
+            }
+            assertEquals(1, dx + dy, msg + ": step " + i + " is to a neighbor");
+            assertNotEquals(WALL, m.getPixel(path[i]), msg + ": no walls on the path");
+        }
+    }
+}
@@ -0,0 +1,403 @@
+package assignments.Ex3;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+/**
+ * OffHeapMap2D - a Map2D whose cells live in native memory (java.lang.foreign,
+ * preview in JDK 21).
+ *
+ * The cells are one int MemorySegment in column-major order like MyMap2D
+ * (cell (x,y) at x*height+y), with long indices so maps may exceed 2^31 cells.
+ * The memory belongs to an Arena owned by the map: close() (or init, which
+ * replaces it) frees it right away, and the GC never scans or copies it.
+ * A confined map may only be used by the thread that created it; a shared map
+ * may be used by any thread (with external synchronization for writes).
+ *
+ * The BFS scratch (queue, visited/parent marks) also lives off-heap, in a
+ * confined arena that is closed when the search returns. allDistance returns
+ * a new OffHeapMap2D of the same kind, which the caller has to close.
+ */
+public class OffHeapMap2D implements Map2D, AutoCloseable {
+
+    private static final ValueLayout.OfInt CELL = ValueLayout.JAVA_INT;
+
+    private final boolean _shared;
+    private Arena _arena;
+    private MemorySegment _cells;
+    private int _w;
+    private int _h;
+    private long _size;
+    private boolean _cyclic;
+
+    // ==================== CONSTRUCTORS ====================
+
+    public OffHeapMap2D(int w, int h, int v) {
+        this(w, h, v, false);
+    }
+
+    /**
+     * @param shared true to allocate in a shared arena usable from any thread
+     */
+    public OffHeapMap2D(int w, int h, int v, boolean shared) {
+        this._shared = shared;
+        init(w, h, v);
+    }
+
+    public OffHeapMap2D(int[][] arr) {
+        this._shared = false;
+        init(arr);
+    }
+
+    // ==================== INIT METHODS ====================
+
+    /**
+     * Allocate a new w*h map filled with v; the memory of the previous map is freed.
+     */
+    @Override
+    public void init(int w, int h, int v) {
+        if (w <= 0 || h <= 0) {
+            throw new RuntimeException("Width and height must be positive");
+        }
+        Arena arena = this._shared ? Arena.ofShared() : Arena.ofConfined();
+        MemorySegment cells;
+        try {
+            cells = arena.allocate(CELL.byteSize() * w * h, CELL.byteAlignment());
+        } catch (RuntimeException | OutOfMemoryError e) {
+            arena.close();
+            throw new RuntimeException("Cannot allocate a " + w + "x" + h + " map off-heap", e);
+        }
+        if (v != 0) {
+            // Seed one cell, then keep doubling the filled prefix
+            long n = (long) w * h;
+            cells.setAtIndex(CELL, 0, v);
+            for (long filled = 1; filled < n; ) {
+                long c = Math.min(filled, n - filled);
+                MemorySegment.copy(cells, 0, cells, filled * CELL.byteSize(), c * CELL.byteSize());
+                filled += c;
+            }
+        }
+        close();
+        this._arena = arena;
+        this._cells = cells;
+        this._w = w;
+        this._h = h;
+        this._size = (long) w * h;
+        this._cyclic = false;
+    }
+
+    @Override
+    public void init(int[][] arr) {
+        if (arr == null || arr.length == 0) {
+            throw new RuntimeException("Array is null or empty");
+        }
+        int height = arr[0] == null ? 0 : arr[0].length;
+        for (int i = 0; i < arr.length; i++) {
+            if (arr[i] == null || arr[i].length != height) {
+                throw new RuntimeException("Not a valid rectangular 2D array");
+            }
+        }
+        if (height == 0) {
+            throw new RuntimeException("Array is null or empty");
+        }
+        init(arr.length, height, 0);
+        for (int x = 0; x < arr.length; x++) {
+            MemorySegment.copy(arr[x], 0, this._cells, CELL, (long) x * height * CELL.byteSize(), height);
+        }
+    }
+
+    // ==================== LIFECYCLE ====================
+
+    /**
+     * Free the native memory of the map. Later access throws an exception.
+     */
+    @Override
+    public void close() {
+        if (this._arena != null && this._cells.scope().isAlive()) {
+            this._arena.close();
+        }
+    }
+
+    public boolean isOpen() {
+        return this._cells != null && this._cells.scope().isAlive();
+    }
+
+    public boolean isShared() {
+        return this._shared;
+    }
+
+    // ==================== GETTERS ====================
+
+    /**
+     * Dense on-heap copy of the whole map; only usable for maps that fit in an int[][].
+     */
+    @Override
+    public int[][] getMap() {
+        int[][] copy = new int[this._w][this._h];
+        for (int x = 0; x < this._w; x++) {
+            MemorySegment.copy(this._cells, CELL, (long) x * this._h * CELL.byteSize(), copy[x], 0, this._h);
+        }
+        return copy;
+    }
+
+    @Override
+    public int getWidth() {
+        return this._w;
+    }
+
+    @Override
+    public int getHeight() {
+        return this._h;
+    }
+
+    /**
+     * @return the number of cells, width*height
+     */
+    public long size() {
+        return this._size;
+    }
+
+    @Override
+    public int getPixel(int x, int y) {
+        if (!isValidCoordinate(x, y)) {
+            throw new RuntimeException("Coordinate out of bounds: (" + x + "," + y + ")");
+        }
+        return this._cells.getAtIndex(CELL, (long) x * this._h + y);
+    }
+
+    @Override
+    public int getPixel(Pixel2D p) {
+        if (p == null) throw new RuntimeException("Pixel is null");
+        return getPixel(p.getX(), p.getY());
+    }
+
+    // ==================== SETTERS ====================
+
+    @Override
+    public void setPixel(int x, int y, int v) {
+        if (!isValidCoordinate(x, y)) {
+            throw new RuntimeException("Coordinate out of bounds: (" + x + "," + y + ")");
+        }
+        this._cells.setAtIndex(CELL, (long) x * this._h + y, v);
+    }
+
+    @Override
+    public void setPixel(Pixel2D p, int v) {
+        if (p == null) throw new RuntimeException("Pixel is null");
+        setPixel(p.getX(), p.getY(), v);
+    }
+
+    // ==================== PROPERTIES ====================
+
+    @Override
+    public boolean isInside(Pixel2D p) {
+        if (p == null) return false;
+        return isValidCoordinate(p.getX(), p.getY());
+    }
+
+    @Override
+    public boolean isCyclic() {
+        return this._cyclic;
+    }
+
+    @Override
+    public void setCyclic(boolean cy) {
+        this._cyclic = cy;
+    }
+
+    // ==================== ALGORITHMS ====================
+
+    /**
+     * Flood fill; the cells recolored so far serve as the visited set.
+     * @return the number of cells filled (capped at Integer.MAX_VALUE)
+     */
+    @Override
+    public int fill(Pixel2D p, int new_v) {
+        if (!isInside(p)) return 0;
+        long start = index(p);
+        int old_v = this._cells.getAtIndex(CELL, start);
+        if (old_v == new_v) return 0;
+
+        long count = 0;
+        try (Arena scratch = Arena.ofConfined()) {
+            LongQueue queue = new LongQueue(scratch);
+            this._cells.setAtIndex(CELL, start, new_v);
+            queue.add(start);
+            while (!queue.isEmpty()) {
+                long curr = queue.poll();
+                count++;
+                for (int dir = 0; dir < 4; dir++) {
+                    long next = neighbor(curr, dir);
+                    if (next >= 0 && this._cells.getAtIndex(CELL, next) == old_v) {
+                        this._cells.setAtIndex(CELL, next, new_v);
+                        queue.add(next);
+                    }
+                }
+            }
+        }
+        return (int) Math.min(count, Integer.MAX_VALUE);
+    }
+
+    /**
+     * BFS shortest path; the arrival direction of every reached cell is kept in
+     * an off-heap byte per cell.
+     */
+    @Override
+    public Pixel2D[] shortestPath(Pixel2D p1, Pixel2D p2, int obsColor) {
+        if (!isInside(p1) || !isInside(p2)) return null;
+        if (getPixel(p1) == obsColor || getPixel(p2) == obsColor) return null;
+        if (p1.equals(p2)) return new Pixel2D[]{p1};
+
+        long src = index(p1);
+        long dst = index(p2);
+        try (Arena scratch = Arena.ofConfined()) {
+            // 0 = not reached, 1-4 = reached moving in direction 0-3, 5 = start
+            MemorySegment from = scratch.allocate(this._size);
+            LongQueue queue = new LongQueue(scratch);
+            from.set(ValueLayout.JAVA_BYTE, src, (byte) 5);
+            queue.add(src);
+            boolean found = false;
+            while (!queue.isEmpty() && !found) {
+                long curr = queue.poll();
+                for (int dir = 0; dir < 4; dir++) {
+                    long next = neighbor(curr, dir);
+                    if (next < 0 || from.get(ValueLayout.JAVA_BYTE, next) != 0
+                            || this._cells.getAtIndex(CELL, next) == obsColor) continue;
+                    from.set(ValueLayout.JAVA_BYTE, next, (byte) (dir + 1));
+                    if (next == dst) {
+                        found = true;
+                        break;
+                    }
+                    queue.add(next);
+                }
+            }
+            if (!found) return null;
+
+            int len = 1;
+            for (long c = dst; c != src; c = neighbor(c, (from.get(ValueLayout.JAVA_BYTE, c) - 1) ^ 1)) {
+                len++;
+            }
+            Pixel2D[] path = new Pixel2D[len];
+            long c = dst;
+            for (int i = len - 1; i > 0; i--) {
+                path[i] = new Index2D((int) (c / this._h), (int) (c % this._h));
+                c = neighbor(c, (from.get(ValueLayout.JAVA_BYTE, c) - 1) ^ 1);
+            }
+            path[0] = p1;
+            return path;
+        }
+    }
+
+    /**
+     * BFS distances from start (-1 = unreachable). The result is a new
+     * OffHeapMap2D of the same kind; close it when done.
+     */
+    @Override
+    public Map2D allDistance(Pixel2D start, int obsColor) {
+        OffHeapMap2D dist = new OffHeapMap2D(this._w, this._h, -1, this._shared);
+        dist.setCyclic(this._cyclic);
+        if (!isInside(start)) return dist;
+
+        MemorySegment d = dist._cells;
+        long src = index(start);
+        try (Arena scratch = Arena.ofConfined()) {
+            LongQueue queue = new LongQueue(scratch);
+            d.setAtIndex(CELL, src, 0);
+            queue.add(src);
+            while (!queue.isEmpty()) {
+                long curr = queue.poll();
+                int nd = d.getAtIndex(CELL, curr) + 1;
+                for (int dir = 0; dir < 4; dir++) {
+                    long next = neighbor(curr, dir);
+                    if (next < 0 || d.getAtIndex(CELL, next) != -1
+                            || this._cells.getAtIndex(CELL, next) == obsColor) continue;
+                    d.setAtIndex(CELL, next, nd);
+                    queue.add(next);
+                }
+            }
+        }
+        return dist;
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private long index(Pixel2D p) {
+        return (long) p.getX() * this._h + p.getY();
+    }
+
+    /**
+     * @return the cell next to idx in direction dir (0=right, 1=left, 2=up, 3=down),
+     * wrapped on a cyclic map, -1 if it leaves a non-cyclic map
+     */
+    private long neighbor(long idx, int dir) {
+        long x = idx / this._h;
+        long y = idx - x * this._h;
+        switch (dir) {
+            case 0:
+                if (x + 1 < this._w) return idx + this._h;
+                return this._cyclic ? y : -1;
+            case 1:
+                if (x > 0) return idx - this._h;
+                return this._cyclic ? idx + (this._w - 1L) * this._h : -1;
+            case 2:
+                if (y + 1 < this._h) return idx + 1;
+                return this._cyclic ? idx - y : -1;
+            default:
+                if (y > 0) return idx - 1;
+                return this._cyclic ? idx + this._h - 1 : -1;
+        }
+    }
+
+    private boolean isValidCoordinate(int x, int y) {
+        return x >= 0 && x < this._w && y >= 0 && y < this._h;
+    }
+
+    /**
+     * Growable FIFO of cell indices in native memory. A full ring is copied into
+     * a segment twice as large; the old one is freed with the scratch arena.
+     */
+    private static final class LongQueue {
+        private static final ValueLayout.OfLong SLOT = ValueLayout.JAVA_LONG;
+
+        private final Arena _arena;
+        private MemorySegment _buf;
+        private long _mask;
+        private long _head;
+        private long _size;
+
+        LongQueue(Arena arena) {
+            this._arena = arena;
+            this._buf = arena.allocate(SLOT.byteSize() * 1024, SLOT.byteAlignment());
+            this._mask = 1023;
+        }
+
+        boolean isEmpty() {
+            return this._size == 0;
+        }
+
+        void add(long v) {
+            if (this._size > this._mask) grow();
+            this._buf.setAtIndex(SLOT, (this._head + this._size) & this._mask, v);
+            this._size++;
+        }
+
+        long poll() {
+            long v = this._buf.getAtIndex(SLOT, this._head);
+            this._head = (this._head + 1) & this._mask;
+            this._size--;
+            return v;
+        }
+
+        private void grow() {
+            long cap = this._mask + 1;
+            MemorySegment bigger = this._arena.allocate(SLOT.byteSize() * cap * 2, SLOT.byteAlignment());
+            long tail = cap - this._head;
+            MemorySegment.copy(this._buf, this._head * SLOT.byteSize(), bigger, 0, tail * SLOT.byteSize());
+            MemorySegment.copy(this._buf, 0, bigger, tail * SLOT.byteSize(), this._head * SLOT.byteSize());
+            this._buf = bigger;
+            this._mask = cap * 2 - 1;
+            this._head = 0;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package assignments.Ex3;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit test class for OffHeapMap2D
+ * The off-heap map must behave like MyMap2D and free its memory on close
+ */
+public class OffHeapMap2DTest {
+
+    private static final int WALL = 1;
+
+    // ========== Storage ==========
+
+    @Test
+    public void testInitAndPixels() {
+        try (OffHeapMap2D map = new OffHeapMap2D(7, 5, 9)) {
+            assertEquals(35, map.size(), "Cell count");
+            assertEquals(9, map.getPixel(6, 4), "Initial value reaches the last cell");
+            map.setPixel(3, 2, 4);
+            assertEquals(4, map.getPixel(new Index2D(3, 2)), "Written value");
+            assertThrows(RuntimeException.class, () -> map.getPixel(7, 0), "Outside the map");
+        }
+        int[][] arr = TestMaps.randomArray(13, 8, 0.25, 2);
+        try (OffHeapMap2D map = new OffHeapMap2D(arr)) {
+            assertArrayEquals(arr, map.getMap(), "getMap returns the array");
+        }
+    }
+
+    @Test
+    public void testCloseFreesMemory() {
+        OffHeapMap2D map = new OffHeapMap2D(10, 10, 0);
+        assertTrue(map.isOpen(), "New map is open");
+        map.close();
+        assertFalse(map.isOpen(), "Closed map");
+        assertThrows(RuntimeException.class, () -> map.getPixel(0, 0), "No access after close");
+        map.close();
+        map.init(3, 3, 1);
+        assertTrue(map.isOpen(), "init allocates new memory");
+        assertEquals(1, map.getPixel(2, 2), "New map value");
+        map.close();
+    }
+
+    @Test
+    public void testSharedAcrossThreads() throws Exception {
+        try (OffHeapMap2D shared = new OffHeapMap2D(4, 4, 0, true);
+             OffHeapMap2D confined = new OffHeapMap2D(4, 4, 0)) {
+            RuntimeException[] error = new RuntimeException[1];
+            Thread t = new Thread(() -> {
+                shared.setPixel(1, 1, 5);
+                try {
+                    confined.getPixel(0, 0);
+                } catch (RuntimeException e) {
+                    error[0] = e;
+                }
+            });
+            t.start();
+            t.join();
+            assertEquals(5, shared.getPixel(1, 1), "Shared map written by another thread");
+            assertNotNull(error[0], "Confined map rejects other threads");
+        }
+    }
+
+    // ========== Algorithms ==========
+
+    @Test
+    public void testMatchesMyMap2D() {
+        for (long seed = 0; seed < 6; seed++) {
+            int[][] arr = TestMaps.randomArray(31, 22, 0.25, seed);
+            boolean cyclic = seed % 2 == 1;
+            MyMap2D dense = new MyMap2D(arr);
+            dense.setCyclic(cyclic);
+            try (OffHeapMap2D map = new OffHeapMap2D(arr)) {
+                map.setCyclic(cyclic);
+                Pixel2D a = new Index2D(0, 0);
+                Pixel2D b = new Index2D(30, 21);
+                map.setPixel(a, 0);
+                dense.setPixel(a, 0);
+                map.setPixel(b, 0);
+                dense.setPixel(b, 0);
+
+                try (OffHeapMap2D dist = (OffHeapMap2D) map.allDistance(a, WALL)) {
+                    assertArrayEquals(dense.allDistance(a, WALL).getMap(), dist.getMap(), "seed " + seed + ": distances");
+                }
+                Pixel2D[] expected = dense.shortestPath(a, b, WALL);
+                Pixel2D[] path = map.shortestPath(a, b, WALL);
+                if (expected == null) {
+                    assertNull(path, "seed " + seed + ": no path");
+                } else {
+                    assertEquals(expected.length, path.length, "seed " + seed + ": path length");
+                    assertEquals(a, path[0], "seed " + seed + ": starts at p1");
+                    assertEquals(b, path[path.length - 1], "seed " + seed + ": ends at p2");
+                    for (int i = 1; i < path.length; i++) {
+                        assertNotEquals(WALL, map.getPixel(path[i]), "seed " + seed + ": no walls on the path");
+                    }
+                }
+                assertEquals(dense.fill(a, 3), map.fill(a, 3), "seed " + seed + ": fill count");
+                assertArrayEquals(dense.getMap(), map.getMap(), "seed " + seed + ": filled map");
+            }
+        }
+    }
+
+    @Test
+    public void testSpecialCases() {
+        try (OffHeapMap2D map = new OffHeapMap2D(5, 5, 0)) {
+            Pixel2D a = new Index2D(2, 2);
+            assertArrayEquals(new Pixel2D[]{a}, map.shortestPath(a, a, WALL), "Path to itself");
+            map.setPixel(4, 4, WALL);
+            assertNull(map.shortestPath(a, new Index2D(4, 4), WALL), "No path to a wall");
+            assertNull(map.shortestPath(a, new Index2D(5, 5), WALL), "No path outside the map");
+            assertEquals(0, map.fill(a, 0), "Fill with the same color");
+            assertEquals(0, map.fill(new Index2D(9, 9), 2), "Fill outside the map");
+        }
+    }
+
+    @Test
+    public void testLargeFrontier() {
+        try (OffHeapMap2D map = new OffHeapMap2D(1000, 1000, 0)) {
+            try (OffHeapMap2D dist = (OffHeapMap2D) map.allDistance(new Index2D(0, 0), WALL)) {
+                assertEquals(1998, dist.getPixel(999, 999), "Far corner after the queue grew");
+            }
+            assertEquals(1_000_000, map.fill(new Index2D(500, 500), 2), "Fill of the whole map");
+        }
+    }
+}
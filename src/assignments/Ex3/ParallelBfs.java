@@ -0,0 +1,225 @@
+package assignments.Ex3;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * ParallelBfs - level-synchronous BFS over a MyMap2D, one frontier level at a time.
+ *
+ * Every level is split into chunks that run on a ForkJoinPool; the join at the
+ * end of a level is the only synchronization point. Each level is expanded in
+ * one of two directions (direction-optimizing BFS, Beamer et al.):
+ * - top-down: every frontier cell claims its unvisited neighbors with a CAS on
+ *   a shared visited bitset. Cheap while the frontier is small.
+ * - bottom-up: every unvisited passable cell looks for a neighbor on the
+ *   current level. Cheap once the frontier covers a large part of the map,
+ *   since a cell stops at its first hit and no CAS is needed (every chunk
+ *   owns whole bitset words).
+ * A cell gets distance level+1 whichever thread discovers it, so the result is
+ * identical to the sequential BFS.
+ */
+final class ParallelBfs {
+
+    /** Cells handled by one leaf task */
+    private static final int GRAIN = 1 << 12;
+    /** Switch to bottom-up once the frontier's edges exceed 1/ALPHA of the unvisited edges */
+    private static final int ALPHA = 14;
+    /** Switch back to top-down once the frontier is smaller than 1/BETA of the map */
+    private static final int BETA = 24;
+
+    private final MyMap2D _map;
+    private final ForkJoinPool _pool;
+    private final int _n;
+    private final int _h;
+    private final long[] _pass;
+    private final AtomicLongArray _visited;
+    private final int[] _dist;
+
+    /**
+     * @param map the map to search; must not change during run()
+     * @param obsColor the color representing obstacles
+     * @param dist receives the distances (length map.size())
+     * @param pool the pool running the level tasks
+     */
+    ParallelBfs(MyMap2D map, int obsColor, int[] dist, ForkJoinPool pool) {
+        this._map = map;
+        this._pool = pool;
+        this._n = map.size();
+        this._h = map.getHeight();
+        this._pass = map.passableMask(obsColor);
+        this._visited = new AtomicLongArray(this._pass.length);
+        this._dist = dist;
+    }
+
+    /**
+     * Fill dist with the distances from src, -1 for unreachable.
+     * Like allDistance, src itself is expanded even if it is an obstacle.
+     */
+    void run(int src) {
+        Arrays.fill(this._dist, 0, this._n, -1);
+        this._dist[src] = 0;
+        this._visited.set(src >>> 6, 1L << src);
+
+        long unvisited = 0;
+        for (long word : this._pass) unvisited += Long.bitCount(word);
+        if (MyMap2D.bit(this._pass, src)) unvisited--;
+
+        int[] frontier = {src};
+        int size = 1;
+        boolean bottomUp = false;
+        for (int level = 0; size > 0; level++) {
+            if (!bottomUp && size > unvisited / ALPHA) {
+                bottomUp = true;
+            } else if (bottomUp && size < this._n / BETA) {
+                bottomUp = false;
+            }
+            Chunk[] chunks = bottomUp ? bottomUpChunks(level) : topDownChunks(frontier, size, level);
+            this._pool.invoke(new Level(chunks));
+
+            size = 0;
+            for (Chunk c : chunks) size += c._count;
+            if (frontier.length < size) frontier = new int[Math.max(size, frontier.length << 1)];
+            int at = 0;
+            for (Chunk c : chunks) {
+                System.arraycopy(c._out, 0, frontier, at, c._count);
+                at += c._count;
+            }
+            unvisited -= size;
+        }
+    }
+
+    // ==================== LEVEL TASKS ====================
+
+    private Chunk[] topDownChunks(int[] frontier, int size, int level) {
+        int count = (size + GRAIN - 1) / GRAIN;
+        Chunk[] chunks = new Chunk[count];
+        for (int i = 0; i < count; i++) {
+            chunks[i] = new Chunk(false, frontier, i * GRAIN, Math.min(size, (i + 1) * GRAIN), level);
+        }
+        return chunks;
+    }
+
+    private Chunk[] bottomUpChunks(int level) {
+        int words = this._pass.length;
+        int step = GRAIN >>> 6;
+        int count = (words + step - 1) / step;
+        Chunk[] chunks = new Chunk[count];
+        for (int i = 0; i < count; i++) {
+            chunks[i] = new Chunk(true, null, i * step, Math.min(words, (i + 1) * step), level);
+        }
+        return chunks;
+    }
+
+    /**
+     * Runs all chunks of one level and returns when every one has finished.
+     */
+    private static final class Level extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Chunk[] _chunks;
+
+        Level(Chunk[] chunks) {
+            this._chunks = chunks;
+        }
+
+        @Override
+        protected void compute() {
+            invokeAll(this._chunks);
+        }
+    }
+
+    /**
+     * One leaf task: a slice of the frontier (top-down) or a range of bitset
+     * words (bottom-up). Collects the cells it discovered in _out.
+     */
+    private final class Chunk extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final boolean _bottomUp;
+        private final int[] _frontier;
+        private final int _lo;
+        private final int _hi;
+        private final int _level;
+        private int[] _out = new int[64];
+        private int _count;
+
+        Chunk(boolean bottomUp, int[] frontier, int lo, int hi, int level) {
+            this._bottomUp = bottomUp;
+            this._frontier = frontier;
+            this._lo = lo;
+            this._hi = hi;
+            this._level = level;
+        }
+
+        @Override
+        protected void compute() {
+            if (this._bottomUp) bottomUp();
+            else topDown();
+        }
+
+        private void topDown() {
+            int next = this._level + 1;
+            for (int i = this._lo; i < this._hi; i++) {
+                int u = this._frontier[i];
+                int x = u / _h;
+                int y = u - x * _h;
+                for (int dir = 0; dir < 4; dir++) {
+                    int v = _map.neighbor(u, x, y, dir);
+                    if (v >= 0 && MyMap2D.bit(_pass, v) && claim(v)) {
+                        _dist[v] = next;
+                        add(v);
+                    }
+                }
+            }
+        }
+
+        private void bottomUp() {
+            int next = this._level + 1;
+            for (int w = this._lo; w < this._hi; w++) {
+                long seen = _visited.get(w);
+                long todo = _pass[w] & ~seen;
+                while (todo != 0) {
+                    int v = (w << 6) + Long.numberOfTrailingZeros(todo);
+                    todo &= todo - 1;
+                    int x = v / _h;
+                    int y = v - x * _h;
+                    for (int dir = 0; dir < 4; dir++) {
+                        int u = _map.neighbor(v, x, y, dir);
+                        if (u >= 0 && _dist[u] == this._level) {
+                            _dist[v] = next;
+                            seen |= 1L << v;
+                            add(v);
+                            break;
+                        }
+                    }
+                }
+                // This chunk is the only writer of word w during a bottom-up level
+                _visited.set(w, seen);
+            }
+        }
+
+        private void add(int v) {
+            if (this._count == this._out.length) this._out = Arrays.copyOf(this._out, this._count << 1);
+            this._out[this._count++] = v;
+        }
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    /**
+     * Atomically mark v as visited.
+     * @return true iff this call marked it
+     */
+    private boolean claim(int v) {
+        int w = v >>> 6;
+        long mask = 1L << v;
+        long old = this._visited.get(w);
+        while ((old & mask) == 0) {
+            if (this._visited.compareAndSet(w, old, old | mask)) return true;
+            old = this._visited.get(w);
+        }
+        return false;
+    }
+}
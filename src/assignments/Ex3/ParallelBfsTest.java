@@ -0,0 +1,60 @@
+package assignments.Ex3;
+
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.ForkJoinPool;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit test class for ParallelBfs
+ * The parallel distances must be identical to the sequential allDistance
+ */
+public class ParallelBfsTest {
+
+    private static final int WALL = 1;
+
+    private static void assertSameAsSequential(MyMap2D map, Pixel2D start, String msg) {
+        int[] dist = new int[map.size()];
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            new ParallelBfs(map, WALL, dist, pool).run(map.indexOf(start.getX(), start.getY()));
+        } finally {
+            pool.shutdown();
+        }
+        int[] expected = new int[map.size()];
+        map.distances(map.indexOf(start.getX(), start.getY()), WALL, expected);
+        assertArrayEquals(expected, dist, msg);
+    }
+
+    @Test
+    public void testOpenMap() {
+        // The frontier grows large enough to switch to bottom-up and back
+        assertSameAsSequential(new MyMap2D(300, 200, 0), new Index2D(150, 100), "Open map");
+    }
+
+    @Test
+    public void testRandomWalls() {
+        for (long seed = 0; seed < 4; seed++) {
+            MyMap2D map = TestMaps.random(257, 190, 0.3, seed);
+            assertSameAsSequential(map, new Index2D(3, 7), "Random walls, seed " + seed);
+            map.setCyclic(true);
+            assertSameAsSequential(map, new Index2D(3, 7), "Cyclic random walls, seed " + seed);
+        }
+    }
+
+    @Test
+    public void testStartOnWall() {
+        MyMap2D map = TestMaps.random(100, 100, 0.2, 7);
+        map.setPixel(50, 50, WALL);
+        assertSameAsSequential(map, new Index2D(50, 50), "A wall start is expanded like in allDistance");
+    }
+
+    @Test
+    public void testAllDistanceParallel() {
+        MyMap2D map = TestMaps.random(400, 300, 0.25, 11);
+        Pixel2D start = new Index2D(0, 0);
+        assertArrayEquals(map.allDistance(start, WALL).getMap(), map.allDistanceParallel(start, WALL).getMap(),
+            "allDistanceParallel should equal allDistance");
+        assertEquals(-1, map.allDistanceParallel(new Index2D(-1, 0), WALL).getPixel(0, 0),
+            "Start outside the map reaches nothing");
+    }
+}
@@ -0,0 +1,167 @@
+package assignments.Ex3;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * PathCache - a bounded LRU cache in front of MyMap2D.shortestPath.
+ *
+ * Entries are keyed by the packed endpoint indexes, the obstacle color and the
+ * path strategy. "No path" answers are cached too. The cache listens to its map
+ * and drops every entry as soon as a change could affect a cached answer: a cell
+ * turning into or out of one of the cached obstacle colors, or a map reset
+ * (init, setCyclic). Other recolors (e.g. food being eaten) keep the entries, so
+ * a path is only ever served for the exact passability it was computed on.
+ *
+ * Returned paths are copies; callers may modify them.
+ * Not thread-safe, like MyMap2D.
+ */
+public final class PathCache implements MapChangeListener {
+
+    private static final Pixel2D[] NO_PATH = new Pixel2D[0];
+
+    private final MyMap2D _map;
+    private final LinkedHashMap<Key, Pixel2D[]> _entries;
+    // Obstacle colors of the cached entries
+    private int[] _colors = new int[0];
+    private long _hits;
+    private long _misses;
+
+    /**
+     * @param map the map to search; the cache follows its changes
+     * @param capacity the maximal number of cached paths
+     */
+    public PathCache(MyMap2D map, int capacity) {
+        if (map == null) throw new RuntimeException("Map is null");
+        if (capacity <= 0) throw new RuntimeException("Capacity must be positive");
+        this._map = map;
+        this._entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Pixel2D[]> eldest) {
+                return size() > capacity;
+            }
+        };
+        map.addChangeListener(this);
+    }
+
+    // ==================== QUERIES ====================
+
+    /**
+     * Same result as map.shortestPath(p1, p2, obsColor), using the map's strategy.
+     */
+    public Pixel2D[] shortestPath(Pixel2D p1, Pixel2D p2, int obsColor) {
+        return shortestPath(p1, p2, obsColor, this._map.getPathStrategy());
+    }
+
+    /**
+     * Same result as map.shortestPath(p1, p2, obsColor, strategy).
+     */
+    public Pixel2D[] shortestPath(Pixel2D p1, Pixel2D p2, int obsColor, PathStrategy strategy) {
+        if (strategy == null) throw new RuntimeException("Path strategy is null");
+        if (!this._map.isInside(p1) || !this._map.isInside(p2)) {
+            return this._map.shortestPath(p1, p2, obsColor, strategy);
+        }
+        long cells = ((long) this._map.indexOf(p1.getX(), p1.getY()) << 32)
+            | this._map.indexOf(p2.getX(), p2.getY());
+        Key key = new Key(cells, obsColor, strategy);
+        Pixel2D[] path = this._entries.get(key);
+        if (path != null) {
+            this._hits++;
+        } else {
+            this._misses++;
+            path = this._map.shortestPath(p1, p2, obsColor, strategy);
+            if (path == null) path = NO_PATH;
+            addColor(obsColor);
+            this._entries.put(key, path);
+        }
+        return path == NO_PATH ? null : path.clone();
+    }
+
+    public long getHits() {
+        return this._hits;
+    }
+
+    public long getMisses() {
+        return this._misses;
+    }
+
+    /**
+     * @return the number of cached paths
+     */
+    public int size() {
+        return this._entries.size();
+    }
+
+    /**
+     * Drop all cached paths (the counters are kept).
+     */
+    public void clear() {
+        this._entries.clear();
+        this._colors = new int[0];
+    }
+
+    /**
+     * Stop following the map and drop all cached paths.
+     */
+    public void detach() {
+        this._map.removeChangeListener(this);
+        clear();
+    }
+
+    // ==================== CHANGE TRACKING ====================
+
+    @Override
+    public void pixelChanged(MyMap2D map, int idx, int oldV, int newV) {
+        for (int c : this._colors) {
+            if (c == oldV || c == newV) {
+                clear();
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void mapReset(MyMap2D map) {
+        clear();
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    private void addColor(int c) {
+        for (int existing : this._colors) {
+            if (existing == c) return;
+        }
+        int[] next = new int[this._colors.length + 1];
+        System.arraycopy(this._colors, 0, next, 0, this._colors.length);
+        next[this._colors.length] = c;
+        this._colors = next;
+    }
+
+    /**
+     * Cache key: both endpoint indexes packed in one long, plus color and strategy.
+     */
+    private static final class Key {
+        private final long _cells;
+        private final int _obsColor;
+        private final PathStrategy _strategy;
+
+        Key(long cells, int obsColor, PathStrategy strategy) {
+            this._cells = cells;
+            this._obsColor = obsColor;
+            this._strategy = strategy;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return this._cells == k._cells && this._obsColor == k._obsColor && this._strategy == k._strategy;
+        }
+
+        @Override
+        public int hashCode() {
+            long h = this._cells * 0x9E3779B97F4A7C15L + this._obsColor * 31L + this._strategy.ordinal();
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package assignments.Ex3;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit test class for PathCache
+ * Tests hits, misses, LRU eviction and exact invalidation
+ */
+public class PathCacheTest {
+
+    private static final int WALL = 1;
+
+    private MyMap2D map;
+    private PathCache cache;
+    private Pixel2D a;
+    private Pixel2D b;
+
+    @BeforeEach
+    public void setUp() {
+        map = new MyMap2D(10, 10, 0);
+        cache = new PathCache(map, 4);
+        a = new Index2D(0, 0);
+        b = new Index2D(9, 9);
+    }
+
+    @Test
+    public void testHitAndMiss() {
+        Pixel2D[] first = cache.shortestPath(a, b, WALL);
+        Pixel2D[] second = cache.shortestPath(a, b, WALL);
+        assertEquals(1, cache.getMisses(), "First lookup is a miss");
+        assertEquals(1, cache.getHits(), "Second lookup is a hit");
+        assertArrayEquals(first, second, "A hit returns the same path");
+        assertNotSame(first, second, "Every lookup returns its own copy");
+        assertEquals(19, second.length, "Open map path length");
+    }
+
+    @Test
+    public void testWallChangeInvalidates() {
+        cache.shortestPath(a, b, WALL);
+        for (int y = 0; y < 9; y++) {
+            map.setPixel(5, y, WALL);
+        }
+        assertEquals(0, cache.size(), "A new wall drops the cached paths");
+        Pixel2D[] path = cache.shortestPath(a, b, WALL);
+        assertEquals(map.shortestPath(a, b, WALL).length, path.length, "The new path goes around the wall");
+        assertEquals(2, cache.getMisses(), "The lookup after the change is a miss");
+    }
+
+    @Test
+    public void testOtherColorsKeepEntries() {
+        cache.shortestPath(a, b, WALL);
+        map.setPixel(3, 3, 3);
+        map.setPixel(3, 3, 0);
+        assertEquals(1, cache.size(), "Recoloring passable cells keeps the entries");
+        cache.shortestPath(a, b, WALL);
+        assertEquals(1, cache.getHits(), "Lookup is still a hit");
+    }
+
+    @Test
+    public void testNoPathCached() {
+        map.setPixel(9, 9, WALL);
+        assertNull(cache.shortestPath(a, b, WALL), "No path to a wall");
+        assertNull(cache.shortestPath(a, b, WALL), "Cached no-path answer");
+        assertEquals(1, cache.getHits(), "The no-path answer is a hit");
+    }
+
+    @Test
+    public void testLruEviction() {
+        for (int x = 1; x <= 4; x++) {
+            cache.shortestPath(a, new Index2D(x, 0), WALL);
+        }
+        cache.shortestPath(a, new Index2D(1, 0), WALL);
+        cache.shortestPath(a, new Index2D(5, 0), WALL);
+        assertEquals(4, cache.size(), "Capacity is respected");
+        cache.shortestPath(a, new Index2D(1, 0), WALL);
+        assertEquals(2, cache.getHits(), "Recently used entry survives");
+        cache.shortestPath(a, new Index2D(2, 0), WALL);
+        assertEquals(2, cache.getHits(), "Least recently used entry was evicted");
+    }
+
+    @Test
+    public void testResetAndStrategies() {
+        cache.shortestPath(a, b, WALL, PathStrategy.BFS);
+        cache.shortestPath(a, b, WALL, PathStrategy.A_STAR);
+        assertEquals(2, cache.size(), "Strategies are cached separately");
+        map.setCyclic(true);
+        assertEquals(0, cache.size(), "setCyclic drops the cached paths");
+        assertEquals(3, cache.shortestPath(a, b, WALL).length, "Cyclic path wraps around");
+    }
+}
@@ -0,0 +1,131 @@
+package assignments.Ex3;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * PathHandle - a shortest path that is read lazily from the parent links of
+ * the search that found it (see MyMap2D.shortestPathHandle).
+ *
+ * Cells are reported as flat indexes (MyMap2D.indexOf layout: x*height+y;
+ * use xOf / yOf to unpack). firstStepIndex() costs one lookup, length() and
+ * the iterator walk only as far as needed, and nothing is materialized
+ * unless toArray() is called.
+ *
+ * The links live in the map's reusable search buffers, so the handle is only
+ * valid until the map runs another search or changes; after that every query
+ * throws. isValid() tells whether it can still be read.
+ */
+public final class PathHandle {
+
+    private final MyMap2D _map;
+    // Null for a path of one cell, which needs no links
+    private final SearchScratch _scratch;
+    private final int _epoch;
+    private final long _version;
+    private final int _from;
+    private final int _to;
+    private int _length = -1;
+
+    PathHandle(MyMap2D map, SearchScratch scratch, int from, int to) {
+        this._map = map;
+        this._scratch = scratch;
+        this._epoch = scratch == null ? 0 : scratch.epoch();
+        this._version = map.getVersion();
+        this._from = from;
+        this._to = to;
+    }
+
+    /**
+     * @return true iff the map was neither searched nor changed since this path was found
+     */
+    public boolean isValid() {
+        return this._map.getVersion() == this._version
+            && (this._scratch == null || this._scratch.epoch() == this._epoch);
+    }
+
+    /**
+     * @return the number of cells on the path, both ends included (as shortestPath(...).length)
+     */
+    public int length() {
+        check();
+        if (this._length < 0) {
+            int len = 1;
+            for (int c = this._from; c != this._to; c = this._scratch.parent(c)) len++;
+            this._length = len;
+        }
+        return this._length;
+    }
+
+    /**
+     * @return the flat index of the cell after the start, -1 if start and end are the same cell
+     */
+    public int firstStepIndex() {
+        check();
+        return this._from == this._to ? -1 : this._scratch.parent(this._from);
+    }
+
+    /**
+     * @return the cell after the start, null if start and end are the same cell
+     */
+    public Pixel2D firstStep() {
+        int c = firstStepIndex();
+        return c < 0 ? null : new Index2D(this._map.xOf(c), this._map.yOf(c));
+    }
+
+    public int getStartIndex() {
+        return this._from;
+    }
+
+    public int getEndIndex() {
+        return this._to;
+    }
+
+    /**
+     * @return an iterator over the flat indexes of the path, from start to end
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        check();
+        return new PrimitiveIterator.OfInt() {
+            private int _next = _from;
+            private boolean _done;
+
+            @Override
+            public boolean hasNext() {
+                return !this._done;
+            }
+
+            @Override
+            public int nextInt() {
+                if (this._done) throw new NoSuchElementException();
+                check();
+                int c = this._next;
+                if (c == _to) {
+                    this._done = true;
+                } else {
+                    this._next = _scratch.parent(c);
+                }
+                return c;
+            }
+        };
+    }
+
+    /**
+     * @return the whole path as shortestPath would return it
+     */
+    public Pixel2D[] toArray() {
+        Pixel2D[] path = new Pixel2D[length()];
+        PrimitiveIterator.OfInt it = iterator();
+        for (int i = 0; i < path.length; i++) {
+            int c = it.nextInt();
+            path[i] = new Index2D(this._map.xOf(c), this._map.yOf(c));
+        }
+        return path;
+    }
+
+    private void check() {
+        if (!isValid()) {
+            throw new RuntimeException("Path handle is stale: the map was searched or changed since");
+        }
+    }
+}
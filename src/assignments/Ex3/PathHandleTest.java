@@ -0,0 +1,101 @@
+package assignments.Ex3;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import java.util.PrimitiveIterator;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit test class for PathHandle / MyMap2D.shortestPathHandle
+ * A handle must describe a shortest path and refuse to be read once stale
+ */
+public class PathHandleTest {
+
+    private static final int WALL = 1;
+
+    private MyMap2D map;
+    private Pixel2D a;
+    private Pixel2D b;
+
+    @BeforeEach
+    public void setUp() {
+        map = new MyMap2D(new int[][]{
+            {0, 0, 0, 0, 0},
+            {0, 1, 1, 1, 0},
+            {0, 0, 0, 1, 0},
+            {1, 1, 0, 1, 0},
+            {0, 0, 0, 0, 0}
+        });
+        a = new Index2D(0, 0);
+        b = new Index2D(4, 4);
+    }
+
+    private void assertValidPath(PathHandle h, Pixel2D from, Pixel2D to, String msg) {
+        Pixel2D[] path = h.toArray();
+        assertEquals(map.shortestPath(from, to, WALL).length, path.length, msg + ": shortest length");
+        assertEquals(from, path[0], msg + ": starts at p1");
+        assertEquals(to, path[path.length - 1], msg + ": ends at p2");
+        for (int i = 1; i < path.length; i++) {
+            assertNotEquals(WALL, map.getPixel(path[i]), msg + ": no walls on the path");
+        }
+    }
+
+    @Test
+    public void testLengthAndFirstStep() {
+        for (PathStrategy st : new PathStrategy[]{PathStrategy.BFS, PathStrategy.A_STAR}) {
+            map.setPathStrategy(st);
+            PathHandle h = map.shortestPathHandle(a, b, WALL);
+            assertNotNull(h, st + " should find a path");
+            assertEquals(9, h.length(), st + " path length");
+            Pixel2D step = h.firstStep();
+            assertEquals(1.0, a.distance2D(step), st + " first step is a neighbor of the start");
+            assertEquals(map.indexOf(step.getX(), step.getY()), h.firstStepIndex(), st + " packed first step");
+            assertValidPath(map.shortestPathHandle(a, b, WALL), a, b, st.toString());
+        }
+    }
+
+    @Test
+    public void testIterator() {
+        PathHandle h = map.shortestPathHandle(a, b, WALL);
+        PrimitiveIterator.OfInt it = h.iterator();
+        int count = 0;
+        int last = -1;
+        while (it.hasNext()) {
+            last = it.nextInt();
+            count++;
+        }
+        assertEquals(h.length(), count, "Iterator visits every cell once");
+        assertEquals(map.indexOf(4, 4), last, "Iterator ends at p2");
+    }
+
+    @Test
+    public void testCyclic() {
+        map.setCyclic(true);
+        PathHandle h = map.shortestPathHandle(a, b, WALL);
+        assertEquals(3, h.length(), "Cyclic path wraps around both edges");
+        assertValidPath(map.shortestPathHandle(a, b, WALL), a, b, "Cyclic");
+    }
+
+    @Test
+    public void testNoPathAndSamePoint() {
+        assertNull(map.shortestPathHandle(a, new Index2D(1, 1), WALL), "No path to a wall");
+        assertNull(map.shortestPathHandle(a, new Index2D(9, 9), WALL), "No path outside the map");
+        PathHandle same = map.shortestPathHandle(a, a, WALL);
+        assertEquals(1, same.length(), "Path to itself has one cell");
+        assertNull(same.firstStep(), "No first step to itself");
+    }
+
+    @Test
+    public void testStaleness() {
+        PathHandle h = map.shortestPathHandle(a, b, WALL);
+        assertTrue(h.isValid(), "Fresh handle is valid");
+        map.shortestPath(a, new Index2D(2, 2), WALL);
+        assertFalse(h.isValid(), "Another search invalidates the handle");
+        assertThrows(RuntimeException.class, h::length, "Stale handle cannot be read");
+
+        PathHandle h2 = map.shortestPathHandle(a, b, WALL);
+        map.setPixel(4, 0, 5);
+        assertFalse(h2.isValid(), "A change of the map invalidates the handle");
+        assertThrows(RuntimeException.class, h2::firstStepIndex, "Stale handle cannot be read");
+    }
+}
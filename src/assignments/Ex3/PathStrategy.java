@@ -0,0 +1,20 @@
+package assignments.Ex3;
+
+/**
+ * PathStrategy - the search algorithm MyMap2D uses for point-to-point shortest paths.
+ * Every strategy returns a path of the same (shortest) length; they differ only in
+ * how many cells they expand and, when several shortest paths exist, which one is returned.
+ */
+public enum PathStrategy {
+    /** Plain breadth first search from p1 (the default). */
+    BFS,
+    /** BFS from both endpoints at once, stopping when the two frontiers meet. */
+    BIDIRECTIONAL,
+    /** A* with a Manhattan heuristic (wrap-around aware on cyclic maps). */
+    A_STAR,
+    /**
+     * Jump Point Search for 4-connected grids: A* over jump points only, skipping
+     * the symmetric variants of each path. Best on large open areas.
+     */
+    JPS
+}
@@ -0,0 +1,558 @@
+package assignments.Ex3;
+
+import java.util.Arrays;
+
+/**
+ * RleMap2D - a Map2D that stores every column as runs of equal values.
+ *
+ * Column x is two exact-size arrays: the first y of each run and its value,
+ * with neighboring runs always of different values. A level made of long
+ * walls and corridors needs a few runs per column instead of height ints,
+ * so many levels can be held in memory at once.
+ *
+ * getPixel binary-searches the runs of the column. setPixel splits and
+ * merges runs. fill works on whole runs: the region of the old color is a
+ * set of runs linked by overlapping neighbor columns (and by the wrap on a
+ * cyclic map).
+ *
+ * shortestPath works on passable segments: the maximal stretches of
+ * non-obstacle runs of a column. A BFS over the segment graph (segments of
+ * neighbor columns are linked where they overlap) answers unreachable goals
+ * at once; otherwise an A* refines the path inside the segments, with cell
+ * storage only for the segments it reaches. allDistance needs a value per
+ * cell anyway; it expands the runs (one Arrays.fill per run) into a scratch
+ * MyMap2D and uses its BFS.
+ */
+public class RleMap2D implements Map2D {
+
+    private int _w;
+    private int _h;
+    private boolean _cyclic;
+    // Per column: start y of every run (ascending, _starts[x][0] == 0) and its value
+    private int[][] _starts;
+    private int[][] _values;
+
+    // ==================== CONSTRUCTORS ====================
+
+    public RleMap2D(int w, int h, int v) {
+        init(w, h, v);
+    }
+
+    public RleMap2D(int[][] arr) {
+        init(arr);
+    }
+
+    // ==================== INIT METHODS ====================
+
+    @Override
+    public void init(int w, int h, int v) {
+        if (w <= 0 || h <= 0) {
+            throw new RuntimeException("Width and height must be positive");
+        }
+        this._w = w;
+        this._h = h;
+        this._starts = new int[w][];
+        this._values = new int[w][];
+        for (int x = 0; x < w; x++) {
+            this._starts[x] = new int[]{0};
+            this._values[x] = new int[]{v};
+        }
+        this._cyclic = false;
+    }
+
+    @Override
+    public void init(int[][] arr) {
+        if (arr == null || arr.length == 0) {
+            throw new RuntimeException("Array is null or empty");
+        }
+        int height = arr[0] == null ? 0 : arr[0].length;
+        for (int i = 0; i < arr.length; i++) {
+            if (arr[i] == null || arr[i].length != height) {
+                throw new RuntimeException("Not a valid rectangular 2D array");
+            }
+        }
+        if (height == 0) {
+            throw new RuntimeException("Array is null or empty");
+        }
+        init(arr.length, height, 0);
+        for (int x = 0; x < arr.length; x++) {
+            int[] col = arr[x];
+            int n = 1;
+            for (int y = 1; y < height; y++) {
+                if (col[y] != col[y - 1]) n++;
+            }
+            int[] starts = new int[n];
+            int[] values = new int[n];
+            values[0] = col[0];
+            for (int y = 1, r = 0; y < height; y++) {
+                if (col[y] != col[y - 1]) {
+                    r++;
+                    starts[r] = y;
+                    values[r] = col[y];
+                }
+            }
+            this._starts[x] = starts;
+            this._values[x] = values;
+        }
+    }
+
+    // ==================== GETTERS ====================
+
+    @Override
+    public int[][] getMap() {
+        int[][] copy = new int[this._w][this._h];
+        for (int x = 0; x < this._w; x++) {
+            int[] s = this._starts[x];
+            for (int r = 0; r < s.length; r++) {
+                Arrays.fill(copy[x], s[r], runEnd(x, r) + 1, this._values[x][r]);
+            }
+        }
+        return copy;
+    }
+
+    @Override
+    public int getWidth() {
+        return this._w;
+    }
+
+    @Override
+    public int getHeight() {
+        return this._h;
+    }
+
+    @Override
+    public int getPixel(int x, int y) {
+        if (!isValidCoordinate(x, y)) {
+            throw new RuntimeException("Coordinate out of bounds: (" + x + "," + y + ")");
+        }
+        return this._values[x][runAt(x, y)];
+    }
+
+    @Override
+    public int getPixel(Pixel2D p) {
+        if (p == null) throw new RuntimeException("Pixel is null");
+        return getPixel(p.getX(), p.getY());
+    }
+
+    /**
+     * @return the total number of runs (the storage needed is about 8 bytes per run)
+     */
+    public int getRunCount() {
+        int n = 0;
+        for (int x = 0; x < this._w; x++) {
+            n += this._starts[x].length;
+        }
+        return n;
+    }
+
+    // ==================== SETTERS ====================
+
+    @Override
+    public void setPixel(int x, int y, int v) {
+        if (!isValidCoordinate(x, y)) {
+            throw new RuntimeException("Coordinate out of bounds: (" + x + "," + y + ")");
+        }
+        if (this._values[x][runAt(x, y)] != v) {
+            setRange(x, y, y, v);
+        }
+    }
+
+    @Override
+    public void setPixel(Pixel2D p, int v) {
+        if (p == null) throw new RuntimeException("Pixel is null");
+        setPixel(p.getX(), p.getY(), v);
+    }
+
+    // ==================== PROPERTIES ====================
+
+    @Override
+    public boolean isInside(Pixel2D p) {
+        if (p == null) return false;
+        return isValidCoordinate(p.getX(), p.getY());
+    }
+
+    @Override
+    public boolean isCyclic() {
+        return this._cyclic;
+    }
+
+    @Override
+    public void setCyclic(boolean cy) {
+        this._cyclic = cy;
+    }
+
+    // ==================== ALGORITHMS ====================
+
+    /**
+     * Run-based flood fill: collects the runs of the old color connected to p,
+     * then recolors each of them as one range.
+     */
+    @Override
+    public int fill(Pixel2D p, int new_v) {
+        if (!isInside(p)) return 0;
+        int old_v = getPixel(p);
+        if (old_v == new_v) return 0;
+
+        boolean[][] seen = new boolean[this._w][];
+        // (x, run) pairs; the collected runs are kept as (x, first y, last y) triples
+        IntRingQueue queue = new IntRingQueue(64);
+        IntRingQueue found = new IntRingQueue(64);
+        visitRun(seen, queue, p.getX(), runAt(p.getX(), p.getY()));
+        int count = 0;
+        while (!queue.isEmpty()) {
+            int x = queue.poll();
+            int r = queue.poll();
+            int lo = this._starts[x][r];
+            int hi = runEnd(x, r);
+            count += hi - lo + 1;
+            found.add(x);
+            found.add(lo);
+            found.add(hi);
+
+            // Runs of the neighbor columns that overlap [lo, hi]
+            for (int side = -1; side <= 1; side += 2) {
+                int nx = x + side;
+                if (nx < 0 || nx >= this._w) {
+                    if (!this._cyclic) continue;
+                    nx = nx < 0 ? this._w - 1 : 0;
+                }
+                int[] s = this._starts[nx];
+                for (int i = runAt(nx, lo); i < s.length && s[i] <= hi; i++) {
+                    if (this._values[nx][i] == old_v) visitRun(seen, queue, nx, i);
+                }
+            }
+            // The first and last run of a column touch across the wrap
+            if (this._cyclic) {
+                int last = this._starts[x].length - 1;
+                if (hi == this._h - 1 && this._values[x][0] == old_v) visitRun(seen, queue, x, 0);
+                if (lo == 0 && this._values[x][last] == old_v) visitRun(seen, queue, x, last);
+            }
+        }
+        while (!found.isEmpty()) {
+            setRange(found.poll(), found.poll(), found.poll(), new_v);
+        }
+        return count;
+    }
+
+    @Override
+    public Pixel2D[] shortestPath(Pixel2D p1, Pixel2D p2, int obsColor) {
+        if (!isInside(p1) || !isInside(p2)) return null;
+        if (getPixel(p1) == obsColor || getPixel(p2) == obsColor) return null;
+        if (p1.equals(p2)) return new Pixel2D[]{p1};
+
+        Segments seg = new Segments(obsColor);
+        int src = seg.at(p1.getX(), p1.getY());
+        int dst = seg.at(p2.getX(), p2.getY());
+        if (!seg.connected(src, dst)) return null;
+        return seg.path(src, p1.getY(), dst, p2.getX(), p2.getY());
+    }
+
+    @Override
+    public Map2D allDistance(Pixel2D start, int obsColor) {
+        return expand().allDistance(start, obsColor);
+    }
+
+    // ==================== SEGMENT SEARCH ====================
+
+    /**
+     * The passable segments of the map for one obstacle color, with the
+     * searches over them. Segment ids are ordered by column, then by y.
+     */
+    private final class Segments {
+        private final int[] _x;
+        private final int[] _lo;
+        private final int[] _hi;
+        // Segments of column x are _first[x] .. _first[x+1]-1
+        private final int[] _first;
+
+        Segments(int obsColor) {
+            int n = 0;
+            for (int x = 0; x < _w; x++) {
+                n += _starts[x].length;
+            }
+            int[] sx = new int[n];
+            int[] lo = new int[n];
+            int[] hi = new int[n];
+            this._first = new int[_w + 1];
+            int k = 0;
+            for (int x = 0; x < _w; x++) {
+                this._first[x] = k;
+                int[] st = _starts[x];
+                for (int r = 0; r < st.length; r++) {
+                    if (_values[x][r] == obsColor) continue;
+                    if (k > this._first[x] && hi[k - 1] == st[r] - 1) {
+                        hi[k - 1] = runEnd(x, r); // joins the previous passable run
+                    } else {
+                        sx[k] = x;
+                        lo[k] = st[r];
+                        hi[k] = runEnd(x, r);
+                        k++;
+                    }
+                }
+            }
+            this._first[_w] = k;
+            this._x = Arrays.copyOf(sx, k);
+            this._lo = Arrays.copyOf(lo, k);
+            this._hi = Arrays.copyOf(hi, k);
+        }
+
+        /**
+         * @return the segment that contains (x,y), -1 for an obstacle
+         */
+        int at(int x, int y) {
+            int a = this._first[x];
+            int b = this._first[x + 1] - 1;
+            while (a <= b) {
+                int m = (a + b) >>> 1;
+                if (this._lo[m] <= y) a = m + 1;
+                else b = m - 1;
+            }
+            return b >= this._first[x] && this._hi[b] >= y ? b : -1;
+        }
+
+        /**
+         * BFS over whole segments from a until b is reached.
+         */
+        boolean connected(int a, int b) {
+            boolean[] seen = new boolean[this._x.length];
+            IntRingQueue queue = new IntRingQueue(64);
+            seen[a] = true;
+            queue.add(a);
+            while (!queue.isEmpty()) {
+                int s = queue.poll();
+                if (s == b) return true;
+                int x = this._x[s];
+                for (int side = -1; side <= 1; side += 2) {
+                    int nx = x + side;
+                    if (nx < 0 || nx >= _w) {
+                        if (!_cyclic) continue;
+                        nx = nx < 0 ? _w - 1 : 0;
+                    }
+                    // Segments of column nx overlapping [lo, hi]
+                    int t = firstEndingFrom(nx, this._lo[s]);
+                    for (; t < this._first[nx + 1] && this._lo[t] <= this._hi[s]; t++) {
+                        if (!seen[t]) {
+                            seen[t] = true;
+                            queue.add(t);
+                        }
+                    }
+                }
+                // The ends of a column touch across the wrap
+                if (_cyclic && this._hi[s] == _h - 1) visit(seen, queue, at(x, 0));
+                if (_cyclic && this._lo[s] == 0) visit(seen, queue, at(x, _h - 1));
+            }
+            return false;
+        }
+
+        /**
+         * A* from (segment a, y ay) to (segment b, tx, ty) over cells, with
+         * a torus-aware Manhattan heuristic. Cells get storage per reached segment.
+         * @return the path, null if there is none
+         */
+        Pixel2D[] path(int a, int ay, int b, int tx, int ty) {
+            int n = this._x.length;
+            // Per segment and cell: g+1 (0 = unseen) and the direction back to the parent (+4 once closed)
+            int[][] g = new int[n][];
+            byte[][] back = new byte[n][];
+            IntBucketQueue open = new IntBucketQueue(3);
+            // Queue values pack (segment, y - lo) as segment * _h + offset
+            open(g, back, a, ay, 0, -1);
+            open.add(heuristic(this._x[a], ay, tx, ty), a * _h + ay - this._lo[a]);
+            int[] nb = new int[2];
+            while (!open.isEmpty()) {
+                int c = open.poll();
+                int s = c / _h;
+                int off = c - s * _h;
+                if (back[s][off] >= 4) continue;
+                back[s][off] += 4;
+                int y = this._lo[s] + off;
+                if (s == b && y == ty) return trace(g, back, s, y);
+                int next = g[s][off];
+                for (int dir = 0; dir < 4; dir++) {
+                    if (!step(s, y, dir, nb)) continue;
+                    int t = nb[0];
+                    int ny = nb[1];
+                    int toff = ny - this._lo[t];
+                    if (g[t] != null && g[t][toff] != 0 && g[t][toff] <= next + 1) continue;
+                    open(g, back, t, ny, next, dir ^ 1);
+                    open.add(next + heuristic(this._x[t], ny, tx, ty), t * _h + toff);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Record g (as g+1) and the direction back for cell (s, y).
+         */
+        private void open(int[][] g, byte[][] back, int s, int y, int gs, int dirBack) {
+            if (g[s] == null) {
+                g[s] = new int[this._hi[s] - this._lo[s] + 1];
+                back[s] = new byte[g[s].length];
+            }
+            g[s][y - this._lo[s]] = gs + 1;
+            back[s][y - this._lo[s]] = (byte) Math.max(dirBack, 0);
+        }
+
+        /**
+         * The neighbor of (s, y) in direction dir (0=right, 1=left, 2=up, 3=down),
+         * as (segment, y) in out.
+         * @return false if it is outside the map or an obstacle
+         */
+        private boolean step(int s, int y, int dir, int[] out) {
+            int x = this._x[s];
+            if (dir >= 2) {
+                int ny = dir == 2 ? y + 1 : y - 1;
+                if (ny >= this._lo[s] && ny <= this._hi[s]) {
+                    out[0] = s;
+                    out[1] = ny;
+                    return true;
+                }
+                if (!_cyclic || (ny >= 0 && ny < _h)) return false;
+                ny = ny < 0 ? _h - 1 : 0;
+                out[0] = at(x, ny);
+                out[1] = ny;
+                return out[0] >= 0;
+            }
+            int nx = dir == 0 ? x + 1 : x - 1;
+            if (nx < 0 || nx >= _w) {
+                if (!_cyclic) return false;
+                nx = nx < 0 ? _w - 1 : 0;
+            }
+            out[0] = at(nx, y);
+            out[1] = y;
+            return out[0] >= 0;
+        }
+
+        /**
+         * Follow the directions back from the goal cell (s, y) to the start.
+         */
+        private Pixel2D[] trace(int[][] g, byte[][] back, int s, int y) {
+            int len = g[s][y - this._lo[s]]; // g+1 cells
+            Pixel2D[] path = new Pixel2D[len];
+            int[] nb = new int[2];
+            for (int i = len - 1; i > 0; i--) {
+                path[i] = new Index2D(this._x[s], y);
+                step(s, y, back[s][y - this._lo[s]] & 3, nb);
+                s = nb[0];
+                y = nb[1];
+            }
+            path[0] = new Index2D(this._x[s], y);
+            return path;
+        }
+
+        private int heuristic(int x, int y, int tx, int ty) {
+            int dx = Math.abs(x - tx);
+            int dy = Math.abs(y - ty);
+            if (_cyclic) {
+                dx = Math.min(dx, _w - dx);
+                dy = Math.min(dy, _h - dy);
+            }
+            return dx + dy;
+        }
+
+        /**
+         * @return the first segment of column x that ends at or after y, or _first[x+1]
+         */
+        private int firstEndingFrom(int x, int y) {
+            int a = this._first[x];
+            int b = this._first[x + 1];
+            while (a < b) {
+                int m = (a + b) >>> 1;
+                if (this._hi[m] < y) a = m + 1;
+                else b = m;
+            }
+            return a;
+        }
+
+        private void visit(boolean[] seen, IntRingQueue queue, int t) {
+            if (t >= 0 && !seen[t]) {
+                seen[t] = true;
+                queue.add(t);
+            }
+        }
+    }
+
+    // ==================== HELPER METHODS ====================
+
+    /**
+     * @return the index of the run of column x that contains y
+     */
+    private int runAt(int x, int y) {
+        int i = Arrays.binarySearch(this._starts[x], y);
+        return i >= 0 ? i : -i - 2;
+    }
+
+    /**
+     * @return the last y of run r in column x
+     */
+    private int runEnd(int x, int r) {
+        int[] s = this._starts[x];
+        return r + 1 < s.length ? s[r + 1] - 1 : this._h - 1;
+    }
+
+    private void visitRun(boolean[][] seen, IntRingQueue queue, int x, int r) {
+        if (seen[x] == null) seen[x] = new boolean[this._starts[x].length];
+        if (seen[x][r]) return;
+        seen[x][r] = true;
+        queue.add(x);
+        queue.add(r);
+    }
+
+    /**
+     * Set cells y0..y1 of column x to v, keeping the runs maximal.
+     */
+    private void setRange(int x, int y0, int y1, int v) {
+        int[] s = this._starts[x];
+        int[] vals = this._values[x];
+        int a = runAt(x, y0);
+        int b = runAt(x, y1);
+        int[] ns = new int[s.length + 2];
+        int[] nv = new int[s.length + 2];
+        int n = 0;
+        // Runs before the range, the part of run a before y0, the range, the part of run b after y1, the rest
+        for (int r = 0; r < a; r++) {
+            n = appendRun(ns, nv, n, s[r], vals[r]);
+        }
+        if (s[a] < y0) n = appendRun(ns, nv, n, s[a], vals[a]);
+        n = appendRun(ns, nv, n, y0, v);
+        if (runEnd(x, b) > y1) n = appendRun(ns, nv, n, y1 + 1, vals[b]);
+        for (int r = b + 1; r < s.length; r++) {
+            n = appendRun(ns, nv, n, s[r], vals[r]);
+        }
+        this._starts[x] = Arrays.copyOf(ns, n);
+        this._values[x] = Arrays.copyOf(nv, n);
+    }
+
+    /**
+     * Append a run, merging it into the previous one if the values are equal.
+     * @return the new number of runs
+     */
+    private static int appendRun(int[] starts, int[] values, int n, int start, int v) {
+        if (n > 0 && values[n - 1] == v) return n;
+        starts[n] = start;
+        values[n] = v;
+        return n + 1;
+    }
+
+    /**
+     * @return a MyMap2D copy of this map, built run by run
+     */
+    private MyMap2D expand() {
+        int[] data = new int[Math.multiplyExact(this._w, this._h)];
+        for (int x = 0; x < this._w; x++) {
+            int[] s = this._starts[x];
+            int base = x * this._h;
+            for (int r = 0; r < s.length; r++) {
+                Arrays.fill(data, base + s[r], base + runEnd(x, r) + 1, this._values[x][r]);
+            }
+        }
+        MyMap2D map = new MyMap2D();
+        map.adopt(this._w, this._h, data);
+        map.setCyclic(this._cyclic);
+        return map;
+    }
+
+    private boolean isValidCoordinate(int x, int y) {
+        return x >= 0 && x < this._w && y >= 0 && y < this._h;
+    }
+}
@@ -0,0 +1,146 @@
+package assignments.Ex3;
+
+import org.junit.jupiter.api.Test;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit test class for RleMap2D
+ * The run-length map must behave exactly like MyMap2D while keeping few runs
+ */
+public class RleMap2DTest {
+
+    private static final int WALL = 1;
+
+    // ========== Storage ==========
+
+    @Test
+    public void testRunsStayMaximal() {
+        RleMap2D map = new RleMap2D(3, 10, 0);
+        assertEquals(3, map.getRunCount(), "One run per column");
+        map.setPixel(1, 4, WALL);
+        assertEquals(5, map.getRunCount(), "A cell in the middle splits a run in three");
+        map.setPixel(1, 5, WALL);
+        assertEquals(5, map.getRunCount(), "A neighbor of the same value extends the run");
+        map.setPixel(1, 4, 0);
+        map.setPixel(1, 5, 0);
+        assertEquals(3, map.getRunCount(), "Runs merge again");
+        map.setPixel(2, 0, 7);
+        map.setPixel(2, 9, 7);
+        assertEquals(7, map.getPixel(2, 0), "First cell");
+        assertEquals(7, map.getPixel(2, 9), "Last cell");
+        assertEquals(0, map.getPixel(2, 5), "Middle cell");
+        assertThrows(RuntimeException.class, () -> map.getPixel(3, 0), "Outside the map");
+    }
+
+    @Test
+    public void testInitFromArray() {
+        int[][] arr = {{1, 1, 1, 0, 0}, {2, 2, 2, 2, 2}, {0, 1, 0, 1, 0}};
+        RleMap2D map = new RleMap2D(arr);
+        assertArrayEquals(arr, map.getMap(), "getMap returns the array");
+        assertEquals(2 + 1 + 5, map.getRunCount(), "Runs per column");
+        assertThrows(RuntimeException.class, () -> new RleMap2D(new int[][]{{1}, {}}), "Ragged array");
+    }
+
+    // ========== Algorithms ==========
+
+    @Test
+    public void testRandomMutationsMatchMyMap2D() {
+        Random rnd = new Random(5);
+        for (int round = 0; round < 8; round++) {
+            int w = 3 + rnd.nextInt(20);
+            int h = 3 + rnd.nextInt(20);
+            RleMap2D rle = new RleMap2D(w, h, 0);
+            MyMap2D dense = new MyMap2D(w, h, 0);
+            boolean cyclic = round % 2 == 1;
+            rle.setCyclic(cyclic);
+            dense.setCyclic(cyclic);
+            for (int step = 0; step < 300; step++) {
+                Pixel2D p = new Index2D(rnd.nextInt(w), rnd.nextInt(h));
+                int v = rnd.nextInt(3);
+                if (rnd.nextInt(10) == 0) {
+                    assertEquals(dense.fill(p, v), rle.fill(p, v), "round " + round + " step " + step + ": fill count");
+                } else {
+                    rle.setPixel(p, v);
+                    dense.setPixel(p, v);
+                }
+            }
+            assertArrayEquals(dense.getMap(), rle.getMap(), "round " + round + ": cells");
+
+            Pixel2D a = new Index2D(0, 0);
+            Pixel2D b = new Index2D(w - 1, h - 1);
+            assertArrayEquals(dense.allDistance(a, WALL).getMap(), rle.allDistance(a, WALL).getMap(),
+                "round " + round + ": distances");
+            Pixel2D[] expected = dense.shortestPath(a, b, WALL);
+            Pixel2D[] path = rle.shortestPath(a, b, WALL);
+            assertEquals(expected == null ? -1 : expected.length, path == null ? -1 : path.length,
+                "round " + round + ": path length");
+        }
+    }
+
+    @Test
+    public void testShortestPathMatchesMyMap2D() {
+        // Passable runs of different colors join into one segment
+        Random rnd = new Random(12);
+        for (int round = 0; round < 20; round++) {
+            int w = 1 + rnd.nextInt(25);
+            int h = 1 + rnd.nextInt(25);
+            int[][] arr = TestMaps.randomArray(w, h, 0.3, 3, rnd.nextLong());
+            RleMap2D rle = new RleMap2D(arr);
+            MyMap2D dense = new MyMap2D(arr);
+            rle.setCyclic(round % 2 == 0);
+            dense.setCyclic(round % 2 == 0);
+            for (int q = 0; q < 30; q++) {
+                Pixel2D a = new Index2D(rnd.nextInt(w), rnd.nextInt(h));
+                Pixel2D b = new Index2D(rnd.nextInt(w), rnd.nextInt(h));
+                String msg = "round " + round + " " + a + "->" + b;
+                Pixel2D[] expected = dense.shortestPath(a, b, WALL);
+                Pixel2D[] path = rle.shortestPath(a, b, WALL);
+                if (expected == null) {
+                    assertNull(path, msg + ": no path");
+                    continue;
+                }
+                assertNotNull(path, msg + ": a path exists");
+                assertEquals(expected.length, path.length, msg + ": shortest length");
+                assertEquals(a, path[0], msg + ": starts at p1");
+                assertEquals(b, path[path.length - 1], msg + ": ends at p2");
+                for (int i = 1; i < path.length; i++) {
+                    int dx = Math.abs(path[i].getX() - path[i - 1].getX());
+                    int dy = Math.abs(path[i].getY() - path[i - 1].getY());
+                    if (rle.isCyclic()) {
+                        dx = Math.min(dx, w - dx);
+                        dy = Math.min(dy, h - dy);
+                    }
+                    assertEquals(1, dx + dy, msg + ": step " + i + " is to a neighbor");
+                    assertNotEquals(WALL, rle.getPixel(path[i]), msg + ": no walls on the path");
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCyclicFillWrapsColumn() {
+        RleMap2D map = new RleMap2D(new int[][]{{0, 1, 1, 0}, {1, 1, 1, 1}});
+        assertEquals(1, map.fill(new Index2D(0, 0), 5), "Plain map: the top cell alone");
+        map.setPixel(0, 0, 0);
+        map.setCyclic(true);
+        assertEquals(2, map.fill(new Index2D(0, 0), 5), "Cyclic map: both ends of the column");
+        assertEquals(5, map.getPixel(0, 3), "Wrapped cell filled");
+        assertEquals(4, map.getRunCount(), "Three runs in column 0, one in column 1");
+    }
+
+    @Test
+    public void testCorridorLevelIsSmall() {
+        int w = 200;
+        int h = 200;
+        int[][] arr = new int[w][h];
+        for (int x = 0; x < w; x += 4) {
+            for (int y = 1; y < h - 1; y++) {
+                arr[x][y] = WALL;
+            }
+        }
+        RleMap2D map = new RleMap2D(arr);
+        assertTrue(map.getRunCount() * 8 < w * h * 4 / 20, "Long corridors need few runs");
+        assertEquals(w * h - (w / 4) * (h - 2), map.fill(new Index2D(1, 0), 3), "All corridors are connected");
+    }
+}
@@ -0,0 +1,84 @@
+package assignments.Ex3;
+
+import java.util.Arrays;
+
+/**
+ * SearchScratch - reusable buffers for one grid search
+ * Holds the frontier queue and a parent-index array. Instead of clearing
+ * the arrays before every search, each search gets a new epoch and a cell
+ * counts as visited only if its stamp equals the current epoch.
+ *
+ * Not thread-safe: one instance serves one search at a time.
+ */
+final class SearchScratch {
+    private int[] _stamp = new int[0];
+    private int[] _parent = new int[0];
+    private int[] _dist = new int[0];
+    private int _epoch;
+    private final IntRingQueue _queue = new IntRingQueue(256);
+
+    /**
+     * Start a new search over n cells: forgets all marks and empties the queue.
+     */
+    void begin(int n) {
+        if (this._stamp.length < n) {
+            this._stamp = new int[n];
+            this._parent = new int[n];
+            this._dist = new int[0];
+            this._epoch = 0;
+        }
+        this._epoch++;
+        if (this._epoch == Integer.MAX_VALUE) {
+            Arrays.fill(this._stamp, 0);
+            this._epoch = 1;
+        }
+        this._queue.clear();
+    }
+
+    /**
+     * @return the current search number; it changes with every begin()
+     */
+    int epoch() {
+        return this._epoch;
+    }
+
+    IntRingQueue queue() {
+        return this._queue;
+    }
+
+    boolean isMarked(int idx) {
+        return this._stamp[idx] == this._epoch;
+    }
+
+    /**
+     * Mark idx as visited and remember the cell it was reached from.
+     */
+    void mark(int idx, int parent) {
+        this._stamp[idx] = this._epoch;
+        this._parent[idx] = parent;
+    }
+
+    int parent(int idx) {
+        return this._parent[idx];
+    }
+
+    /**
+     * Mark idx as visited, remembering its parent and its search distance.
+     * The distance array is only allocated by searches that need it.
+     */
+    void mark(int idx, int parent, int dist) {
+        if (this._dist.length < this._stamp.length) {
+            this._dist = new int[this._stamp.length];
+        }
+        this._stamp[idx] = this._epoch;
+        this._parent[idx] = parent;
+        this._dist[idx] = dist;
+    }
+
+    /**
+     * @return the distance stored by mark(idx,parent,dist) in the current search.
+     */
+    int distance(int idx) {
+        return this._dist[idx];
+    }
+}
@@ -0,0 +1,35 @@
+package assignments.Ex3;
+
+import java.util.Random;
+
+/**
+ * TestMaps - random level fixtures shared by the JUnit tests.
+ * A cell is a wall (1) with probability wallRatio; the other cells are 0, or
+ * one of the colors 0, 2, 4, ... when several free colors are asked for.
+ */
+final class TestMaps {
+
+    static final int WALL = 1;
+
+    private TestMaps() {
+    }
+
+    static int[][] randomArray(int w, int h, double wallRatio, int colors, long seed) {
+        Random rnd = new Random(seed);
+        int[][] arr = new int[w][h];
+        for (int x = 0; x < w; x++) {
+            for (int y = 0; y < h; y++) {
+                arr[x][y] = rnd.nextDouble() < wallRatio ? WALL : 2 * rnd.nextInt(colors);
+            }
+        }
+        return arr;
+    }
+
+    static int[][] randomArray(int w, int h, double wallRatio, long seed) {
+        return randomArray(w, h, wallRatio, 1, seed);
+    }
+
+    static MyMap2D random(int w, int h, double wallRatio, long seed) {
+        return new MyMap2D(randomArray(w, h, wallRatio, seed));
+    }
+}
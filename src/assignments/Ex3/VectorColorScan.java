@@ -0,0 +1,75 @@
+package assignments.Ex3;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * VectorColorScan - the SIMD kernel of ColorScan.
+ * Compares a whole vector of cells with the color at once and finishes the
+ * tail of the range with scalar code. The only class that touches
+ * jdk.incubator.vector, so ColorScan can fall back when the module is absent.
+ */
+final class VectorColorScan implements ColorScan.Kernel {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    @Override
+    public int count(int[] a, int from, int to, int color) {
+        int n = 0;
+        int i = from;
+        int upper = from + SPECIES.loopBound(to - from);
+        for (; i < upper; i += SPECIES.length()) {
+            n += IntVector.fromArray(SPECIES, a, i).compare(VectorOperators.EQ, color).trueCount();
+        }
+        for (; i < to; i++) {
+            if (a[i] == color) n++;
+        }
+        return n;
+    }
+
+    @Override
+    public int findAll(int[] a, int from, int to, int color, int[] out) {
+        int n = 0;
+        int i = from;
+        int upper = from + SPECIES.loopBound(to - from);
+        for (; i < upper; i += SPECIES.length()) {
+            VectorMask<Integer> m = IntVector.fromArray(SPECIES, a, i).compare(VectorOperators.EQ, color);
+            if (!m.anyTrue()) continue;
+            // One bit per lane; emit the set lanes in order
+            for (long bits = m.toLong(); bits != 0; bits &= bits - 1) {
+                if (n == out.length) throw new RuntimeException("Output buffer too small");
+                out[n++] = i + Long.numberOfTrailingZeros(bits);
+            }
+        }
+        for (; i < to; i++) {
+            if (a[i] == color) {
+                if (n == out.length) throw new RuntimeException("Output buffer too small");
+                out[n++] = i;
+            }
+        }
+        return n;
+    }
+
+    @Override
+    public int replace(int[] a, int from, int to, int oldColor, int newColor) {
+        int n = 0;
+        int i = from;
+        int upper = from + SPECIES.loopBound(to - from);
+        for (; i < upper; i += SPECIES.length()) {
+            IntVector v = IntVector.fromArray(SPECIES, a, i);
+            VectorMask<Integer> m = v.compare(VectorOperators.EQ, oldColor);
+            if (!m.anyTrue()) continue;
+            v.blend(newColor, m).intoArray(a, i);
+            n += m.trueCount();
+        }
+        for (; i < to; i++) {
+            if (a[i] == oldColor) {
+                a[i] = newColor;
+                n++;
+            }
+        }
+        return n;
+    }
+}
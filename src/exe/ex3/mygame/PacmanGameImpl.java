@@ -1,5 +1,7 @@
 package exe.ex3.mygame;
 
+import assignments.Ex3.ColorScan;
+import assignments.Ex3.ConcurrentMap2D;
 import assignments.Ex3.PointInt2D;
 import assignments.Ex3.Index2D;
 import assignments.Ex3.Pixel2D;
@@ -28,6 +30,12 @@ import java.util.Random;
  * 3. Each turn: move(direction) moves Pacman & ghosts
  * 4. Check win/lose automatically
  * 5. Call end() to finish
+ *
+ * THREADS:
+ * - The board is a ConcurrentMap2D written only by the game thread
+ * - Every init() and move() publishes the board once, at the end of the tick
+ * - getGame() and getBoardSnapshot() read the last published board, so a
+ *   renderer or planner thread never sees a half-done tick and never blocks it
  */
 public class PacmanGameImpl implements PacmanGame {
 
@@ -42,7 +50,7 @@ public class PacmanGameImpl implements PacmanGame {
     private int _steps;                    // Number of moves made
     private PointInt2D _pos;               // Pacman's current (x,y) position
     private int _dir;                      // Pacman's facing direction (0=right, 90=up, 180=left, 270=down)
-    private int[][] _gameMap;             // The 2D board (values: WALL, FOOD, EMPTY, etc.)
+    private ConcurrentMap2D _board;       // The 2D board (values: WALL, FOOD, EMPTY, etc.)
     private ArrayList<GhostCL> _ghosts;   // All ghosts in game
     private long _startTime;               // Timestamp when play() was called
     private boolean _cyclic;               // true=wrap edges, false=bounded
@@ -110,12 +118,9 @@ public class PacmanGameImpl implements PacmanGame {
 
         // Count how many dots are in the map
         this._dots = 0;
-        for (int i = 0; i < this._gameMap.length; i++) {
-            for (int j = 0; j < this._gameMap[i].length; j++) {
-                if (this._gameMap[i][j] == PacmanGame.FOOD) {
-                    this._dots++;
-                }
-            }
+        int[][] cells = this._board.getMap();
+        for (int i = 0; i < cells.length; i++) {
+            this._dots += ColorScan.count(cells[i], PacmanGame.FOOD);
         }
 
         // Create 6 ghosts at different starting positions
@@ -127,6 +132,7 @@ public class PacmanGameImpl implements PacmanGame {
         this._ghosts.add(new GhostCL(12, 12, 1, 5));  // Ghost type 5
         this._ghosts.add(new GhostCL(12, 12, 1, 6));  // Ghost type 6
 
+        this._board.publish();
         return log();
     }
 
@@ -139,6 +145,7 @@ public class PacmanGameImpl implements PacmanGame {
      * - Borders and internal walls set to EMPTY
      * - Power pellets (value 5) at corners
      * - Pacman starting position set to EMPTY
+     * - The finished array becomes the board
      *
      * CONSTANTS:
      * - FOOD = 0 (edible dots)
@@ -146,40 +153,46 @@ public class PacmanGameImpl implements PacmanGame {
      * - POWER = 5 (power pellets - currently unused)
      */
     private void initMap() {
-        this._gameMap = new int[22][21];
+        int[][] gameMap = new int[22][21];
 
         // Step 1: Fill entire map with food dots
         for (int i = 0; i < 22; i++) {
             for (int j = 0; j < 21; j++) {
-                this._gameMap[i][j] = PacmanGame.FOOD;  // 0 = dot
+                gameMap[i][j] = PacmanGame.FOOD;  // 0 = dot
             }
         }
 
         // Step 2: Create border walls (top and bottom)
         for (int i = 0; i < 22; i++) {
-            this._gameMap[i][0] = PacmanGame.WALL;     // Bottom wall
-            this._gameMap[i][20] = PacmanGame.WALL;    // Top wall
+            gameMap[i][0] = PacmanGame.WALL;     // Bottom wall
+            gameMap[i][20] = PacmanGame.WALL;    // Top wall
         }
 
         // Step 3: Create border walls (left and right)
         for (int j = 0; j < 21; j++) {
-            this._gameMap[0][j] = PacmanGame.WALL;     // Left wall
-            this._gameMap[21][j] = PacmanGame.WALL;    // Right wall
+            gameMap[0][j] = PacmanGame.WALL;     // Left wall
+            gameMap[21][j] = PacmanGame.WALL;    // Right wall
         }
 
         // Step 4: Create internal maze walls
         for (int i = 5; i < 18; i++) {
-            this._gameMap[i][10] = PacmanGame.WALL;    // Horizontal wall divider
+            gameMap[i][10] = PacmanGame.WALL;    // Horizontal wall divider
         }
 
         // Step 5: Add power pellets at corners (bonus points when eaten)
-        this._gameMap[2][2] = 5;     // Corner power-up
-        this._gameMap[2][18] = 5;
-        this._gameMap[19][2] = 5;
-        this._gameMap[19][18] = 5;
+        gameMap[2][2] = 5;     // Corner power-up
+        gameMap[2][18] = 5;
+        gameMap[19][2] = 5;
+        gameMap[19][18] = 5;
 
         // Step 6: Clear Pacman's starting position
-        this._gameMap[11][14] = PacmanGame.EMPTY;
+        gameMap[11][14] = PacmanGame.EMPTY;
+
+        if (this._board == null) {
+            this._board = new ConcurrentMap2D(gameMap);
+        } else {
+            this._board.init(gameMap);
+        }
     }
 
     // ==================== GAME CONTROL ====================
@@ -273,7 +286,7 @@ public class PacmanGameImpl implements PacmanGame {
 
         // ========== MOVE PACMAN IF PATH IS CLEAR ==========
         if (isValidMove(newX, newY)) {
-            int cellValue = this._gameMap[newX][newY];
+            int cellValue = this._board.getPixel(newX, newY);
 
             // Move Pacman to new position
             this._pos = new PointInt2D(newX, newY);
@@ -283,7 +296,7 @@ public class PacmanGameImpl implements PacmanGame {
                 // Eating a regular dot
                 this._score += 10;
                 this._dots--;
-                this._gameMap[newX][newY] = PacmanGame.EMPTY;
+                this._board.setPixel(newX, newY, PacmanGame.EMPTY);
 
                 // Check if all food eaten (WIN condition)
                 if (this._dots == 0) {
@@ -292,7 +305,7 @@ public class PacmanGameImpl implements PacmanGame {
             } else if (cellValue == 5) {  // Power pellet
                 // Eating a power pellet
                 this._score += 100;
-                this._gameMap[newX][newY] = PacmanGame.EMPTY;
+                this._board.setPixel(newX, newY, PacmanGame.EMPTY);
 
                 // Make all ghosts vulnerable for 10 turns
                 for (GhostCL ghost : this._ghosts) {
@@ -328,6 +341,8 @@ public class PacmanGameImpl implements PacmanGame {
             }
         }
 
+        // End of the tick: make the board visible to other threads
+        this._board.publish();
         return getPos(0);
     }
 
@@ -397,15 +412,29 @@ public class PacmanGameImpl implements PacmanGame {
             return false;
         }
         // Check if it's a wall
-        int cellValue = this._gameMap[x][y];
+        int cellValue = this._board.getPixel(x, y);
         return cellValue != PacmanGame.WALL;  // WALL = 1
     }
 
     // ==================== QUERY METHODS ====================
 
+    /**
+     * @return a copy of the board as of the last finished tick (null before init)
+     */
     @Override
     public int[][] getGame(int code) {
-        return this._gameMap;
+        if (this._board == null) return null;
+        return this._board.snapshot().getMap();
+    }
+
+    /**
+     * The board as of the last finished tick, without copying it.
+     * Safe to read from any thread; a planner can search it while the game moves on.
+     * @return the last published board (null before init)
+     */
+    public ConcurrentMap2D.Snapshot getBoardSnapshot() {
+        if (this._board == null) return null;
+        return this._board.snapshot();
     }
 
     @Override
@@ -489,7 +518,7 @@ public class PacmanGameImpl implements PacmanGame {
      * @return Width in cells
      */
     private int getWidth() {
-        return this._gameMap.length;
+        return this._board.getWidth();
     }
 
     /**
@@ -497,6 +526,6 @@ public class PacmanGameImpl implements PacmanGame {
      * @return Height in cells
      */
     private int getHeight() {
-        return this._gameMap[0].length;
+        return this._board.getHeight();
     }
 }
\ No newline at end of file